@@ -0,0 +1,37 @@
+package ru.mishgan325.docsa.pr8.edge;
+
+import java.util.List;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+
+@Configuration
+public class EdgeAuthenticationConfig {
+
+    /**
+     * Always registered: with the mode off it still drops client-supplied identity headers.
+     * Keys are fetched from the issuer on the first token, not at startup.
+     */
+    @Bean
+    public EdgeAuthenticationFilter edgeAuthenticationFilter(
+            @Value("${app.security.internal-identity.enabled:false}") boolean enabled,
+            @Value("${app.security.internal-identity.secret:}") String secret,
+            @Value("${app.security.internal-identity.routes:product-service,customer-service,order-service}") List<String> routes,
+            @Value("${spring.security.oauth2.resourceserver.jwt.issuer-uri:}") String issuerUri,
+            @Value("${spring.security.oauth2.resourceserver.jwt.jws-algorithms:RS256}") List<String> jwsAlgorithms,
+            MeterRegistry meterRegistry) {
+        if (!enabled) {
+            return new EdgeAuthenticationFilter(null, null, List.of(), meterRegistry);
+        }
+        NimbusReactiveJwtDecoder jwtDecoder = NimbusReactiveJwtDecoder.withIssuerLocation(issuerUri)
+            .jwsAlgorithms(algorithms -> jwsAlgorithms.forEach(name -> algorithms.add(SignatureAlgorithm.from(name))))
+            .build();
+        jwtDecoder.setJwtValidator(JwtValidators.createDefaultWithIssuer(issuerUri));
+        return new EdgeAuthenticationFilter(jwtDecoder, new InternalIdentitySigner(secret), routes, meterRegistry);
+    }
+}
@@ -0,0 +1,125 @@
+package ru.mishgan325.docsa.pr8.edge;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.Set;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Verifies bearer tokens once, at the edge, for the routes in
+ * {@code app.security.internal-identity.routes}. A valid token is replaced by a signed
+ * {@value InternalIdentitySigner#HEADER} header that the services accept without verifying
+ * the JWT again; an invalid one is answered with 401 here. Requests without a token pass
+ * through for the services to decide, as they do for public catalogue reads.
+ * <p>
+ * Whatever the route, an identity header sent by the client is always dropped, so it can
+ * only ever come from this filter.
+ */
+public class EdgeAuthenticationFilter implements GlobalFilter, Ordered {
+
+    private static final Logger log = LoggerFactory.getLogger(EdgeAuthenticationFilter.class);
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final ReactiveJwtDecoder jwtDecoder;
+    private final InternalIdentitySigner signer;
+    private final Set<String> routes;
+    private final Counter accepted;
+    private final Counter rejected;
+
+    public EdgeAuthenticationFilter(ReactiveJwtDecoder jwtDecoder, InternalIdentitySigner signer,
+                                    Collection<String> routes, MeterRegistry meterRegistry) {
+        this.jwtDecoder = jwtDecoder;
+        this.signer = signer;
+        this.routes = Set.copyOf(routes);
+        this.accepted = Counter.builder("gateway.edge.auth").tag("outcome", "accepted").register(meterRegistry);
+        this.rejected = Counter.builder("gateway.edge.auth").tag("outcome", "rejected").register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerWebExchange stripped = exchange.mutate()
+            .request(request -> request.headers(headers -> headers.remove(InternalIdentitySigner.HEADER)))
+            .build();
+        String token = bearerToken(stripped);
+        if (token == null || !edgeRoute(stripped)) {
+            return chain.filter(stripped);
+        }
+        return jwtDecoder.decode(token)
+            .map(Optional::of)
+            .onErrorResume(JwtException.class, e -> {
+                log.debug("Rejected bearer token at the edge: {}", e.getMessage());
+                return Mono.just(Optional.empty());
+            })
+            .flatMap(jwt -> jwt.isPresent()
+                ? chain.filter(withIdentity(stripped, jwt.get()))
+                : unauthorized(stripped));
+    }
+
+    /**
+     * Right after route matching, ahead of the load balancer and the routing filters.
+     */
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 100;
+    }
+
+    private ServerWebExchange withIdentity(ServerWebExchange exchange, Jwt jwt) {
+        accepted.increment();
+        Object userId = jwt.getClaims().get("userId");
+        Instant expiresAt = jwt.getExpiresAt() != null ? jwt.getExpiresAt() : Instant.now().plusSeconds(60);
+        String identity = signer.sign(userId instanceof Number number ? number.longValue() : 0L,
+            jwt.getSubject(), scope(jwt), expiresAt);
+        return exchange.mutate()
+            .request(request -> request.headers(headers -> {
+                headers.remove(HttpHeaders.AUTHORIZATION);
+                headers.set(InternalIdentitySigner.HEADER, identity);
+            }))
+            .build();
+    }
+
+    private Mono<Void> unauthorized(ServerWebExchange exchange) {
+        rejected.increment();
+        exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
+        exchange.getResponse().getHeaders().set(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\"");
+        return exchange.getResponse().setComplete();
+    }
+
+    private boolean edgeRoute(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        return route != null && routes.contains(route.getId());
+    }
+
+    private static String bearerToken(ServerWebExchange exchange) {
+        String authorization = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (authorization == null || !authorization.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+            return null;
+        }
+        return authorization.substring(BEARER_PREFIX.length()).trim();
+    }
+
+    private static String scope(Jwt jwt) {
+        Object scope = jwt.getClaims().get("scope");
+        if (scope instanceof Collection<?> values) {
+            return String.join(" ", values.stream().map(String::valueOf).toList());
+        }
+        return scope == null ? "" : scope.toString();
+    }
+}
@@ -0,0 +1,63 @@
+package ru.mishgan325.docsa.pr8.edge;
+
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Base64;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Signs the {@value #HEADER} header the services verify with their
+ * {@code InternalIdentityCodec}:
+ * <pre>
+ * v1.&lt;userId&gt;.&lt;b64url(sub)&gt;.&lt;b64url(scope)&gt;.&lt;exp epoch seconds&gt;.&lt;signed at epoch millis&gt;.&lt;b64url(HMAC-SHA256)&gt;
+ * </pre>
+ * Any change here has to be made on both sides.
+ */
+public class InternalIdentitySigner {
+
+    public static final String HEADER = "X-Internal-Identity";
+
+    private static final String VERSION = "v1";
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MIN_SECRET_BYTES = 32;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final SecretKeySpec key;
+    private final Clock clock;
+
+    public InternalIdentitySigner(String secret) {
+        this(secret, Clock.systemUTC());
+    }
+
+    InternalIdentitySigner(String secret, Clock clock) {
+        byte[] bytes = secret == null ? new byte[0] : secret.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length < MIN_SECRET_BYTES) {
+            throw new IllegalStateException("Internal identity secret must be at least " + MIN_SECRET_BYTES + " bytes");
+        }
+        this.key = new SecretKeySpec(bytes, ALGORITHM);
+        this.clock = clock;
+    }
+
+    public String sign(long userId, String username, String scope, Instant expiresAt) {
+        String payload = String.join(".", VERSION, Long.toString(userId),
+            encode(username), encode(scope), Long.toString(expiresAt.getEpochSecond()),
+            Long.toString(clock.millis()));
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return payload + "." + ENCODER.encodeToString(mac.doFinal(payload.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            throw new IllegalStateException("Cannot compute " + ALGORITHM, e);
+        }
+    }
+
+    private static String encode(String value) {
+        return ENCODER.encodeToString((value == null ? "" : value).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,124 @@
+package ru.mishgan325.docsa.pr8.edge;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EdgeAuthenticationFilterTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+    private static final Instant NOW = Instant.parse("2025-06-01T12:00:00Z");
+    private static final Instant EXPIRES_AT = NOW.plusSeconds(3600);
+    private static final String FORGED = "v1.1.YWRtaW4..4102444800.1748779200000.forged";
+
+    private final InternalIdentitySigner signer =
+        new InternalIdentitySigner(SECRET, Clock.fixed(NOW, ZoneOffset.UTC));
+    private final ReactiveJwtDecoder jwtDecoder = token -> "good-token".equals(token)
+        ? Mono.just(Jwt.withTokenValue(token)
+            .header("alg", "RS256")
+            .subject("testuser")
+            .claim("userId", 100L)
+            .claim("scope", List.of("openid", "profile"))
+            .issuedAt(NOW)
+            .expiresAt(EXPIRES_AT)
+            .build())
+        : Mono.error(new BadJwtException("bad signature"));
+    private final EdgeAuthenticationFilter filter = new EdgeAuthenticationFilter(
+        jwtDecoder, signer, List.of("product-service"), new SimpleMeterRegistry());
+    private final EdgeAuthenticationFilter disabled = new EdgeAuthenticationFilter(
+        null, null, List.of(), new SimpleMeterRegistry());
+
+    private final AtomicReference<ServerWebExchange> forwarded = new AtomicReference<>();
+    private final GatewayFilterChain chain = exchange -> {
+        forwarded.set(exchange);
+        return Mono.empty();
+    };
+
+    @Test
+    void filter_WithValidToken_ShouldSwapAuthorizationForSignedIdentity() {
+        filter.filter(exchange("product-service", "Bearer good-token", null), chain).block();
+
+        HttpHeaders headers = forwarded.get().getRequest().getHeaders();
+        assertNull(headers.getFirst(HttpHeaders.AUTHORIZATION));
+        assertEquals(signer.sign(100L, "testuser", "openid profile", EXPIRES_AT),
+            headers.getFirst(InternalIdentitySigner.HEADER));
+    }
+
+    @Test
+    void filter_WithInvalidToken_ShouldRespondUnauthorized() {
+        MockServerWebExchange exchange = exchange("product-service", "Bearer bad-token", null);
+
+        filter.filter(exchange, chain).block();
+
+        assertNull(forwarded.get());
+        assertEquals(HttpStatus.UNAUTHORIZED, exchange.getResponse().getStatusCode());
+        assertEquals("Bearer error=\"invalid_token\"",
+            exchange.getResponse().getHeaders().getFirst(HttpHeaders.WWW_AUTHENTICATE));
+    }
+
+    @Test
+    void filter_OnRouteOutsideEdgeRoutes_ShouldPassRequestThroughUntouched() {
+        filter.filter(exchange("auth-service", "Bearer bad-token", null), chain).block();
+
+        HttpHeaders headers = forwarded.get().getRequest().getHeaders();
+        assertEquals("Bearer bad-token", headers.getFirst(HttpHeaders.AUTHORIZATION));
+        assertNull(headers.getFirst(InternalIdentitySigner.HEADER));
+    }
+
+    @Test
+    void filter_ShouldDropClientSuppliedIdentityOnEveryRoute() {
+        filter.filter(exchange("product-service", null, FORGED), chain).block();
+        assertNull(forwarded.get().getRequest().getHeaders().getFirst(InternalIdentitySigner.HEADER));
+
+        filter.filter(exchange("auth-service", "Bearer good-token", FORGED), chain).block();
+        assertNull(forwarded.get().getRequest().getHeaders().getFirst(InternalIdentitySigner.HEADER));
+
+        filter.filter(exchange("product-service", "Bearer good-token", FORGED), chain).block();
+        assertNotEquals(FORGED, forwarded.get().getRequest().getHeaders().getFirst(InternalIdentitySigner.HEADER));
+    }
+
+    @Test
+    void filter_WhenModeDisabled_ShouldStillDropClientSuppliedIdentity() {
+        disabled.filter(exchange("product-service", "Bearer good-token", FORGED), chain).block();
+
+        HttpHeaders headers = forwarded.get().getRequest().getHeaders();
+        assertNull(headers.getFirst(InternalIdentitySigner.HEADER));
+        assertEquals("Bearer good-token", headers.getFirst(HttpHeaders.AUTHORIZATION));
+    }
+
+    private static MockServerWebExchange exchange(String routeId, String authorization, String identity) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get("/products/1");
+        if (authorization != null) {
+            request.header(HttpHeaders.AUTHORIZATION, authorization);
+        }
+        if (identity != null) {
+            request.header(InternalIdentitySigner.HEADER, identity);
+        }
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, Route.async()
+            .id(routeId)
+            .uri("lb://" + routeId)
+            .predicate(candidate -> true)
+            .build());
+        return exchange;
+    }
+}
@@ -0,0 +1,33 @@
+package ru.mishgan325.docsa.pr8.edge;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InternalIdentitySignerTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+    private static final Instant NOW = Instant.parse("2025-06-01T12:00:00Z");
+    private static final Instant EXPIRES_AT = NOW.plus(Duration.ofHours(1));
+
+    @Test
+    void sign_ShouldProduceTheFormatTheServicesVerify() {
+        InternalIdentitySigner signer = new InternalIdentitySigner(SECRET, Clock.fixed(NOW, ZoneOffset.UTC));
+
+        // Same vector as security-common's InternalIdentityCodecTest: keep the two in step
+        assertEquals("v1.100.dGVzdHVzZXI.b3BlbmlkIHByb2ZpbGU.1748782800.1748779200000."
+                + "45_OSgKu7ABzlPAw3hQYqwdkMNrn2nZT7iysQxPu4Bc",
+            signer.sign(100L, "testuser", "openid profile", EXPIRES_AT));
+    }
+
+    @Test
+    void constructor_WithShortSecret_ShouldFail() {
+        assertThrows(IllegalStateException.class, () -> new InternalIdentitySigner("short"));
+        assertThrows(IllegalStateException.class, () -> new InternalIdentitySigner(null));
+    }
+}
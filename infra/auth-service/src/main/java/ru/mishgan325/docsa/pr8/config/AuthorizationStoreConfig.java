@@ -0,0 +1,49 @@
+package ru.mishgan325.docsa.pr8.config;
+
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.DatabasePopulatorUtils;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
+import ru.mishgan325.docsa.pr8.service.BoundedOAuth2AuthorizationService;
+import ru.mishgan325.docsa.pr8.service.ExpiringJdbcOAuth2AuthorizationService;
+
+/**
+ * Where the authorization server keeps codes, tokens and their authorizations, chosen by
+ * {@code app.authorization-store.type}: {@code jdbc} (default) survives restarts and is
+ * shared between instances, {@code memory} is bounded by {@code maximum-size}.
+ */
+@Configuration
+public class AuthorizationStoreConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.authorization-store.type", havingValue = "jdbc", matchIfMissing = true)
+    public ExpiringJdbcOAuth2AuthorizationService jdbcAuthorizationService(
+            DataSource dataSource,
+            JdbcTemplate jdbcTemplate,
+            RegisteredClientRepository registeredClientRepository,
+            @Value("${app.authorization-store.pending-ttl:10m}") Duration pendingTtl,
+            @Value("${app.authorization-store.purge-batch-size:1000}") int purgeBatchSize) {
+        // Before the service is built: it reads the column types of the table.
+        DatabasePopulatorUtils.execute(
+            new ResourceDatabasePopulator(new ClassPathResource("db/oauth2-authorization.sql")), dataSource);
+        return new ExpiringJdbcOAuth2AuthorizationService(jdbcTemplate, registeredClientRepository,
+            pendingTtl, purgeBatchSize);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.authorization-store.type", havingValue = "memory")
+    public BoundedOAuth2AuthorizationService inMemoryAuthorizationService(
+            @Value("${app.authorization-store.maximum-size:100000}") long maximumSize,
+            @Value("${app.authorization-store.pending-ttl:10m}") Duration pendingTtl) {
+        return new BoundedOAuth2AuthorizationService(maximumSize, pendingTtl);
+    }
+}
@@ -0,0 +1,90 @@
+package ru.mishgan325.docsa.pr8.config;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import ru.mishgan325.docsa.pr8.service.BoundedPasswordEncoder;
+
+@Configuration
+public class PasswordHashingConfig {
+
+    /**
+     * Pool for BCrypt work: login, client authentication, registration and password
+     * changes. Sized to the cores it may burn; when the queue is full new work is rejected
+     * rather than run on the caller. Queue depth and activity are published as
+     * {@code executor.*{name=password.hashing}}.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService passwordHashingExecutor(
+            @Value("${app.password-hashing.threads:4}") int threads,
+            @Value("${app.password-hashing.queue-capacity:32}") int queueCapacity,
+            MeterRegistry meterRegistry) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "password-hashing-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            threads, threads, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            threadFactory,
+            new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        new ExecutorServiceMetrics(executor, "password.hashing", Tags.empty()).bindTo(meterRegistry);
+        return executor;
+    }
+
+    /**
+     * Pool for hashing the passwords of a bulk user import, one thread per core unless
+     * {@code app.user-import.hashing-threads} says otherwise. Separate from the login pool:
+     * an import submits a whole chunk at once.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService userImportHashingExecutor(
+            @Value("${app.user-import.hashing-threads:0}") int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "user-import-hashing-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            poolSize, poolSize, 60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            threadFactory);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * BCrypt at {@code app.password-hashing.bcrypt-strength}. Raising it makes
+     * {@link PasswordEncoder#upgradeEncoding} true for older hashes, which are then
+     * re-encoded on the user's next successful login.
+     */
+    @Bean
+    public PasswordEncoder passwordEncoder(
+            @Qualifier("passwordHashingExecutor") ExecutorService passwordHashingExecutor,
+            @Value("${app.password-hashing.bcrypt-strength:10}") int strength,
+            @Value("${app.password-hashing.wait-timeout:2s}") Duration waitTimeout,
+            MeterRegistry meterRegistry) {
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(strength), passwordHashingExecutor,
+            waitTimeout, meterRegistry);
+    }
+}
@@ -1,15 +1,8 @@
 package ru.mishgan325.docsa.pr8.config;
 
-import java.security.KeyPair;
-import java.security.KeyPairGenerator;
-import java.security.interfaces.RSAPrivateKey;
-import java.security.interfaces.RSAPublicKey;
 import java.time.Duration;
-import java.util.UUID;
 
-import com.nimbusds.jose.jwk.JWKSet;
-import com.nimbusds.jose.jwk.RSAKey;
-import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import com.nimbusds.jose.jwk.JWK;
 import com.nimbusds.jose.jwk.source.JWKSource;
 import com.nimbusds.jose.proc.SecurityContext;
 import lombok.RequiredArgsConstructor;
@@ -25,14 +18,15 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.server.authorization.token.JwtEncodingContext;
 import org.springframework.security.oauth2.server.authorization.token.OAuth2TokenCustomizer;
 import ru.mishgan325.docsa.pr8.model.ShopUserDetails;
+import ru.mishgan325.docsa.pr8.service.SigningKeyRing;
 import org.springframework.security.oauth2.core.AuthorizationGrantType;
 import org.springframework.security.oauth2.core.ClientAuthenticationMethod;
 import org.springframework.security.oauth2.core.oidc.OidcScopes;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.server.authorization.client.InMemoryRegisteredClientRepository;
 import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
@@ -83,11 +77,13 @@ public class SecurityConfig {
 
     @Bean
     public RegisteredClientRepository registeredClientRepository(
-            @Value("${app.oauth2.redirect-uri}") String redirectUri) {
-        
-        RegisteredClient shopClient = RegisteredClient.withId(UUID.randomUUID().toString())
+            @Value("${app.oauth2.redirect-uri}") String redirectUri,
+            PasswordEncoder passwordEncoder) {
+
+        // Stored authorizations reference the client by id, so it must not change between restarts.
+        RegisteredClient shopClient = RegisteredClient.withId("shop-client")
             .clientId("shop-client")
-            .clientSecret(passwordEncoder().encode("shop-secret"))
+            .clientSecret(passwordEncoder.encode("shop-secret"))
             .clientAuthenticationMethod(ClientAuthenticationMethod.CLIENT_SECRET_BASIC)
             .clientAuthenticationMethod(ClientAuthenticationMethod.CLIENT_SECRET_POST)
             .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
@@ -109,41 +105,19 @@ public class SecurityConfig {
         return new InMemoryRegisteredClientRepository(shopClient);
     }
 
-    @Bean
-    public JWKSource<SecurityContext> jwkSource() {
-        KeyPair keyPair = generateRsaKey();
-        RSAPublicKey publicKey = (RSAPublicKey) keyPair.getPublic();
-        RSAPrivateKey privateKey = (RSAPrivateKey) keyPair.getPrivate();
-        
-        RSAKey rsaKey = new RSAKey.Builder(publicKey)
-            .privateKey(privateKey)
-            .keyID(UUID.randomUUID().toString())
-            .build();
-        
-        JWKSet jwkSet = new JWKSet(rsaKey);
-        return new ImmutableJWKSet<>(jwkSet);
-    }
-
-    private static KeyPair generateRsaKey() {
-        KeyPair keyPair;
-        try {
-            KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
-            keyPairGenerator.initialize(2048);
-            keyPair = keyPairGenerator.generateKeyPair();
-        } catch (Exception ex) {
-            throw new IllegalStateException("Failed to generate RSA key pair", ex);
-        }
-        return keyPair;
-    }
-
     @Bean
     public JwtDecoder jwtDecoder(JWKSource<SecurityContext> jwkSource) {
         return OAuth2AuthorizationServerConfiguration.jwtDecoder(jwkSource);
     }
 
     @Bean
-    public OAuth2TokenCustomizer<JwtEncodingContext> jwtCustomizer() {
+    public OAuth2TokenCustomizer<JwtEncodingContext> jwtCustomizer(SigningKeyRing signingKeyRing) {
         return context -> {
+            // The ring publishes several keys around a rotation, so name the one to sign with.
+            JWK signingKey = signingKeyRing.signingKey();
+            context.getJwsHeader()
+                .algorithm(SignatureAlgorithm.from(signingKey.getAlgorithm().getName()))
+                .keyId(signingKey.getKeyID());
             if (context.getTokenType().getValue().equals("access_token")) {
                 UserDetails userDetails = (UserDetails) context.getPrincipal().getPrincipal();
                 if (userDetails instanceof ShopUserDetails shopUserDetails) {
@@ -160,9 +134,4 @@ public class SecurityConfig {
             .issuer(issuer)
             .build();
     }
-
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
 }
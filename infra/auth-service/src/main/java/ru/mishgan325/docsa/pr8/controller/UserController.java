@@ -1,23 +1,33 @@
 package ru.mishgan325.docsa.pr8.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.stream.Collectors;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import ru.mishgan325.docsa.pr8.dto.CreateUserRequest;
 import ru.mishgan325.docsa.pr8.dto.UpdateUserRequest;
+import ru.mishgan325.docsa.pr8.dto.UserAvailabilityResponse;
+import ru.mishgan325.docsa.pr8.dto.UserImportResponse;
 import ru.mishgan325.docsa.pr8.dto.UserResponse;
+import ru.mishgan325.docsa.pr8.service.PasswordHashingRejectedException;
+import ru.mishgan325.docsa.pr8.service.UserImportService;
 import ru.mishgan325.docsa.pr8.service.UserService;
 
 @RestController
@@ -25,7 +35,10 @@ import ru.mishgan325.docsa.pr8.service.UserService;
 @RequiredArgsConstructor
 public class UserController {
 
+    static final String NDJSON = "application/x-ndjson";
+
     private final UserService userService;
+    private final UserImportService userImportService;
 
     @GetMapping
     public List<UserResponse> getAllUsers() {
@@ -34,6 +47,24 @@ public class UserController {
             .collect(Collectors.toList());
     }
 
+    /**
+     * Whether a username and/or email is still free, for forms that change them. Requires
+     * authentication, since every answer says whether an account exists. Values the
+     * availability filters rule out never reach the database, so a value taken on another
+     * instance reads as free until this one's filters are rebuilt, up to
+     * {@code app.user-availability.rebuild-interval}; saving it still fails on the unique index.
+     */
+    @GetMapping("/availability")
+    public ResponseEntity<UserAvailabilityResponse> getAvailability(@RequestParam(required = false) String username,
+                                                                    @RequestParam(required = false) String email) {
+        if (username == null && email == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(new UserAvailabilityResponse(
+            username != null ? !userService.isUsernameTaken(username) : null,
+            email != null ? !userService.isEmailTaken(email) : null));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<UserResponse> getUserById(@PathVariable Long id) {
         return userService.getUserById(id)
@@ -56,6 +87,18 @@ public class UserController {
         }
     }
 
+    /**
+     * Bulk import from a JSON array or NDJSON, one {@link CreateUserRequest} per row.
+     * 200 once the import ran, with rejected rows listed in the body; 409 while another
+     * import is running.
+     */
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE, NDJSON})
+    public ResponseEntity<UserImportResponse> importUsers(InputStream body) throws IOException {
+        return userImportService.importUsers(body)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.status(HttpStatus.CONFLICT).build());
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<UserResponse> updateUser(
         @PathVariable Long id,
@@ -83,5 +126,14 @@ public class UserController {
             return ResponseEntity.notFound().build();
         }
     }
-}
 
+    /**
+     * Registration or a password change arrived while the hashing pool was saturated.
+     */
+    @ExceptionHandler(PasswordHashingRejectedException.class)
+    public ResponseEntity<Void> handlePasswordHashingRejected() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "1")
+            .build();
+    }
+}
@@ -0,0 +1,12 @@
+package ru.mishgan325.docsa.pr8.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Only the values that were asked about are present.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record UserAvailabilityResponse(
+    Boolean usernameAvailable,
+    Boolean emailAvailable
+) {}
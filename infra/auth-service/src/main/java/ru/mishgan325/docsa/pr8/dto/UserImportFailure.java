@@ -0,0 +1,10 @@
+package ru.mishgan325.docsa.pr8.dto;
+
+/**
+ * One rejected row of a user import; {@code row} is 1-based in the order rows were sent.
+ */
+public record UserImportFailure(
+    int row,
+    String username,
+    String error
+) {}
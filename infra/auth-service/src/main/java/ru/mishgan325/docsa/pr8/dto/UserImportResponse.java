@@ -0,0 +1,12 @@
+package ru.mishgan325.docsa.pr8.dto;
+
+import java.util.List;
+
+/**
+ * Only failed rows are listed; every other row was created.
+ */
+public record UserImportResponse(
+    int created,
+    int rejected,
+    List<UserImportFailure> failures
+) {}
@@ -15,6 +15,16 @@ public class ShopUserDetails extends User implements UserDetails {
         this.setEmail(user.getEmail());
     }
 
+    /**
+     * Without a password: how the authorization store reads a login principal back, since
+     * it never writes the hash out.
+     */
+    public ShopUserDetails(Long id, String username, String email) {
+        this.setId(id);
+        this.setUsername(username);
+        this.setEmail(email);
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return Collections.emptyList();
@@ -0,0 +1,63 @@
+package ru.mishgan325.docsa.pr8.model;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One key of the token signing key ring. A key is published in the JWK set from creation
+ * until {@code expiresAt}, and signs tokens from {@code activatesAt} until {@code retiresAt};
+ * the gap after retirement lets tokens it signed run out before verifiers lose the key.
+ */
+@Entity
+@Table(name = "signing_keys", indexes = @Index(name = "idx_signing_keys_expires_at", columnList = "expiresAt"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SigningKey {
+
+    /**
+     * The JWK {@code kid}.
+     */
+    @Id
+    private String id;
+
+    /**
+     * JWS algorithm name, RS256 or ES256.
+     */
+    @Column(nullable = false, length = 10)
+    private String algorithm;
+
+    /**
+     * X.509 SubjectPublicKeyInfo, Base64.
+     */
+    @Column(nullable = false, columnDefinition = "text")
+    private String publicKey;
+
+    /**
+     * PKCS#8, encrypted with AES-GCM under {@code app.signing-keys.password}, Base64.
+     */
+    @Column(nullable = false, columnDefinition = "text")
+    private String privateKey;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    @Column(nullable = false)
+    private Instant activatesAt;
+
+    @Column(nullable = false)
+    private Instant retiresAt;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+}
@@ -29,6 +29,6 @@ public class User {
     @Column(nullable = false)
     private String password;
     
-    @Column(nullable = false)
+    @Column(unique = true, nullable = false)
     private String email;
 }
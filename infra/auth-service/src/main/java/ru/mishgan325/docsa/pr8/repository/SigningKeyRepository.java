@@ -0,0 +1,32 @@
+package ru.mishgan325.docsa.pr8.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ru.mishgan325.docsa.pr8.model.SigningKey;
+
+@Repository
+public interface SigningKeyRepository extends JpaRepository<SigningKey, String> {
+
+    /**
+     * Keys still in the JWK set, newest activation first.
+     */
+    @Query("select k from SigningKey k where k.expiresAt > :now order by k.activatesAt desc")
+    List<SigningKey> findPublished(@Param("now") Instant now);
+
+    @Modifying
+    @Query("delete from SigningKey k where k.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+
+    /**
+     * Serializes rotation across auth-service instances until the surrounding transaction
+     * ends.
+     */
+    @Query(value = "select 1 from (select pg_advisory_xact_lock(:key)) l", nativeQuery = true)
+    Integer lock(@Param("key") long key);
+}
@@ -0,0 +1,190 @@
+package ru.mishgan325.docsa.pr8.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2DeviceCode;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.security.oauth2.core.OAuth2Token;
+import org.springframework.security.oauth2.core.OAuth2UserCode;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+import org.springframework.security.oauth2.core.oidc.endpoint.OidcParameterNames;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationCode;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+
+/**
+ * In-memory {@link OAuth2AuthorizationService} with a size bound and per-authorization
+ * expiry, for single-instance deployments and tests. Unlike the framework's default map it
+ * forgets an authorization once its last token (usually the refresh token) expires, and
+ * evicts the least recently used ones beyond {@code maximumSize}; an authorization with no
+ * token yet, between the authorization request and the code, lives for {@code pendingTtl}.
+ * <p>
+ * Token values are indexed, so {@link #findByToken} is a map lookup rather than a scan.
+ */
+public class BoundedOAuth2AuthorizationService implements OAuth2AuthorizationService, MeterBinder {
+
+    private static final Map<String, Class<? extends OAuth2Token>> TOKEN_CLASSES = Map.of(
+        OAuth2ParameterNames.CODE, OAuth2AuthorizationCode.class,
+        OAuth2TokenType.ACCESS_TOKEN.getValue(), OAuth2AccessToken.class,
+        OidcParameterNames.ID_TOKEN, OidcIdToken.class,
+        OAuth2TokenType.REFRESH_TOKEN.getValue(), OAuth2RefreshToken.class,
+        OAuth2ParameterNames.USER_CODE, OAuth2UserCode.class,
+        OAuth2ParameterNames.DEVICE_CODE, OAuth2DeviceCode.class);
+
+    private final Clock clock;
+    private final Duration pendingTtl;
+    private final Cache<String, OAuth2Authorization> authorizations;
+    private final Map<String, String> idsByToken = new ConcurrentHashMap<>();
+
+    public BoundedOAuth2AuthorizationService(long maximumSize, Duration pendingTtl) {
+        this(maximumSize, pendingTtl, Clock.systemUTC());
+    }
+
+    BoundedOAuth2AuthorizationService(long maximumSize, Duration pendingTtl, Clock clock) {
+        this.clock = clock;
+        this.pendingTtl = pendingTtl;
+        this.authorizations = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfter(new UntilLastTokenExpires())
+            .ticker(() -> clock.millis() * 1_000_000)
+            // Evict on the calling thread, so the token index shrinks with the cache.
+            .executor(Runnable::run)
+            .evictionListener((String id, OAuth2Authorization authorization, RemovalCause cause) ->
+                unindex(authorization, Set.of()))
+            .build();
+    }
+
+    @Override
+    public void save(OAuth2Authorization authorization) {
+        Set<String> values = tokenValues(authorization);
+        values.forEach(value -> idsByToken.put(value, authorization.getId()));
+        OAuth2Authorization previous = authorizations.asMap().put(authorization.getId(), authorization);
+        if (previous != null) {
+            unindex(previous, values);
+        }
+    }
+
+    @Override
+    public void remove(OAuth2Authorization authorization) {
+        OAuth2Authorization removed = authorizations.asMap().remove(authorization.getId());
+        unindex(removed != null ? removed : authorization, Set.of());
+    }
+
+    @Override
+    public OAuth2Authorization findById(String id) {
+        return authorizations.getIfPresent(id);
+    }
+
+    @Override
+    public OAuth2Authorization findByToken(String token, OAuth2TokenType tokenType) {
+        String id = idsByToken.get(token);
+        if (id == null) {
+            return null;
+        }
+        OAuth2Authorization authorization = authorizations.getIfPresent(id);
+        return authorization != null && hasToken(authorization, token, tokenType) ? authorization : null;
+    }
+
+    /**
+     * {@code auth.authorizations.live{store=memory}}: authorizations currently held.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("auth.authorizations.live", authorizations, Cache::estimatedSize)
+            .tag("store", "memory")
+            .register(registry);
+    }
+
+    private void unindex(OAuth2Authorization authorization, Set<String> keep) {
+        for (String value : tokenValues(authorization)) {
+            if (!keep.contains(value)) {
+                idsByToken.remove(value, authorization.getId());
+            }
+        }
+    }
+
+    private static boolean hasToken(OAuth2Authorization authorization, String token, OAuth2TokenType tokenType) {
+        if (tokenType == null) {
+            return tokenValues(authorization).contains(token);
+        }
+        if (OAuth2ParameterNames.STATE.equals(tokenType.getValue())) {
+            return token.equals(authorization.getAttribute(OAuth2ParameterNames.STATE));
+        }
+        Class<? extends OAuth2Token> tokenClass = TOKEN_CLASSES.get(tokenType.getValue());
+        if (tokenClass == null) {
+            return false;
+        }
+        OAuth2Authorization.Token<? extends OAuth2Token> stored = authorization.getToken(tokenClass);
+        return stored != null && token.equals(stored.getToken().getTokenValue());
+    }
+
+    private static Set<String> tokenValues(OAuth2Authorization authorization) {
+        Set<String> values = new HashSet<>();
+        String state = authorization.getAttribute(OAuth2ParameterNames.STATE);
+        if (state != null) {
+            values.add(state);
+        }
+        for (Class<? extends OAuth2Token> tokenClass : TOKEN_CLASSES.values()) {
+            OAuth2Authorization.Token<? extends OAuth2Token> token = authorization.getToken(tokenClass);
+            if (token != null) {
+                values.add(token.getToken().getTokenValue());
+            }
+        }
+        return values;
+    }
+
+    /**
+     * The latest {@code expiresAt} among the authorization's tokens, or null while it has none.
+     */
+    private static Instant lastExpiry(OAuth2Authorization authorization) {
+        Instant last = null;
+        for (Class<? extends OAuth2Token> tokenClass : TOKEN_CLASSES.values()) {
+            OAuth2Authorization.Token<? extends OAuth2Token> token = authorization.getToken(tokenClass);
+            Instant expiresAt = token != null ? token.getToken().getExpiresAt() : null;
+            if (expiresAt != null && (last == null || expiresAt.isAfter(last))) {
+                last = expiresAt;
+            }
+        }
+        return last;
+    }
+
+    private final class UntilLastTokenExpires implements Expiry<String, OAuth2Authorization> {
+
+        @Override
+        public long expireAfterCreate(String id, OAuth2Authorization authorization, long currentTime) {
+            Instant expiresAt = lastExpiry(authorization);
+            if (expiresAt == null) {
+                return pendingTtl.toNanos();
+            }
+            return Math.max(0, Duration.between(clock.instant(), expiresAt).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String id, OAuth2Authorization authorization, long currentTime,
+                                      long currentDuration) {
+            return expireAfterCreate(id, authorization, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String id, OAuth2Authorization authorization, long currentTime,
+                                    long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package ru.mishgan325.docsa.pr8.service;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.jackson2.SecurityJackson2Modules;
+import org.springframework.security.oauth2.server.authorization.JdbcOAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
+import org.springframework.security.oauth2.server.authorization.jackson2.OAuth2AuthorizationServerJackson2Module;
+import ru.mishgan325.docsa.pr8.model.ShopUserDetails;
+
+/**
+ * The framework's JDBC store plus what it leaves out: rows are deleted in batches once
+ * their last token has expired, and the number of live authorizations is published.
+ * Token lookups rely on the hash indexes created by {@code db/oauth2-authorization.sql}.
+ * <p>
+ * A row with no token yet (an authorization request waiting for its code) is kept for
+ * {@code pendingTtl} after {@code created_at}.
+ * <p>
+ * Attributes hold the login {@code Authentication} as JSON, with {@link ShopUserDetails} as
+ * its principal; it is written through {@link ShopUserDetailsMixin}, so without its
+ * password hash, and read back without one.
+ */
+@Slf4j
+public class ExpiringJdbcOAuth2AuthorizationService extends JdbcOAuth2AuthorizationService implements MeterBinder {
+
+    private static final String LAST_EXPIRY = "greatest(authorization_code_expires_at, access_token_expires_at, "
+        + "oidc_id_token_expires_at, refresh_token_expires_at, user_code_expires_at, device_code_expires_at)";
+
+    private static final String DELETE_EXPIRED = "delete from oauth2_authorization where id in ("
+        + "select id from oauth2_authorization where " + LAST_EXPIRY + " < ? "
+        + "or (" + LAST_EXPIRY + " is null and created_at < ?) limit ?)";
+
+    private static final String COUNT_LIVE = "select count(*) from oauth2_authorization where "
+        + LAST_EXPIRY + " >= ? or (" + LAST_EXPIRY + " is null and created_at >= ?)";
+
+    private final JdbcOperations jdbcOperations;
+    private final Duration pendingTtl;
+    private final int purgeBatchSize;
+    private final Clock clock;
+    private final AtomicLong live = new AtomicLong();
+
+    public ExpiringJdbcOAuth2AuthorizationService(JdbcOperations jdbcOperations,
+                                                  RegisteredClientRepository registeredClientRepository,
+                                                  Duration pendingTtl, int purgeBatchSize) {
+        this(jdbcOperations, registeredClientRepository, pendingTtl, purgeBatchSize, Clock.systemUTC());
+    }
+
+    ExpiringJdbcOAuth2AuthorizationService(JdbcOperations jdbcOperations,
+                                           RegisteredClientRepository registeredClientRepository,
+                                           Duration pendingTtl, int purgeBatchSize, Clock clock) {
+        super(jdbcOperations, registeredClientRepository);
+        ObjectMapper objectMapper = objectMapper();
+        OAuth2AuthorizationRowMapper rowMapper = new OAuth2AuthorizationRowMapper(registeredClientRepository);
+        rowMapper.setObjectMapper(objectMapper);
+        setAuthorizationRowMapper(rowMapper);
+        OAuth2AuthorizationParametersMapper parametersMapper = new OAuth2AuthorizationParametersMapper();
+        parametersMapper.setObjectMapper(objectMapper);
+        setAuthorizationParametersMapper(parametersMapper);
+        this.jdbcOperations = jdbcOperations;
+        this.pendingTtl = pendingTtl;
+        this.purgeBatchSize = purgeBatchSize;
+        this.clock = clock;
+    }
+
+    /**
+     * The framework's mapper setup plus {@link ShopUserDetailsMixin}.
+     */
+    private static ObjectMapper objectMapper() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        ClassLoader classLoader = JdbcOAuth2AuthorizationService.class.getClassLoader();
+        objectMapper.registerModules(SecurityJackson2Modules.getModules(classLoader));
+        objectMapper.registerModule(new OAuth2AuthorizationServerJackson2Module());
+        objectMapper.addMixIn(ShopUserDetails.class, ShopUserDetailsMixin.class);
+        return objectMapper;
+    }
+
+    /**
+     * Deletes expired rows {@code purgeBatchSize} at a time, each batch its own statement so
+     * no single delete holds locks on a large part of the table, then refreshes the live count.
+     */
+    @Scheduled(fixedDelayString = "${app.authorization-store.purge-interval:5m}")
+    public void purgeExpired() {
+        Instant now = clock.instant();
+        Timestamp expiredBefore = Timestamp.from(now);
+        Timestamp pendingBefore = Timestamp.from(now.minus(pendingTtl));
+        int purged = 0;
+        int deleted;
+        do {
+            deleted = jdbcOperations.update(DELETE_EXPIRED, expiredBefore, pendingBefore, purgeBatchSize);
+            purged += deleted;
+        } while (deleted == purgeBatchSize);
+        if (purged > 0) {
+            log.info("Purged {} expired OAuth2 authorizations", purged);
+        }
+        Long count = jdbcOperations.queryForObject(COUNT_LIVE, Long.class, expiredBefore, pendingBefore);
+        live.set(count != null ? count : 0);
+    }
+
+    /**
+     * {@code auth.authorizations.live{store=jdbc}}, as of the last purge, so scrapes do not
+     * count the table themselves.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("auth.authorizations.live", live, AtomicLong::get)
+            .tag("store", "jdbc")
+            .register(registry);
+    }
+}
@@ -0,0 +1,14 @@
+package ru.mishgan325.docsa.pr8.service;
+
+import org.springframework.security.authentication.AuthenticationServiceException;
+
+/**
+ * The password hashing pool is saturated. An {@link AuthenticationServiceException}, so a
+ * login that hits it fails like any other back-end outage instead of surfacing as a 500.
+ */
+public class PasswordHashingRejectedException extends AuthenticationServiceException {
+
+    public PasswordHashingRejectedException(String message) {
+        super(message);
+    }
+}
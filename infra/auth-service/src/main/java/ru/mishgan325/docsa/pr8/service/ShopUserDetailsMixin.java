@@ -0,0 +1,25 @@
+package ru.mishgan325.docsa.pr8.service;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonIncludeProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import ru.mishgan325.docsa.pr8.model.ShopUserDetails;
+
+/**
+ * Jackson view of {@link ShopUserDetails} inside a stored login: id, username and email
+ * only, so the password hash never reaches {@code oauth2_authorization.attributes}.
+ * Registering it also puts the class on Spring Security's deserialization allowlist.
+ */
+@JsonTypeInfo(use = JsonTypeInfo.Id.CLASS)
+@JsonIncludeProperties({"id", "username", "email"})
+@JsonIgnoreProperties(ignoreUnknown = true)
+abstract class ShopUserDetailsMixin {
+
+    @JsonCreator
+    ShopUserDetailsMixin(@JsonProperty("id") Long id,
+                         @JsonProperty("username") String username,
+                         @JsonProperty("email") String email) {
+    }
+}
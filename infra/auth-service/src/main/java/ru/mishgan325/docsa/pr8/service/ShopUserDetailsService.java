@@ -2,6 +2,7 @@ package ru.mishgan325.docsa.pr8.service;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -10,18 +11,35 @@ import ru.mishgan325.docsa.pr8.model.ShopUserDetails;
 import ru.mishgan325.docsa.pr8.model.User;
 import ru.mishgan325.docsa.pr8.repository.UserRepository;
 
+/**
+ * Also a {@link UserDetailsPasswordService}: after a successful login whose stored hash is
+ * weaker than the configured encoder, Spring Security hands over the re-encoded password.
+ */
 @Service
 @RequiredArgsConstructor
-public class ShopUserDetailsService implements UserDetailsService {
+public class ShopUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
+    private final UserDetailsCache userDetailsCache;
 
+    /**
+     * Served from {@link UserDetailsCache}; only a miss opens a transaction, inside the
+     * repository call.
+     */
     @Override
-    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByUsername(username)
-            .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
-        return new ShopUserDetails(user);
+        return userDetailsCache.get(username, key -> userRepository.findByUsername(key)
+            .map(ShopUserDetails::new)
+            .orElseThrow(() -> new UsernameNotFoundException("User not found: " + key)));
     }
-}
 
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        User stored = userRepository.findByUsername(user.getUsername())
+            .orElseThrow(() -> new UsernameNotFoundException("User not found: " + user.getUsername()));
+        stored.setPassword(newPassword);
+        userDetailsCache.evict(stored.getUsername());
+        return new ShopUserDetails(userRepository.save(stored));
+    }
+}
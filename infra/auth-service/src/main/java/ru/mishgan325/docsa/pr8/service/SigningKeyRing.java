@@ -0,0 +1,243 @@
+package ru.mishgan325.docsa.pr8.service;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.crypto.encrypt.BytesEncryptor;
+import org.springframework.security.crypto.encrypt.Encryptors;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.mishgan325.docsa.pr8.model.SigningKey;
+import ru.mishgan325.docsa.pr8.repository.SigningKeyRepository;
+
+/**
+ * Token signing keys, persisted in {@code signing_keys} so they survive restarts and are
+ * shared by every auth-service instance.
+ * <p>
+ * Each key signs for {@code rotation-period}. Its successor is created {@code publish-ahead}
+ * of the switch, so resource servers can pick it up from the JWK set before the first token
+ * signed with it arrives, and a retired key stays published for
+ * {@code retain-after-retirement}, which must outlast the longest-lived JWT. Instances
+ * rotate under a PostgreSQL advisory lock and reload the ring on every check, so they
+ * converge on the same signing key within {@code check-interval}.
+ */
+@Slf4j
+@Component
+public class SigningKeyRing implements JWKSource<SecurityContext>, InitializingBean {
+
+    private static final long ROTATION_LOCK = 0x5349474E4B455953L;
+
+    public enum Algorithm { RS256, ES256 }
+
+    private final SigningKeyRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final Algorithm algorithm;
+    private final Duration rotationPeriod;
+    private final Duration publishAhead;
+    private final Duration retainAfterRetirement;
+    private final BytesEncryptor encryptor;
+    private final Clock clock;
+
+    private volatile Snapshot snapshot;
+
+    @Autowired
+    public SigningKeyRing(SigningKeyRepository repository,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${app.signing-keys.algorithm:RS256}") Algorithm algorithm,
+                          @Value("${app.signing-keys.rotation-period:30d}") Duration rotationPeriod,
+                          @Value("${app.signing-keys.publish-ahead:1h}") Duration publishAhead,
+                          @Value("${app.signing-keys.retain-after-retirement:2h}") Duration retainAfterRetirement,
+                          @Value("${app.signing-keys.password}") String password,
+                          @Value("${app.signing-keys.salt}") String salt) {
+        this(repository, transactionManager, algorithm, rotationPeriod, publishAhead, retainAfterRetirement,
+            password, salt, Clock.systemUTC());
+    }
+
+    SigningKeyRing(SigningKeyRepository repository, PlatformTransactionManager transactionManager,
+                   Algorithm algorithm, Duration rotationPeriod, Duration publishAhead,
+                   Duration retainAfterRetirement, String password, String salt, Clock clock) {
+        if (password == null || password.isBlank() || salt == null || salt.isBlank()) {
+            throw new IllegalStateException("app.signing-keys.password and app.signing-keys.salt must be set");
+        }
+        if (publishAhead.compareTo(rotationPeriod) >= 0) {
+            throw new IllegalArgumentException("app.signing-keys.publish-ahead must be shorter than rotation-period");
+        }
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.algorithm = algorithm;
+        this.rotationPeriod = rotationPeriod;
+        this.publishAhead = publishAhead;
+        this.retainAfterRetirement = retainAfterRetirement;
+        this.encryptor = Encryptors.stronger(password, salt);
+        this.clock = clock;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        rotate();
+        if (snapshot == null) {
+            throw new IllegalStateException("No active signing key after rotation");
+        }
+    }
+
+    /**
+     * Creates the next key when the current one is about to retire, drops expired keys and
+     * reloads the ring.
+     */
+    @Scheduled(fixedDelayString = "${app.signing-keys.check-interval:5m}",
+               initialDelayString = "${app.signing-keys.check-interval:5m}")
+    public void rotate() {
+        transactionTemplate.executeWithoutResult(status -> {
+            repository.lock(ROTATION_LOCK);
+            Instant now = clock.instant();
+            List<SigningKey> published = repository.findPublished(now);
+            SigningKey newest = published.isEmpty() ? null : published.get(0);
+            if (newest == null || !newest.getRetiresAt().isAfter(now)) {
+                create(now);
+            } else if (!newest.getRetiresAt().minus(publishAhead).isAfter(now)) {
+                create(newest.getRetiresAt());
+            }
+            int purged = repository.deleteExpired(now);
+            if (purged > 0) {
+                log.info("Removed {} expired signing keys", purged);
+            }
+        });
+        reload();
+    }
+
+    /**
+     * The key new tokens are signed with; its {@code kid} and algorithm go into the JWS header.
+     */
+    public JWK signingKey() {
+        return snapshot.signingKey();
+    }
+
+    /**
+     * Every published key, for the JWK set endpoint, the local decoder and the encoder's
+     * {@code kid} lookup.
+     */
+    @Override
+    public List<JWK> get(JWKSelector jwkSelector, SecurityContext context) {
+        return jwkSelector.select(snapshot.published());
+    }
+
+    private void reload() {
+        Instant now = clock.instant();
+        List<SigningKey> keys = repository.findPublished(now);
+        List<JWK> published = keys.stream().map(this::toJwk).toList();
+        JWK signing = null;
+        for (int i = 0; i < keys.size(); i++) {
+            if (!keys.get(i).getActivatesAt().isAfter(now)) {
+                signing = published.get(i);
+                break;
+            }
+        }
+        if (signing == null) {
+            log.warn("No signing key is active yet, keeping the previous one");
+            return;
+        }
+        Snapshot previous = snapshot;
+        snapshot = new Snapshot(new JWKSet(published), signing);
+        if (previous == null || !previous.signingKey().getKeyID().equals(signing.getKeyID())) {
+            log.info("Signing tokens with {} key {}", signing.getAlgorithm(), signing.getKeyID());
+        }
+    }
+
+    private void create(Instant activatesAt) {
+        KeyPair keyPair = generate(algorithm);
+        Instant retiresAt = activatesAt.plus(rotationPeriod);
+        SigningKey key = SigningKey.builder()
+            .id(UUID.randomUUID().toString())
+            .algorithm(algorithm.name())
+            .publicKey(Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded()))
+            .privateKey(Base64.getEncoder().encodeToString(encryptor.encrypt(keyPair.getPrivate().getEncoded())))
+            .createdAt(clock.instant())
+            .activatesAt(activatesAt)
+            .retiresAt(retiresAt)
+            .expiresAt(retiresAt.plus(retainAfterRetirement))
+            .build();
+        repository.save(key);
+        log.info("Created {} signing key {}, active from {}", algorithm, key.getId(), activatesAt);
+    }
+
+    private JWK toJwk(SigningKey key) {
+        try {
+            byte[] publicKey = Base64.getDecoder().decode(key.getPublicKey());
+            byte[] privateKey = encryptor.decrypt(Base64.getDecoder().decode(key.getPrivateKey()));
+            return switch (Algorithm.valueOf(key.getAlgorithm())) {
+                case RS256 -> {
+                    KeyFactory factory = KeyFactory.getInstance("RSA");
+                    yield new RSAKey.Builder((RSAPublicKey) factory.generatePublic(new X509EncodedKeySpec(publicKey)))
+                        .privateKey((RSAPrivateKey) factory.generatePrivate(new PKCS8EncodedKeySpec(privateKey)))
+                        .keyID(key.getId())
+                        .keyUse(KeyUse.SIGNATURE)
+                        .algorithm(JWSAlgorithm.RS256)
+                        .build();
+                }
+                case ES256 -> {
+                    KeyFactory factory = KeyFactory.getInstance("EC");
+                    yield new ECKey.Builder(Curve.P_256, (ECPublicKey) factory.generatePublic(new X509EncodedKeySpec(publicKey)))
+                        .privateKey((ECPrivateKey) factory.generatePrivate(new PKCS8EncodedKeySpec(privateKey)))
+                        .keyID(key.getId())
+                        .keyUse(KeyUse.SIGNATURE)
+                        .algorithm(JWSAlgorithm.ES256)
+                        .build();
+                }
+            };
+        } catch (GeneralSecurityException | IllegalStateException e) {
+            throw new IllegalStateException("Cannot load signing key " + key.getId(), e);
+        }
+    }
+
+    private static KeyPair generate(Algorithm algorithm) {
+        try {
+            return switch (algorithm) {
+                case RS256 -> {
+                    KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+                    generator.initialize(2048);
+                    yield generator.generateKeyPair();
+                }
+                case ES256 -> {
+                    KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+                    generator.initialize(new ECGenParameterSpec("secp256r1"));
+                    yield generator.generateKeyPair();
+                }
+            };
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to generate " + algorithm + " key pair", e);
+        }
+    }
+
+    private record Snapshot(JWKSet published, JWK signingKey) {}
+}
@@ -0,0 +1,202 @@
+package ru.mishgan325.docsa.pr8.service;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Bloom filters over every username and email in {@code users}, so the availability checks
+ * before a write only query the database when a value might be taken. A "no" is definite
+ * for everything this instance has seen; the unique indexes on both columns stay the source
+ * of truth for writes from other instances or ones racing a rebuild.
+ * <p>
+ * Bloom filters cannot forget, so deleted and renamed values keep answering "maybe" (and
+ * cost a query) until the filters are rebuilt from the table: every
+ * {@code rebuild-interval}, or sooner once such stale values or growth past
+ * {@code expected-insertions} would push the false-positive rate up. Until the first build
+ * finishes every answer is "maybe".
+ */
+@Slf4j
+@Component
+public class UserAvailabilityIndex {
+
+    private static final int FETCH_SIZE = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+    private final Duration rebuildInterval;
+    private final double maxStaleFraction;
+    private final Clock clock;
+    private final Counter absent;
+    private final Counter present;
+    private final Counter falsePositive;
+
+    private volatile Filters filters;
+    private volatile boolean rebuilding;
+    private final Queue<String[]> addedDuringRebuild = new ConcurrentLinkedQueue<>();
+    private final AtomicLong stale = new AtomicLong();
+
+    @Autowired
+    public UserAvailabilityIndex(JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.user-availability.expected-insertions:1000000}") long expectedInsertions,
+                                 @Value("${app.user-availability.false-positive-rate:0.01}") double falsePositiveRate,
+                                 @Value("${app.user-availability.rebuild-interval:6h}") Duration rebuildInterval,
+                                 @Value("${app.user-availability.max-stale-fraction:0.1}") double maxStaleFraction) {
+        this(jdbcTemplate, transactionManager, meterRegistry, expectedInsertions, falsePositiveRate, rebuildInterval, maxStaleFraction,
+            Clock.systemUTC());
+    }
+
+    UserAvailabilityIndex(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                          MeterRegistry meterRegistry, long expectedInsertions, double falsePositiveRate,
+                          Duration rebuildInterval, double maxStaleFraction, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.rebuildInterval = rebuildInterval;
+        this.maxStaleFraction = maxStaleFraction;
+        this.clock = clock;
+        this.absent = checks(meterRegistry, "absent");
+        this.present = checks(meterRegistry, "present");
+        this.falsePositive = checks(meterRegistry, "false-positive");
+    }
+
+    /**
+     * False only if no user has this username.
+     */
+    public boolean mightContainUsername(String username) {
+        Filters current = filters;
+        return current == null || current.usernames().mightContain(username);
+    }
+
+    /**
+     * False only if no user has this email.
+     */
+    public boolean mightContainEmail(String email) {
+        Filters current = filters;
+        return current == null || current.emails().mightContain(email);
+    }
+
+    /**
+     * Records how a check ended: {@code auth.user.availability.checks{result}} shows how many
+     * checks the filters answered alone and how often a "maybe" turned out free.
+     */
+    public void recordCheck(boolean mightContain, boolean taken) {
+        if (!mightContain) {
+            absent.increment();
+        } else if (taken) {
+            present.increment();
+        } else {
+            falsePositive.increment();
+        }
+    }
+
+    /**
+     * A user was created, or took this username and email; either may be null.
+     */
+    public void add(String username, String email) {
+        if (rebuilding) {
+            addedDuringRebuild.add(new String[] {username, email});
+        }
+        Filters current = filters;
+        if (current != null) {
+            current.put(username, email);
+        }
+    }
+
+    /**
+     * A username or email was freed by a rename or delete; it stays in the filters until the
+     * next rebuild.
+     */
+    public void markStale(int values) {
+        stale.addAndGet(values);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void build() {
+        rebuilding = true;
+        try {
+            Long count = jdbcTemplate.queryForObject("select count(*) from users", Long.class);
+            long capacity = Math.max(expectedInsertions, 2 * (count != null ? count : 0));
+            Filters fresh = new Filters(capacity, falsePositiveRate, clock.instant());
+            // PostgreSQL only streams with a fetch size inside a transaction.
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement("select username, email from users");
+                statement.setFetchSize(FETCH_SIZE);
+                return statement;
+            }, (RowCallbackHandler) resultSet -> fresh.put(resultSet.getString(1), resultSet.getString(2))));
+            filters = fresh;
+            stale.set(0);
+            log.info("Built user availability filters over {} users", count);
+        } finally {
+            rebuilding = false;
+            String[] added;
+            while ((added = addedDuringRebuild.poll()) != null) {
+                add(added[0], added[1]);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.user-availability.check-interval:10m}",
+               initialDelayString = "${app.user-availability.check-interval:10m}")
+    public void rebuildIfDegraded() {
+        Filters current = filters;
+        if (current == null
+                || current.builtAt().plus(rebuildInterval).isBefore(clock.instant())
+                || current.usernames().approximateElementCount() > current.capacity()
+                || stale.get() > maxStaleFraction * Math.max(1, current.usernames().approximateElementCount())) {
+            build();
+        }
+    }
+
+    private static Counter checks(MeterRegistry registry, String result) {
+        return Counter.builder("auth.user.availability.checks")
+            .tag("result", result)
+            .register(registry);
+    }
+
+    private record Filters(BloomFilter<CharSequence> usernames, BloomFilter<CharSequence> emails,
+                           long capacity, Instant builtAt) {
+
+        Filters(long capacity, double falsePositiveRate, Instant builtAt) {
+            this(BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8), capacity, falsePositiveRate),
+                BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8), capacity, falsePositiveRate),
+                capacity, builtAt);
+        }
+
+        void put(String username, String email) {
+            if (username != null) {
+                usernames.put(username);
+            }
+            if (email != null) {
+                emails.put(email);
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package ru.mishgan325.docsa.pr8.service;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.mishgan325.docsa.pr8.model.ShopUserDetails;
+
+/**
+ * {@link ShopUserDetails} by username, so form logins and token issuing skip the user
+ * lookup. Users changed through {@link UserService} are evicted once the change commits;
+ * evicting earlier would let a concurrent login cache the old row again. Changes made by
+ * another auth-service instance show up here after {@code ttl} at the latest.
+ */
+@Component
+public class UserDetailsCache implements MeterBinder {
+
+    private static final String CACHE_NAME = "user-details";
+
+    private final Cache<String, ShopUserDetails> cache;
+
+    public UserDetailsCache(@Value("${app.user-details-cache.maximum-size:10000}") long maximumSize,
+                            @Value("${app.user-details-cache.ttl:10m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+    }
+
+    /**
+     * The cached details, or the loader's result, which is then cached. Concurrent misses
+     * for one username share a single load; a loader exception is passed on and nothing is
+     * cached.
+     */
+    public ShopUserDetails get(String username, Function<String, ShopUserDetails> loader) {
+        return cache.get(username, loader);
+    }
+
+    public void put(ShopUserDetails userDetails) {
+        cache.put(userDetails.getUsername(), userDetails);
+    }
+
+    public void evict(String username) {
+        afterCommit(() -> cache.invalidate(username));
+    }
+
+    /**
+     * For callers that only know the id; scans the cache, which is fine for rare deletes.
+     */
+    public void evictUserId(Long userId) {
+        afterCommit(() -> cache.asMap().values().removeIf(userDetails -> userId.equals(userDetails.getId())));
+    }
+
+    /**
+     * Caffeine's {@code cache.gets{result=hit|miss}}, size and evictions under
+     * {@code cache=user-details}, plus {@code auth.user.details.cache.hit.ratio} since startup.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+        Gauge.builder("auth.user.details.cache.hit.ratio", cache, c -> c.stats().hitRate())
+            .tag("cache", CACHE_NAME)
+            .register(registry);
+    }
+
+    private static void afterCommit(Runnable eviction) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            eviction.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                eviction.run();
+            }
+        });
+    }
+}
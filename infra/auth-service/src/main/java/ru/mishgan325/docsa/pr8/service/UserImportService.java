@@ -0,0 +1,222 @@
+package ru.mishgan325.docsa.pr8.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.mishgan325.docsa.pr8.dto.CreateUserRequest;
+import ru.mishgan325.docsa.pr8.dto.UserImportFailure;
+import ru.mishgan325.docsa.pr8.dto.UserImportResponse;
+import ru.mishgan325.docsa.pr8.repository.UserRepository;
+
+/**
+ * Creates users from a JSON array or NDJSON stream, {@code chunk-size} rows at a time. Per
+ * chunk: bean validation, one set query each for taken usernames and emails, BCrypt on the
+ * import pool, and one JDBC batch insert committed on its own. A row that fails any step is
+ * reported and skipped; the rest of its chunk goes ahead.
+ * <p>
+ * Only the current chunk's rows are held, plus one failure entry per rejected row for the
+ * response, so memory grows with the number of rejections, not with the import's size.
+ * A duplicate of a row from an earlier chunk is caught by the set queries, since that
+ * chunk is already committed.
+ * <p>
+ * Hashing uses its own pool and encoder rather than the login pool, which would reject most
+ * of a chunk; only one import runs at a time so imports cannot take every core.
+ */
+@Slf4j
+@Service
+public class UserImportService {
+
+    static final String INSERT = "insert into users (username, password, email) values (?, ?, ?) "
+        + "on conflict do nothing";
+
+    private final UserRepository userRepository;
+    private final UserAvailabilityIndex availabilityIndex;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final ExecutorService hashingExecutor;
+    private final PasswordEncoder passwordEncoder;
+    private final int chunkSize;
+    private final Semaphore running = new Semaphore(1);
+
+    public UserImportService(UserRepository userRepository,
+                             UserAvailabilityIndex availabilityIndex,
+                             JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             ObjectMapper objectMapper,
+                             Validator validator,
+                             @Qualifier("userImportHashingExecutor") ExecutorService hashingExecutor,
+                             @Value("${app.password-hashing.bcrypt-strength:10}") int bcryptStrength,
+                             @Value("${app.user-import.chunk-size:1000}") int chunkSize) {
+        this.userRepository = userRepository;
+        this.availabilityIndex = availabilityIndex;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.hashingExecutor = hashingExecutor;
+        this.passwordEncoder = new BCryptPasswordEncoder(bcryptStrength);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Empty, without reading the body, while another import is still running.
+     */
+    public Optional<UserImportResponse> importUsers(InputStream body) throws IOException {
+        if (!running.tryAcquire()) {
+            return Optional.empty();
+        }
+        try (MappingIterator<CreateUserRequest> rows = objectMapper.readerFor(CreateUserRequest.class).readValues(body)) {
+            Progress progress = new Progress();
+            List<Row> chunk = new ArrayList<>(chunkSize);
+            int rowNumber = 0;
+            while (true) {
+                CreateUserRequest request;
+                try {
+                    if (!rows.hasNextValue()) {
+                        break;
+                    }
+                    rowNumber++;
+                    request = rows.nextValue();
+                } catch (JsonProcessingException e) {
+                    // The stream cannot be resynchronised after malformed input, so stop here.
+                    progress.fail(rowNumber, null, "Malformed JSON: " + e.getOriginalMessage());
+                    break;
+                }
+                if (admit(rowNumber, request, progress)) {
+                    chunk.add(new Row(rowNumber, request));
+                }
+                if (chunk.size() == chunkSize) {
+                    importChunk(chunk, progress);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                importChunk(chunk, progress);
+            }
+            log.info("User import finished: {} created, {} rejected", progress.created, progress.failures.size());
+            return Optional.of(new UserImportResponse(progress.created, progress.failures.size(), progress.failures));
+        } finally {
+            running.release();
+        }
+    }
+
+    /**
+     * Bean validation, which needs no database.
+     */
+    private boolean admit(int rowNumber, CreateUserRequest request, Progress progress) {
+        Set<ConstraintViolation<CreateUserRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            progress.fail(rowNumber, request.username(), violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; ")));
+            return false;
+        }
+        return true;
+    }
+
+    private void importChunk(List<Row> chunk, Progress progress) {
+        Set<String> takenUsernames = userRepository.findExistingUsernames(
+            chunk.stream().map(row -> row.request().username()).toList());
+        Set<String> takenEmails = userRepository.findExistingEmails(
+            chunk.stream().map(row -> row.request().email()).toList());
+
+        Set<String> chunkUsernames = new HashSet<>();
+        Set<String> chunkEmails = new HashSet<>();
+        List<Row> accepted = new ArrayList<>(chunk.size());
+        for (Row row : chunk) {
+            if (!chunkUsernames.add(row.request().username())) {
+                progress.fail(row.number(), row.request().username(), "Duplicate username in import");
+            } else if (!chunkEmails.add(row.request().email())) {
+                progress.fail(row.number(), row.request().username(), "Duplicate email in import");
+            } else if (takenUsernames.contains(row.request().username())) {
+                progress.fail(row.number(), row.request().username(), "Username already exists");
+            } else if (takenEmails.contains(row.request().email())) {
+                progress.fail(row.number(), row.request().username(), "Email already exists");
+            } else {
+                accepted.add(row);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        List<String> hashes = hash(accepted);
+        List<Object[]> batch = new ArrayList<>(accepted.size());
+        for (int i = 0; i < accepted.size(); i++) {
+            CreateUserRequest request = accepted.get(i).request();
+            batch.add(new Object[] {request.username(), hashes.get(i), request.email()});
+        }
+        int[] counts = transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(INSERT, batch));
+
+        for (int i = 0; i < counts.length; i++) {
+            Row row = accepted.get(i);
+            if (counts[i] == 0) {
+                // Lost a race with a concurrent registration on a unique column.
+                progress.fail(row.number(), row.request().username(), "Username or email already exists");
+            } else {
+                progress.created++;
+                availabilityIndex.add(row.request().username(), row.request().email());
+            }
+        }
+    }
+
+    private List<String> hash(List<Row> rows) {
+        List<Future<String>> futures = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            futures.add(hashingExecutor.submit(() -> passwordEncoder.encode(row.request().password())));
+        }
+        List<String> hashes = new ArrayList<>(rows.size());
+        try {
+            for (Future<String> future : futures) {
+                hashes.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing imported passwords", e);
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw new IllegalStateException("Hashing imported passwords failed", e.getCause());
+        }
+        return hashes;
+    }
+
+    private record Row(int number, CreateUserRequest request) {}
+
+    private static final class Progress {
+
+        private final List<UserImportFailure> failures = new ArrayList<>();
+        private int created;
+
+        private void fail(int row, String username, String error) {
+            failures.add(new UserImportFailure(row, username, error));
+        }
+    }
+}
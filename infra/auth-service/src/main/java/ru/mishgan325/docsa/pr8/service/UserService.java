@@ -1,6 +1,7 @@
 package ru.mishgan325.docsa.pr8.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -16,6 +17,8 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserDetailsCache userDetailsCache;
+    private final UserAvailabilityIndex availabilityIndex;
 
     @Transactional(readOnly = true)
     public List<User> getAllUsers() {
@@ -27,12 +30,32 @@ public class UserService {
         return userRepository.findById(id);
     }
 
+    /**
+     * Asks the database only when {@link UserAvailabilityIndex} cannot rule the username out.
+     */
+    public boolean isUsernameTaken(String username) {
+        boolean mightContain = availabilityIndex.mightContainUsername(username);
+        boolean taken = mightContain && userRepository.existsByUsername(username);
+        availabilityIndex.recordCheck(mightContain, taken);
+        return taken;
+    }
+
+    /**
+     * Asks the database only when {@link UserAvailabilityIndex} cannot rule the email out.
+     */
+    public boolean isEmailTaken(String email) {
+        boolean mightContain = availabilityIndex.mightContainEmail(email);
+        boolean taken = mightContain && userRepository.existsByEmail(email);
+        availabilityIndex.recordCheck(mightContain, taken);
+        return taken;
+    }
+
     @Transactional
     public User createUser(String username, String password, String email) {
-        if (userRepository.existsByUsername(username)) {
+        if (isUsernameTaken(username)) {
             throw new IllegalArgumentException("Username already exists");
         }
-        if (userRepository.existsByEmail(email)) {
+        if (isEmailTaken(email)) {
             throw new IllegalArgumentException("Email already exists");
         }
 
@@ -42,33 +65,47 @@ public class UserService {
             .email(email)
             .build();
 
-        return userRepository.save(user);
+        User saved = save(user);
+        availabilityIndex.add(username, email);
+        return saved;
     }
 
     @Transactional
     public User updateUser(Long id, String username, String email, String password) {
         User user = userRepository.findById(id)
             .orElseThrow(() -> new IllegalArgumentException("User not found"));
+        userDetailsCache.evict(user.getUsername());
 
+        String newUsername = null;
         if (username != null && !username.equals(user.getUsername())) {
-            if (userRepository.existsByUsername(username)) {
+            if (isUsernameTaken(username)) {
                 throw new IllegalArgumentException("Username already exists");
             }
             user.setUsername(username);
+            newUsername = username;
         }
 
+        String newEmail = null;
         if (email != null && !email.equals(user.getEmail())) {
-            if (userRepository.existsByEmail(email)) {
+            if (isEmailTaken(email)) {
                 throw new IllegalArgumentException("Email already exists");
             }
             user.setEmail(email);
+            newEmail = email;
         }
 
         if (password != null && !password.isBlank()) {
             user.setPassword(passwordEncoder.encode(password));
         }
 
-        return userRepository.save(user);
+        User saved = save(user);
+        if (newUsername != null || newEmail != null) {
+            // Flush so a unique-index conflict the filters could not foresee surfaces here.
+            flush();
+            availabilityIndex.add(newUsername, newEmail);
+            availabilityIndex.markStale((newUsername != null ? 1 : 0) + (newEmail != null ? 1 : 0));
+        }
+        return saved;
     }
 
     @Transactional
@@ -77,6 +114,28 @@ public class UserService {
             throw new IllegalArgumentException("User not found");
         }
         userRepository.deleteById(id);
+        userDetailsCache.evictUserId(id);
+        availabilityIndex.markStale(2);
+    }
+
+    /**
+     * The unique indexes decide when the availability filters said "free" but another
+     * instance, or a write racing a filter rebuild, got there first.
+     */
+    private User save(User user) {
+        try {
+            return userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalArgumentException("Username or email already exists", e);
+        }
+    }
+
+    private void flush() {
+        try {
+            userRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalArgumentException("Username or email already exists", e);
+        }
     }
 }
 
@@ -0,0 +1,52 @@
+-- Spring Authorization Server's oauth2_authorization table for PostgreSQL (text instead of blob),
+-- plus created_at for purging authorizations that never got a token.
+CREATE TABLE IF NOT EXISTS oauth2_authorization (
+    id                            varchar(100)  NOT NULL,
+    registered_client_id          varchar(100)  NOT NULL,
+    principal_name                varchar(200)  NOT NULL,
+    authorization_grant_type      varchar(100)  NOT NULL,
+    authorized_scopes             varchar(1000) DEFAULT NULL,
+    attributes                    text          DEFAULT NULL,
+    state                         varchar(500)  DEFAULT NULL,
+    authorization_code_value      text          DEFAULT NULL,
+    authorization_code_issued_at  timestamp     DEFAULT NULL,
+    authorization_code_expires_at timestamp     DEFAULT NULL,
+    authorization_code_metadata   text          DEFAULT NULL,
+    access_token_value            text          DEFAULT NULL,
+    access_token_issued_at        timestamp     DEFAULT NULL,
+    access_token_expires_at       timestamp     DEFAULT NULL,
+    access_token_metadata         text          DEFAULT NULL,
+    access_token_type             varchar(100)  DEFAULT NULL,
+    access_token_scopes           varchar(1000) DEFAULT NULL,
+    oidc_id_token_value           text          DEFAULT NULL,
+    oidc_id_token_issued_at       timestamp     DEFAULT NULL,
+    oidc_id_token_expires_at      timestamp     DEFAULT NULL,
+    oidc_id_token_metadata        text          DEFAULT NULL,
+    refresh_token_value           text          DEFAULT NULL,
+    refresh_token_issued_at       timestamp     DEFAULT NULL,
+    refresh_token_expires_at      timestamp     DEFAULT NULL,
+    refresh_token_metadata        text          DEFAULT NULL,
+    user_code_value               text          DEFAULT NULL,
+    user_code_issued_at           timestamp     DEFAULT NULL,
+    user_code_expires_at          timestamp     DEFAULT NULL,
+    user_code_metadata            text          DEFAULT NULL,
+    device_code_value             text          DEFAULT NULL,
+    device_code_issued_at         timestamp     DEFAULT NULL,
+    device_code_expires_at        timestamp     DEFAULT NULL,
+    device_code_metadata          text          DEFAULT NULL,
+    created_at                    timestamp     NOT NULL DEFAULT localtimestamp,
+    PRIMARY KEY (id)
+);
+
+-- findByToken compares whole values for equality; JWTs can outgrow a btree entry, hash indexes cannot.
+CREATE INDEX IF NOT EXISTS idx_oauth2_authorization_state ON oauth2_authorization USING hash (state);
+CREATE INDEX IF NOT EXISTS idx_oauth2_authorization_code ON oauth2_authorization USING hash (authorization_code_value);
+CREATE INDEX IF NOT EXISTS idx_oauth2_authorization_access_token ON oauth2_authorization USING hash (access_token_value);
+CREATE INDEX IF NOT EXISTS idx_oauth2_authorization_id_token ON oauth2_authorization USING hash (oidc_id_token_value);
+CREATE INDEX IF NOT EXISTS idx_oauth2_authorization_refresh_token ON oauth2_authorization USING hash (refresh_token_value);
+CREATE INDEX IF NOT EXISTS idx_oauth2_authorization_user_code ON oauth2_authorization USING hash (user_code_value);
+CREATE INDEX IF NOT EXISTS idx_oauth2_authorization_device_code ON oauth2_authorization USING hash (device_code_value);
+
+CREATE INDEX IF NOT EXISTS idx_oauth2_authorization_last_expiry ON oauth2_authorization (
+    greatest(authorization_code_expires_at, access_token_expires_at, oidc_id_token_expires_at,
+             refresh_token_expires_at, user_code_expires_at, device_code_expires_at));
@@ -9,6 +9,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import ru.mishgan325.docsa.pr8.dto.CreateUserRequest;
 import ru.mishgan325.docsa.pr8.dto.UpdateUserRequest;
+import ru.mishgan325.docsa.pr8.dto.UserAvailabilityResponse;
 import ru.mishgan325.docsa.pr8.dto.UserResponse;
 import ru.mishgan325.docsa.pr8.model.User;
 import ru.mishgan325.docsa.pr8.service.UserService;
@@ -17,6 +18,7 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -131,5 +133,20 @@ class UserControllerTest {
 
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
     }
-}
 
+    @Test
+    void getAvailability_ShouldAnswerOnlyWhatWasAsked() {
+        when(userService.isUsernameTaken("ivan")).thenReturn(true);
+
+        ResponseEntity<UserAvailabilityResponse> response = userController.getAvailability("ivan", null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(new UserAvailabilityResponse(false, null), response.getBody());
+        verify(userService, never()).isEmailTaken(any());
+    }
+
+    @Test
+    void getAvailability_WithoutParameters_ShouldReturn400() {
+        assertEquals(HttpStatus.BAD_REQUEST, userController.getAvailability(null, null).getStatusCode());
+    }
+}
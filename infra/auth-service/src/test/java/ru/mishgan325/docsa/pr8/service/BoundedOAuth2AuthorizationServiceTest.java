@@ -0,0 +1,162 @@
+package ru.mishgan325.docsa.pr8.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.stream.Stream;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationCode;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedOAuth2AuthorizationServiceTest {
+
+    private static final Instant NOW = Instant.parse("2025-06-01T12:00:00Z");
+    private static final OAuth2TokenType STATE = new OAuth2TokenType(OAuth2ParameterNames.STATE);
+    private static final OAuth2TokenType CODE = new OAuth2TokenType(OAuth2ParameterNames.CODE);
+
+    private static final RegisteredClient CLIENT = RegisteredClient.withId("shop-client")
+        .clientId("shop-client")
+        .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+        .redirectUri("http://localhost:8080/callback")
+        .build();
+
+    private MutableClock clock;
+    private BoundedOAuth2AuthorizationService service;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(NOW);
+        service = new BoundedOAuth2AuthorizationService(2, Duration.ofMinutes(10), clock);
+    }
+
+    @Test
+    void findByToken_ShouldLookUpEachTokenByItsType() {
+        service.save(issued("a1", "code-1", "access-1", "refresh-1"));
+
+        assertEquals("a1", service.findByToken("state-a1", STATE).getId());
+        assertEquals("a1", service.findByToken("code-1", CODE).getId());
+        assertEquals("a1", service.findByToken("access-1", OAuth2TokenType.ACCESS_TOKEN).getId());
+        assertEquals("a1", service.findByToken("refresh-1", OAuth2TokenType.REFRESH_TOKEN).getId());
+        assertEquals("a1", service.findByToken("refresh-1", null).getId());
+        assertNull(service.findByToken("access-1", OAuth2TokenType.REFRESH_TOKEN));
+        assertNull(service.findByToken("unknown", null));
+    }
+
+    @Test
+    void save_WhenTokensRotated_ShouldForgetOldValues() {
+        service.save(issued("a1", "code-1", "access-1", "refresh-1"));
+
+        service.save(OAuth2Authorization.from(issued("a1", "code-1", "access-2", "refresh-2")).build());
+
+        assertNull(service.findByToken("refresh-1", OAuth2TokenType.REFRESH_TOKEN));
+        assertEquals("a1", service.findByToken("refresh-2", OAuth2TokenType.REFRESH_TOKEN).getId());
+        assertEquals("a1", service.findByToken("code-1", CODE).getId());
+    }
+
+    @Test
+    void findById_AfterLastTokenExpires_ShouldReturnNull() {
+        service.save(issued("a1", "code-1", "access-1", "refresh-1"));
+
+        clock.set(NOW.plus(Duration.ofDays(6)));
+        assertNotNull(service.findById("a1"));
+
+        clock.set(NOW.plus(Duration.ofDays(7)).plusSeconds(1));
+        assertNull(service.findById("a1"));
+        assertNull(service.findByToken("refresh-1", OAuth2TokenType.REFRESH_TOKEN));
+    }
+
+    @Test
+    void findById_WhenPendingLongerThanTtl_ShouldReturnNull() {
+        service.save(pending("a1"));
+
+        clock.set(NOW.plus(Duration.ofMinutes(11)));
+
+        assertNull(service.findById("a1"));
+    }
+
+    @Test
+    void save_BeyondMaximumSize_ShouldEvictAndUnindex() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        service.bindTo(registry);
+
+        service.save(issued("a1", "code-1", "access-1", "refresh-1"));
+        service.save(issued("a2", "code-2", "access-2", "refresh-2"));
+        service.save(issued("a3", "code-3", "access-3", "refresh-3"));
+
+        assertEquals(2, registry.get("auth.authorizations.live").tag("store", "memory").gauge().value());
+        long found = Stream.of("refresh-1", "refresh-2", "refresh-3")
+            .filter(token -> service.findByToken(token, OAuth2TokenType.REFRESH_TOKEN) != null)
+            .count();
+        assertEquals(2, found);
+    }
+
+    @Test
+    void remove_ShouldDropAuthorizationAndItsTokens() {
+        OAuth2Authorization authorization = issued("a1", "code-1", "access-1", "refresh-1");
+        service.save(authorization);
+
+        service.remove(authorization);
+
+        assertNull(service.findById("a1"));
+        assertNull(service.findByToken("access-1", null));
+    }
+
+    private static OAuth2Authorization pending(String id) {
+        return OAuth2Authorization.withRegisteredClient(CLIENT)
+            .id(id)
+            .principalName("ivan")
+            .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+            .attribute(OAuth2ParameterNames.STATE, "state-" + id)
+            .build();
+    }
+
+    private static OAuth2Authorization issued(String id, String code, String accessToken, String refreshToken) {
+        return OAuth2Authorization.from(pending(id))
+            .token(new OAuth2AuthorizationCode(code, NOW, NOW.plus(Duration.ofMinutes(5))))
+            .accessToken(new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER, accessToken,
+                NOW, NOW.plus(Duration.ofHours(1))))
+            .refreshToken(new OAuth2RefreshToken(refreshToken, NOW, NOW.plus(Duration.ofDays(7))))
+            .build();
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void set(Instant now) {
+            this.now = now;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package ru.mishgan325.docsa.pr8.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Set;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationCode;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+import org.springframework.security.oauth2.server.authorization.client.InMemoryRegisteredClientRepository;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
+import ru.mishgan325.docsa.pr8.model.ShopUserDetails;
+import ru.mishgan325.docsa.pr8.model.User;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExpiringJdbcOAuth2AuthorizationServiceTest {
+
+    private static final Instant NOW = Instant.parse("2025-06-01T12:00:00Z");
+
+    @Mock
+    private JdbcOperations jdbcOperations;
+
+    @Mock
+    private RegisteredClientRepository registeredClientRepository;
+
+    @Test
+    void purgeExpired_ShouldDeleteInBatchesThenRefreshLiveGauge() {
+        ExpiringJdbcOAuth2AuthorizationService service = new ExpiringJdbcOAuth2AuthorizationService(
+            jdbcOperations, registeredClientRepository, Duration.ofMinutes(10), 2, Clock.fixed(NOW, ZoneOffset.UTC));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        service.bindTo(registry);
+        Timestamp now = Timestamp.from(NOW);
+        Timestamp pendingBefore = Timestamp.from(NOW.minus(Duration.ofMinutes(10)));
+        when(jdbcOperations.update(startsWith("delete from oauth2_authorization"), eq(now), eq(pendingBefore), eq(2)))
+            .thenReturn(2, 2, 1);
+        when(jdbcOperations.queryForObject(startsWith("select count(*)"), eq(Long.class), eq(now), eq(pendingBefore)))
+            .thenReturn(42L);
+
+        service.purgeExpired();
+
+        verify(jdbcOperations, times(3)).update(anyString(), any(), any(), any());
+        assertEquals(42, registry.get("auth.authorizations.live").tag("store", "jdbc").gauge().value());
+    }
+
+    @Test
+    void saveThenFindByToken_ShouldRestoreLoginPrincipalWithoutPasswordHash() {
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+            .generateUniqueName(true)
+            .setType(EmbeddedDatabaseType.HSQL)
+            .addScript("org/springframework/security/oauth2/server/authorization/oauth2-authorization-schema.sql")
+            .build();
+        try {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+            RegisteredClient client = RegisteredClient.withId("client-1")
+                .clientId("shop-client")
+                .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+                .redirectUri("http://localhost:8080/callback")
+                .scope("openid")
+                .build();
+            ExpiringJdbcOAuth2AuthorizationService service = new ExpiringJdbcOAuth2AuthorizationService(
+                jdbcTemplate, new InMemoryRegisteredClientRepository(client), Duration.ofMinutes(10), 2,
+                Clock.fixed(NOW, ZoneOffset.UTC));
+            ShopUserDetails user = new ShopUserDetails(User.builder()
+                .id(7L).username("alice").password("$2a$10$storedBcryptHash").email("alice@example.com").build());
+            Authentication login = UsernamePasswordAuthenticationToken.authenticated(user, null, user.getAuthorities());
+            service.save(OAuth2Authorization.withRegisteredClient(client)
+                .id("authorization-1")
+                .principalName("alice")
+                .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+                .authorizedScopes(Set.of("openid"))
+                .attribute(Principal.class.getName(), login)
+                .token(new OAuth2AuthorizationCode("code-1", NOW, NOW.plusSeconds(300)))
+                .build());
+
+            OAuth2Authorization found = service.findByToken("code-1", new OAuth2TokenType(OAuth2ParameterNames.CODE));
+
+            assertNotNull(found);
+            Authentication restored = found.getAttribute(Principal.class.getName());
+            ShopUserDetails principal = assertInstanceOf(ShopUserDetails.class, restored.getPrincipal());
+            assertEquals(7L, principal.getId());
+            assertEquals("alice", principal.getUsername());
+            assertEquals("alice@example.com", principal.getEmail());
+            assertNull(principal.getPassword());
+            String attributes = new String(jdbcTemplate.queryForObject(
+                "select attributes from oauth2_authorization", byte[].class), StandardCharsets.UTF_8);
+            assertFalse(attributes.contains("storedBcryptHash"));
+        } finally {
+            database.shutdown();
+        }
+    }
+}
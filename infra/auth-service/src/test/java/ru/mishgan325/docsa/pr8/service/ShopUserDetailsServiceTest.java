@@ -0,0 +1,88 @@
+package ru.mishgan325.docsa.pr8.service;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import ru.mishgan325.docsa.pr8.model.User;
+import ru.mishgan325.docsa.pr8.repository.UserRepository;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ShopUserDetailsServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UserDetailsCache userDetailsCache;
+    private ShopUserDetailsService shopUserDetailsService;
+
+    @BeforeEach
+    void setUp() {
+        userDetailsCache = new UserDetailsCache(100, Duration.ofMinutes(10));
+        shopUserDetailsService = new ShopUserDetailsService(userRepository, userDetailsCache);
+    }
+
+    @Test
+    void loadUserByUsername_ShouldServeRepeatedLoginsFromCache() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        userDetailsCache.bindTo(registry);
+        when(userRepository.findByUsername("ivan"))
+            .thenReturn(Optional.of(new User(1L, "ivan", "hash", "ivan@example.com")));
+
+        UserDetails first = shopUserDetailsService.loadUserByUsername("ivan");
+        UserDetails second = shopUserDetailsService.loadUserByUsername("ivan");
+
+        assertSame(first, second);
+        assertEquals("hash", second.getPassword());
+        verify(userRepository, times(1)).findByUsername("ivan");
+        assertEquals(0.5, registry.get("auth.user.details.cache.hit.ratio").gauge().value());
+    }
+
+    @Test
+    void loadUserByUsername_AfterEvict_ShouldReloadChangedUser() {
+        when(userRepository.findByUsername("ivan"))
+            .thenReturn(Optional.of(new User(1L, "ivan", "old", "ivan@example.com")))
+            .thenReturn(Optional.of(new User(1L, "ivan", "new", "ivan@example.com")));
+        shopUserDetailsService.loadUserByUsername("ivan");
+
+        userDetailsCache.evict("ivan");
+
+        assertEquals("new", shopUserDetailsService.loadUserByUsername("ivan").getPassword());
+    }
+
+    @Test
+    void loadUserByUsername_AfterEvictUserId_ShouldRejectDeletedUser() {
+        when(userRepository.findByUsername("ivan"))
+            .thenReturn(Optional.of(new User(1L, "ivan", "hash", "ivan@example.com")))
+            .thenReturn(Optional.empty());
+        shopUserDetailsService.loadUserByUsername("ivan");
+
+        userDetailsCache.evictUserId(1L);
+
+        assertThrows(UsernameNotFoundException.class, () -> shopUserDetailsService.loadUserByUsername("ivan"));
+    }
+
+    @Test
+    void updatePassword_ShouldStoreNewHashAndEvict() {
+        User stored = new User(1L, "ivan", "old", "ivan@example.com");
+        when(userRepository.findByUsername("ivan")).thenReturn(Optional.of(stored));
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        UserDetails cached = shopUserDetailsService.loadUserByUsername("ivan");
+
+        shopUserDetailsService.updatePassword(cached, "rehashed");
+
+        assertEquals("rehashed", stored.getPassword());
+        assertNotSame(cached, shopUserDetailsService.loadUserByUsername("ivan"));
+    }
+}
@@ -0,0 +1,203 @@
+package ru.mishgan325.docsa.pr8.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.mishgan325.docsa.pr8.model.SigningKey;
+import ru.mishgan325.docsa.pr8.repository.SigningKeyRepository;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SigningKeyRingTest {
+
+    private static final Instant START = Instant.parse("2025-06-01T12:00:00Z");
+    private static final Duration ROTATION = Duration.ofDays(30);
+
+    @Mock
+    private SigningKeyRepository repository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final List<SigningKey> table = new ArrayList<>();
+    private MutableClock clock;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(START);
+        lenient().when(repository.findPublished(any())).thenAnswer(invocation -> {
+            Instant now = invocation.getArgument(0);
+            return table.stream()
+                .filter(key -> key.getExpiresAt().isAfter(now))
+                .sorted(Comparator.comparing(SigningKey::getActivatesAt).reversed())
+                .toList();
+        });
+        lenient().when(repository.save(any(SigningKey.class))).thenAnswer(invocation -> {
+            table.add(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+        lenient().when(repository.deleteExpired(any())).thenAnswer(invocation -> {
+            Instant now = invocation.getArgument(0);
+            int before = table.size();
+            table.removeIf(key -> !key.getExpiresAt().isAfter(now));
+            return before - table.size();
+        });
+    }
+
+    @Test
+    void afterPropertiesSet_WhenTableEmpty_ShouldCreateActiveKeyWithEncryptedPrivateHalf() {
+        SigningKeyRing ring = ring(SigningKeyRing.Algorithm.RS256);
+
+        assertEquals(1, table.size());
+        SigningKey key = table.get(0);
+        assertEquals(START, key.getActivatesAt());
+        assertEquals(START.plus(ROTATION), key.getRetiresAt());
+        assertEquals(START.plus(ROTATION).plus(Duration.ofHours(2)), key.getExpiresAt());
+        assertEquals(key.getId(), ring.signingKey().getKeyID());
+        assertEquals(JWSAlgorithm.RS256, ring.signingKey().getAlgorithm());
+        assertTrue(ring.signingKey().isPrivate());
+        verify(repository).lock(anyLong());
+    }
+
+    @Test
+    void afterPropertiesSet_WhenKeyPersisted_ShouldReuseItAfterRestart() {
+        String kid = ring(SigningKeyRing.Algorithm.RS256).signingKey().getKeyID();
+
+        SigningKeyRing restarted = ring(SigningKeyRing.Algorithm.RS256);
+
+        assertEquals(kid, restarted.signingKey().getKeyID());
+        assertEquals(1, table.size());
+    }
+
+    @Test
+    void rotate_ShouldPublishNextKeyAheadAndSwitchAtRetirement() {
+        SigningKeyRing ring = ring(SigningKeyRing.Algorithm.RS256);
+        String first = ring.signingKey().getKeyID();
+
+        clock.set(START.plus(ROTATION).minus(Duration.ofMinutes(30)));
+        ring.rotate();
+
+        assertEquals(2, table.size());
+        assertEquals(first, ring.signingKey().getKeyID());
+        assertEquals(2, ring.get(new JWKSelector(new JWKMatcher.Builder().build()), null).size());
+        SigningKey next = table.get(1);
+        assertEquals(START.plus(ROTATION), next.getActivatesAt());
+
+        clock.set(START.plus(ROTATION));
+        ring.rotate();
+
+        assertEquals(next.getId(), ring.signingKey().getKeyID());
+        assertEquals(2, table.size());
+
+        clock.set(START.plus(ROTATION).plus(Duration.ofHours(2)));
+        ring.rotate();
+
+        assertEquals(List.of(next.getId()), table.stream().map(SigningKey::getId).toList());
+        assertEquals(1, ring.get(new JWKSelector(new JWKMatcher.Builder().build()), null).size());
+    }
+
+    @Test
+    void rotate_WhenCurrentKeyFarFromRetirement_ShouldNotCreateKey() {
+        SigningKeyRing ring = ring(SigningKeyRing.Algorithm.RS256);
+
+        clock.set(START.plus(Duration.ofDays(10)));
+        ring.rotate();
+
+        assertEquals(1, table.size());
+    }
+
+    @Test
+    void signingKey_ES256_ShouldSignTokensTheRingVerifies() {
+        SigningKeyRing ring = ring(SigningKeyRing.Algorithm.ES256);
+        JWK key = ring.signingKey();
+        assertEquals(JWSAlgorithm.ES256, key.getAlgorithm());
+
+        String token = new NimbusJwtEncoder(ring).encode(JwtEncoderParameters.from(
+            JwsHeader.with(SignatureAlgorithm.ES256).keyId(key.getKeyID()).build(),
+            JwtClaimsSet.builder().subject("ivan").expiresAt(Instant.now().plusSeconds(60)).build()))
+            .getTokenValue();
+
+        DefaultJWTProcessor<SecurityContext> processor = new DefaultJWTProcessor<>();
+        processor.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.ES256, ring));
+        assertEquals("ivan", new NimbusJwtDecoder(processor).decode(token).getSubject());
+    }
+
+    @Test
+    void constructor_WhenPublishAheadNotShorterThanRotation_ShouldFail() {
+        assertThrows(IllegalArgumentException.class, () -> new SigningKeyRing(repository, transactionManager,
+            SigningKeyRing.Algorithm.RS256, Duration.ofHours(1), Duration.ofHours(1), Duration.ofHours(2),
+            "password", "5c0744940b5c369b", clock));
+    }
+
+    @Test
+    void constructor_WhenPasswordOrSaltMissing_ShouldFail() {
+        assertThrows(IllegalStateException.class, () -> new SigningKeyRing(repository, transactionManager,
+            SigningKeyRing.Algorithm.RS256, ROTATION, Duration.ofHours(1), Duration.ofHours(2),
+            "", "5c0744940b5c369b", clock));
+        assertThrows(IllegalStateException.class, () -> new SigningKeyRing(repository, transactionManager,
+            SigningKeyRing.Algorithm.RS256, ROTATION, Duration.ofHours(1), Duration.ofHours(2),
+            "password", "", clock));
+    }
+
+    private SigningKeyRing ring(SigningKeyRing.Algorithm algorithm) {
+        SigningKeyRing ring = new SigningKeyRing(repository, transactionManager, algorithm, ROTATION,
+            Duration.ofHours(1), Duration.ofHours(2), "password", "5c0744940b5c369b", clock);
+        ring.afterPropertiesSet();
+        return ring;
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void set(Instant now) {
+            this.now = now;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package ru.mishgan325.docsa.pr8.service;
+
+import java.sql.ResultSet;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserAvailabilityIndexTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private UserAvailabilityIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new UserAvailabilityIndex(jdbcTemplate, transactionManager, meterRegistry, 1000, 0.001,
+            Duration.ofHours(6), 0.1, Clock.fixed(Instant.parse("2025-06-01T12:00:00Z"), ZoneOffset.UTC));
+    }
+
+    @Test
+    void mightContain_BeforeFirstBuild_ShouldAlwaysSayMaybe() {
+        assertTrue(index.mightContainUsername("anyone"));
+        assertTrue(index.mightContainEmail("anyone@example.com"));
+    }
+
+    @Test
+    void build_ShouldLoadEveryUserAndRuleOutTheRest() throws Exception {
+        users(new String[] {"ivan", "ivan@example.com"}, new String[] {"petr", "petr@example.com"});
+
+        index.build();
+
+        assertTrue(index.mightContainUsername("ivan"));
+        assertTrue(index.mightContainEmail("petr@example.com"));
+        assertFalse(index.mightContainUsername("olga"));
+        assertFalse(index.mightContainEmail("olga@example.com"));
+    }
+
+    @Test
+    void add_ShouldMakeNewValuesVisible() throws Exception {
+        users();
+        index.build();
+
+        index.add("olga", "olga@example.com");
+
+        assertTrue(index.mightContainUsername("olga"));
+        assertTrue(index.mightContainEmail("olga@example.com"));
+    }
+
+    @Test
+    void rebuildIfDegraded_WhenTooManyStaleValues_ShouldRebuild() throws Exception {
+        users(new String[] {"ivan", "ivan@example.com"});
+        index.build();
+
+        index.rebuildIfDegraded();
+        verify(jdbcTemplate, times(1)).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+
+        index.markStale(2);
+        index.rebuildIfDegraded();
+        verify(jdbcTemplate, times(2)).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+
+    @Test
+    void recordCheck_ShouldCountOutcomes() {
+        index.recordCheck(false, false);
+        index.recordCheck(true, true);
+        index.recordCheck(true, false);
+
+        assertEquals(1, meterRegistry.get("auth.user.availability.checks").tag("result", "absent").counter().count());
+        assertEquals(1, meterRegistry.get("auth.user.availability.checks").tag("result", "present").counter().count());
+        assertEquals(1, meterRegistry.get("auth.user.availability.checks").tag("result", "false-positive")
+            .counter().count());
+    }
+
+    private void users(String[]... rows) throws Exception {
+        when(jdbcTemplate.queryForObject(eq("select count(*) from users"), eq(Long.class))).thenReturn((long) rows.length);
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (String[] row : rows) {
+                ResultSet resultSet = mock(ResultSet.class);
+                when(resultSet.getString(1)).thenReturn(row[0]);
+                when(resultSet.getString(2)).thenReturn(row[1]);
+                handler.processRow(resultSet);
+            }
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+}
@@ -0,0 +1,168 @@
+package ru.mishgan325.docsa.pr8.service;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.mishgan325.docsa.pr8.dto.UserImportFailure;
+import ru.mishgan325.docsa.pr8.dto.UserImportResponse;
+import ru.mishgan325.docsa.pr8.repository.UserRepository;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserImportServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserAvailabilityIndex availabilityIndex;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final ExecutorService hashingExecutor = Executors.newFixedThreadPool(2);
+    private UserImportService userImportService;
+
+    @BeforeEach
+    void setUp() {
+        userImportService = new UserImportService(userRepository, availabilityIndex, jdbcTemplate, transactionManager,
+            new ObjectMapper(), Validation.buildDefaultValidatorFactory().getValidator(), hashingExecutor, 4, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        hashingExecutor.shutdownNow();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importUsers_ShouldCheckSetsPerChunkAndInsertInBatches() throws Exception {
+        when(userRepository.findExistingUsernames(anyCollection())).thenReturn(Set.of());
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(Set.of());
+        when(jdbcTemplate.batchUpdate(eq(UserImportService.INSERT), anyList()))
+            .thenReturn(new int[] {1, 1}, new int[] {1});
+
+        UserImportResponse response = userImportService.importUsers(ndjson(
+            row("ivan", "password1", "ivan@example.com"),
+            row("petr", "password2", "petr@example.com"),
+            row("olga", "password3", "olga@example.com"))).orElseThrow();
+
+        assertEquals(3, response.created());
+        assertEquals(0, response.rejected());
+        verify(availabilityIndex).add("olga", "olga@example.com");
+        verify(userRepository, times(2)).findExistingUsernames(anyCollection());
+        ArgumentCaptor<List<Object[]>> batches = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(eq(UserImportService.INSERT), batches.capture());
+        Object[] first = batches.getAllValues().get(0).get(0);
+        assertEquals("ivan", first[0]);
+        assertTrue(new BCryptPasswordEncoder().matches("password1", (String) first[1]));
+        assertEquals("ivan@example.com", first[2]);
+    }
+
+    @Test
+    void importUsers_ShouldReportEachRejectedRow() throws Exception {
+        when(userRepository.findExistingUsernames(anyCollection())).thenAnswer(invocation ->
+            ((Collection<?>) invocation.getArgument(0)).contains("taken") ? Set.of("taken") : Set.of());
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(Set.of());
+        when(jdbcTemplate.batchUpdate(eq(UserImportService.INSERT), anyList())).thenReturn(new int[] {1}, new int[] {0});
+
+        UserImportResponse response = userImportService.importUsers(ndjson(
+            row("ivan", "password1", "ivan@example.com"),
+            row("ab", "password2", "not-an-email"),
+            row("ivan", "password3", "other@example.com"),
+            row("taken", "password4", "taken@example.com"),
+            row("raced", "password5", "raced@example.com"))).orElseThrow();
+
+        assertEquals(1, response.created());
+        assertEquals(4, response.rejected());
+        assertEquals(List.of(
+            new UserImportFailure(2, "ab", "Email must be valid; Username must be between 3 and 50 characters"),
+            new UserImportFailure(3, "ivan", "Duplicate username in import"),
+            new UserImportFailure(4, "taken", "Username already exists"),
+            new UserImportFailure(5, "raced", "Username or email already exists")), response.failures());
+    }
+
+    @Test
+    void importUsers_DuplicateOfEarlierChunk_ShouldBeCaughtByTheSetQuery() throws Exception {
+        // The first chunk is committed by the time the second is checked.
+        when(userRepository.findExistingUsernames(anyCollection())).thenReturn(Set.of(), Set.of("ivan"));
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(Set.of());
+        when(jdbcTemplate.batchUpdate(eq(UserImportService.INSERT), anyList())).thenReturn(new int[] {1, 1});
+
+        UserImportResponse response = userImportService.importUsers(ndjson(
+            row("ivan", "password1", "ivan@example.com"),
+            row("petr", "password2", "petr@example.com"),
+            row("ivan", "password3", "other@example.com"))).orElseThrow();
+
+        assertEquals(2, response.created());
+        assertEquals(List.of(new UserImportFailure(3, "ivan", "Username already exists")), response.failures());
+        verify(jdbcTemplate, times(1)).batchUpdate(eq(UserImportService.INSERT), anyList());
+    }
+
+    @Test
+    void importUsers_WhenJsonMalformed_ShouldKeepEarlierRowsAndStop() throws Exception {
+        when(userRepository.findExistingUsernames(anyCollection())).thenReturn(Set.of());
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(Set.of());
+        when(jdbcTemplate.batchUpdate(eq(UserImportService.INSERT), anyList())).thenReturn(new int[] {1});
+
+        UserImportResponse response = userImportService.importUsers(stream(
+            "[" + row("ivan", "password1", "ivan@example.com") + ", {\"username\": }]")).orElseThrow();
+
+        assertEquals(1, response.created());
+        assertEquals(1, response.rejected());
+        assertEquals(2, response.failures().get(0).row());
+        assertTrue(response.failures().get(0).error().startsWith("Malformed JSON"));
+    }
+
+    @Test
+    void importUsers_WhenAnotherImportRunning_ShouldReturnEmpty() throws Exception {
+        when(userRepository.findExistingUsernames(anyCollection())).thenAnswer(invocation -> {
+            assertTrue(userImportService.importUsers(ndjson()).isEmpty());
+            return Set.of();
+        });
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(Set.of());
+        when(jdbcTemplate.batchUpdate(eq(UserImportService.INSERT), anyList())).thenReturn(new int[] {1});
+
+        assertTrue(userImportService.importUsers(ndjson(row("ivan", "password1", "ivan@example.com"))).isPresent());
+        assertTrue(userImportService.importUsers(ndjson()).isPresent());
+        verify(transactionManager, atLeastOnce()).getTransaction(any());
+    }
+
+    private static String row(String username, String password, String email) {
+        return "{\"username\":\"" + username + "\",\"password\":\"" + password + "\",\"email\":\"" + email + "\"}";
+    }
+
+    private static ByteArrayInputStream ndjson(String... rows) {
+        return stream(String.join("\n", rows));
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,10 +1,12 @@
 package ru.mishgan325.docsa.pr8.service;
 
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import ru.mishgan325.docsa.pr8.model.User;
 import ru.mishgan325.docsa.pr8.repository.UserRepository;
@@ -25,9 +27,22 @@ class UserServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private UserDetailsCache userDetailsCache;
+
+    @Mock
+    private UserAvailabilityIndex availabilityIndex;
+
     @InjectMocks
     private UserService userService;
 
+    @BeforeEach
+    void setUp() {
+        // "maybe taken", so every check goes on to the repository
+        lenient().when(availabilityIndex.mightContainUsername(any())).thenReturn(true);
+        lenient().when(availabilityIndex.mightContainEmail(any())).thenReturn(true);
+    }
+
     @Test
     void getAllUsers_ShouldReturnListOfUsers() {
         User user = new User(1L, "testuser", "encoded", "test@example.com");
@@ -101,6 +116,7 @@ class UserServiceTest {
 
         assertNotNull(result);
         verify(userRepository, times(1)).save(any(User.class));
+        verify(userDetailsCache).evict("testuser");
     }
 
     @Test
@@ -118,6 +134,7 @@ class UserServiceTest {
 
         assertDoesNotThrow(() -> userService.deleteUser(1L));
         verify(userRepository, times(1)).deleteById(1L);
+        verify(userDetailsCache).evictUserId(1L);
     }
 
     @Test
@@ -127,5 +144,44 @@ class UserServiceTest {
         assertThrows(IllegalArgumentException.class, () -> userService.deleteUser(1L));
         verify(userRepository, never()).deleteById(any());
     }
-}
 
+    @Test
+    void createUser_WhenFiltersRuleValuesOut_ShouldSkipExistenceQueries() {
+        when(availabilityIndex.mightContainUsername("fresh")).thenReturn(false);
+        when(availabilityIndex.mightContainEmail("fresh@example.com")).thenReturn(false);
+        when(passwordEncoder.encode("password123")).thenReturn("encoded");
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        userService.createUser("fresh", "password123", "fresh@example.com");
+
+        verify(userRepository, never()).existsByUsername(any());
+        verify(userRepository, never()).existsByEmail(any());
+        verify(availabilityIndex).add("fresh", "fresh@example.com");
+        verify(availabilityIndex, times(2)).recordCheck(false, false);
+    }
+
+    @Test
+    void createUser_WhenUniqueIndexRejectsInsert_ShouldThrowException() {
+        when(availabilityIndex.mightContainUsername("fresh")).thenReturn(false);
+        when(availabilityIndex.mightContainEmail("fresh@example.com")).thenReturn(false);
+        when(passwordEncoder.encode("password123")).thenReturn("encoded");
+        when(userRepository.save(any(User.class))).thenThrow(new DataIntegrityViolationException("users_email_key"));
+
+        assertThrows(IllegalArgumentException.class, () ->
+            userService.createUser("fresh", "password123", "fresh@example.com"));
+        verify(availabilityIndex, never()).add(any(), any());
+    }
+
+    @Test
+    void updateUser_WhenEmailChanges_ShouldFlushAndTrackFilters() {
+        User existingUser = new User(1L, "testuser", "encoded", "test@example.com");
+        when(userRepository.findById(1L)).thenReturn(Optional.of(existingUser));
+        when(userRepository.save(any(User.class))).thenReturn(existingUser);
+
+        userService.updateUser(1L, null, "new@example.com", null);
+
+        verify(userRepository).flush();
+        verify(availabilityIndex).add(null, "new@example.com");
+        verify(availabilityIndex).markStale(1);
+    }
+}
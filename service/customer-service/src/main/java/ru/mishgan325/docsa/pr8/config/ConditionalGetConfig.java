@@ -0,0 +1,17 @@
+package ru.mishgan325.docsa.pr8.config;
+
+import java.util.Map;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.mishgan325.docsa.pr8.repository.CustomerRepository;
+import ru.mishgan325.docsa.pr8.web.ListETagFilter;
+
+@Configuration
+public class ConditionalGetConfig {
+
+    @Bean
+    public ListETagFilter listETagFilter(CustomerRepository customerRepository) {
+        return new ListETagFilter(Map.of("/customers", request -> customerRepository.findListVersion().etag()));
+    }
+}
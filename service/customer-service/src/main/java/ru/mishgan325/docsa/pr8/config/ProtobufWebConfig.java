@@ -0,0 +1,21 @@
+package ru.mishgan325.docsa.pr8.config;
+
+import java.util.List;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import ru.mishgan325.docsa.pr8.protobuf.CustomerProtobufConverter;
+
+@Configuration
+public class ProtobufWebConfig implements WebMvcConfigurer {
+
+    /**
+     * Appended rather than registered as a bean: Spring Boot puts converter beans ahead of
+     * Jackson, which would answer {@code Accept: *}{@code /*} with protobuf.
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new CustomerProtobufConverter());
+    }
+}
@@ -4,29 +4,37 @@ import java.util.List;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import ru.mishgan325.docsa.pr8.dto.CreateCustomerRequest;
 import ru.mishgan325.docsa.pr8.dto.UpdateCustomerRequest;
 import ru.mishgan325.docsa.pr8.dto.CustomerResponse;
 import ru.mishgan325.docsa.pr8.model.Customer;
 import ru.mishgan325.docsa.pr8.repository.CustomerRepository;
-import ru.mishgan325.docsa.pr8.util.AuthenticationUtil;
+import ru.mishgan325.docsa.pr8.security.ShopPrincipal;
+import ru.mishgan325.docsa.pr8.web.ETags;
 
 @RestController
 @RequestMapping("/customers")
 @RequiredArgsConstructor
 public class CustomerController {
 
+    private static final int MAX_IDS_PER_LOOKUP = 500;
+
     private final CustomerRepository customerRepository;
 
     @GetMapping
@@ -36,40 +44,60 @@ public class CustomerController {
                 .toList();
     }
 
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<CustomerResponse>> getCustomersByIds(@RequestParam List<Long> ids) {
+        if (ids.size() > MAX_IDS_PER_LOOKUP) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(customerRepository.findAllById(ids).stream()
+                .map(CustomerResponse::from)
+                .toList());
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<CustomerResponse> getCustomerById(@PathVariable Long id) {
+    public ResponseEntity<CustomerResponse> getCustomerById(@PathVariable Long id,
+                                                            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         return customerRepository.findById(id)
-                .map(CustomerResponse::from)
-                .map(ResponseEntity::ok)
+                .map(customer -> conditional(customer, ifNoneMatch))
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/user/{userId}")
-    public ResponseEntity<CustomerResponse> getCustomerByUserId(@PathVariable Long userId) {
+    public ResponseEntity<CustomerResponse> getCustomerByUserId(@PathVariable Long userId,
+                                                                @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         return customerRepository.findByUserId(userId)
-                .map(CustomerResponse::from)
-                .map(ResponseEntity::ok)
+                .map(customer -> conditional(customer, ifNoneMatch))
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @GetMapping(value = "/user", params = "userIds")
+    public ResponseEntity<List<CustomerResponse>> getCustomersByUserIds(@RequestParam List<Long> userIds) {
+        if (userIds.size() > MAX_IDS_PER_LOOKUP) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(customerRepository.findAllByUserIdIn(userIds).stream()
+                .map(CustomerResponse::from)
+                .toList());
+    }
+
     @GetMapping("/self")
-    public ResponseEntity<CustomerResponse> getSelfProfile(Authentication authentication) {
-        Long userId = AuthenticationUtil.extractUserId(authentication);
-        if (userId == null) {
+    public ResponseEntity<CustomerResponse> getSelfProfile(@AuthenticationPrincipal ShopPrincipal principal,
+                                                           @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (principal == null || !principal.hasUserId()) {
             return ResponseEntity.badRequest().build();
         }
+        long userId = principal.userId();
         return customerRepository.findByUserId(userId)
-                .map(CustomerResponse::from)
-                .map(ResponseEntity::ok)
+                .map(customer -> conditional(customer, ifNoneMatch))
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @PostMapping
-    public ResponseEntity<CustomerResponse> createCustomer(@Valid @RequestBody CreateCustomerRequest request, Authentication authentication) {
-        Long userId = AuthenticationUtil.extractUserId(authentication);
-        if (userId == null) {
+    public ResponseEntity<CustomerResponse> createCustomer(@Valid @RequestBody CreateCustomerRequest request, @AuthenticationPrincipal ShopPrincipal principal) {
+        if (principal == null || !principal.hasUserId()) {
             return ResponseEntity.badRequest().build();
         }
+        long userId = principal.userId();
         
         if (customerRepository.findByUserId(userId).isPresent()) {
             return ResponseEntity.status(HttpStatus.CONFLICT).build();
@@ -86,15 +114,15 @@ public class CustomerController {
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<CustomerResponse> updateCustomer(@PathVariable Long id, @Valid @RequestBody UpdateCustomerRequest request, Authentication authentication) {
-        Long userId = AuthenticationUtil.extractUserId(authentication);
-        if (userId == null) {
+    public ResponseEntity<CustomerResponse> updateCustomer(@PathVariable Long id, @Valid @RequestBody UpdateCustomerRequest request, @AuthenticationPrincipal ShopPrincipal principal) {
+        if (principal == null || !principal.hasUserId()) {
             return ResponseEntity.badRequest().build();
         }
+        long userId = principal.userId();
         
         return customerRepository.findById(id)
                 .map(customer -> {
-                    if (!customer.getUserId().equals(userId)) {
+                    if (customer.getUserId() != userId) {
                         return ResponseEntity.status(HttpStatus.FORBIDDEN).<CustomerResponse>build();
                     }
                     
@@ -116,5 +144,18 @@ public class CustomerController {
         customerRepository.deleteById(id);
         return ResponseEntity.noContent().build();
     }
+
+    /**
+     * Two updates of the same profile raced; the client re-reads and retries.
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Void> handleConcurrentUpdate() {
+        return ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+
+    private static ResponseEntity<CustomerResponse> conditional(Customer customer, String ifNoneMatch) {
+        return ETags.respond(ifNoneMatch, ETags.strong(customer.getId(), customer.getVersion()),
+                () -> CustomerResponse.from(customer));
+    }
 }
 
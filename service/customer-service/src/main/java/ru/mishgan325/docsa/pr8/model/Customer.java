@@ -7,10 +7,12 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Index;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity
 @Table(name = "customers", indexes = {
@@ -37,5 +39,17 @@ public class Customer {
 
     @Column(length = 500)
     private String address;
+
+    /**
+     * Bumped on every update; the source of the customer's ETag.
+     */
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
+    public Customer(Long id, Long userId, String name, String phone, String address) {
+        this(id, userId, name, phone, address, null);
+    }
 }
 
@@ -0,0 +1,84 @@
+package ru.mishgan325.docsa.pr8.protobuf;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Collection;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import ru.mishgan325.docsa.pr8.dto.CustomerResponse;
+import ru.mishgan325.docsa.pr8.web.protobuf.LookupSchema;
+import ru.mishgan325.docsa.pr8.web.protobuf.ProtoWriter;
+
+/**
+ * Writes {@link CustomerResponse}s as protobuf {@code Customer} and {@code CustomerList}
+ * messages of {@link LookupSchema} when a caller sends {@code Accept: application/x-protobuf};
+ * order-service does for its lookups. Registered after Jackson by {@link ru.mishgan325.docsa.pr8.config.ProtobufWebConfig}, so
+ * callers that accept anything still get JSON.
+ */
+public class CustomerProtobufConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public CustomerProtobufConverter() {
+        super(LookupSchema.PROTOBUF);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == CustomerResponse.class;
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return (type != null ? isCustomerOrList(type) : supports(clazz)) && canWrite(mediaType);
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Customers are not accepted as protobuf", inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Customers are not accepted as protobuf", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Object value, Type type, HttpOutputMessage outputMessage) throws IOException {
+        ProtoWriter writer = new ProtoWriter();
+        if (value instanceof CustomerResponse customer) {
+            write(writer, customer);
+        } else {
+            for (Object item : (Collection<?>) value) {
+                writer.message(LookupSchema.LIST_ITEM, nested -> write(nested, (CustomerResponse) item));
+            }
+        }
+        byte[] body = writer.toByteArray();
+        outputMessage.getHeaders().setContentLength(body.length);
+        outputMessage.getBody().write(body);
+    }
+
+    private static boolean isCustomerOrList(Type type) {
+        return type == CustomerResponse.class
+            || type instanceof ParameterizedType parameterized
+                && parameterized.getRawType() instanceof Class<?> raw
+                && Collection.class.isAssignableFrom(raw)
+                && parameterized.getActualTypeArguments()[0] == CustomerResponse.class;
+    }
+
+    private static void write(ProtoWriter writer, CustomerResponse customer) {
+        writer.int64(LookupSchema.CUSTOMER_ID, customer.id())
+            .int64(LookupSchema.CUSTOMER_USER_ID, customer.userId())
+            .string(LookupSchema.CUSTOMER_NAME, customer.name())
+            .string(LookupSchema.CUSTOMER_PHONE, customer.phone())
+            .string(LookupSchema.CUSTOMER_ADDRESS, customer.address());
+    }
+}
@@ -1,13 +1,25 @@
 package ru.mishgan325.docsa.pr8.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import ru.mishgan325.docsa.pr8.model.Customer;
+import ru.mishgan325.docsa.pr8.web.ListVersion;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
     Optional<Customer> findByUserId(Long userId);
+
+    List<Customer> findAllByUserIdIn(Collection<Long> userIds);
+
+    @Query("""
+        select count(c) as rowCount, coalesce(sum(c.version), 0) as versionSum, coalesce(sum(c.id), 0) as idSum
+        from Customer c
+        """)
+    ListVersion findListVersion();
 }
 
@@ -7,17 +7,16 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.oauth2.jwt.Jwt;
 import ru.mishgan325.docsa.pr8.dto.CreateCustomerRequest;
 import ru.mishgan325.docsa.pr8.dto.CustomerResponse;
 import ru.mishgan325.docsa.pr8.dto.UpdateCustomerRequest;
 import ru.mishgan325.docsa.pr8.model.Customer;
 import ru.mishgan325.docsa.pr8.repository.CustomerRepository;
+import ru.mishgan325.docsa.pr8.security.ShopPrincipal;
 
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -49,19 +48,40 @@ class CustomerControllerTest {
         Customer customer = new Customer(1L, 100L, "Ivan", "+7-999-123-45-67", "Moscow");
         when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
 
-        ResponseEntity<CustomerResponse> response = customerController.getCustomerById(1L);
+        ResponseEntity<CustomerResponse> response = customerController.getCustomerById(1L, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
         assertEquals("Ivan", response.getBody().name());
     }
 
+    @Test
+    void getCustomersByIds_ShouldReturnFoundCustomers() {
+        Customer customer = new Customer(1L, 100L, "Ivan", "+7-999-123-45-67", "Moscow");
+        when(customerRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(customer));
+
+        ResponseEntity<List<CustomerResponse>> response = customerController.getCustomersByIds(List.of(1L, 2L));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(List.of(CustomerResponse.from(customer)), response.getBody());
+    }
+
+    @Test
+    void getCustomersByUserIds_WhenTooManyIds_ShouldReturnBadRequest() {
+        List<Long> userIds = LongStream.rangeClosed(1, 501).boxed().toList();
+
+        ResponseEntity<List<CustomerResponse>> response = customerController.getCustomersByUserIds(userIds);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(customerRepository);
+    }
+
     @Test
     void getCustomerByUserId_WhenExists_ShouldReturnCustomer() {
         Customer customer = new Customer(1L, 100L, "Ivan", "+7-999-123-45-67", "Moscow");
         when(customerRepository.findByUserId(100L)).thenReturn(Optional.of(customer));
 
-        ResponseEntity<CustomerResponse> response = customerController.getCustomerByUserId(100L);
+        ResponseEntity<CustomerResponse> response = customerController.getCustomerByUserId(100L, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
@@ -70,36 +90,49 @@ class CustomerControllerTest {
 
     @Test
     void getSelfProfile_WhenUserIdExists_ShouldReturnProfile() {
-        Authentication auth = createMockAuthentication(100L);
+        ShopPrincipal principal = principal(100L);
         Customer customer = new Customer(1L, 100L, "Ivan", "+7-999-123-45-67", "Moscow");
         when(customerRepository.findByUserId(100L)).thenReturn(Optional.of(customer));
 
-        ResponseEntity<CustomerResponse> response = customerController.getSelfProfile(auth);
+        ResponseEntity<CustomerResponse> response = customerController.getSelfProfile(principal, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
         assertEquals("Ivan", response.getBody().name());
     }
 
+    @Test
+    void getSelfProfile_WhenVersionUnchanged_ShouldReturnNotModified() {
+        Customer customer = new Customer(1L, 100L, "Ivan", "+7-999-123-45-67", "Moscow");
+        customer.setVersion(2L);
+        when(customerRepository.findByUserId(100L)).thenReturn(Optional.of(customer));
+
+        ResponseEntity<CustomerResponse> response = customerController.getSelfProfile(principal(100L), "\"1-2\"");
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals("\"1-2\"", response.getHeaders().getETag());
+        assertNull(response.getBody());
+    }
+
     @Test
     void getSelfProfile_WhenUserIdNull_ShouldReturnBadRequest() {
-        Authentication auth = createMockAuthentication(null);
+        ShopPrincipal principal = principal(null);
 
-        ResponseEntity<CustomerResponse> response = customerController.getSelfProfile(auth);
+        ResponseEntity<CustomerResponse> response = customerController.getSelfProfile(principal, null);
 
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
     }
 
     @Test
     void createCustomer_ShouldReturnCreatedCustomer() {
-        Authentication auth = createMockAuthentication(100L);
+        ShopPrincipal principal = principal(100L);
         CreateCustomerRequest request = new CreateCustomerRequest("Ivan", "+7-999-123-45-67", "Moscow");
         Customer savedCustomer = new Customer(1L, 100L, "Ivan", "+7-999-123-45-67", "Moscow");
         
         when(customerRepository.findByUserId(100L)).thenReturn(Optional.empty());
         when(customerRepository.save(any(Customer.class))).thenReturn(savedCustomer);
 
-        ResponseEntity<CustomerResponse> response = customerController.createCustomer(request, auth);
+        ResponseEntity<CustomerResponse> response = customerController.createCustomer(request, principal);
 
         assertEquals(HttpStatus.CREATED, response.getStatusCode());
         assertNotNull(response.getBody());
@@ -109,13 +142,13 @@ class CustomerControllerTest {
 
     @Test
     void createCustomer_WhenCustomerAlreadyExists_ShouldReturnConflict() {
-        Authentication auth = createMockAuthentication(100L);
+        ShopPrincipal principal = principal(100L);
         CreateCustomerRequest request = new CreateCustomerRequest("Ivan", "+7-999-123-45-67", "Moscow");
         Customer existingCustomer = new Customer(1L, 100L, "Existing", "+7-999-000-00-00", "Moscow");
         
         when(customerRepository.findByUserId(100L)).thenReturn(Optional.of(existingCustomer));
 
-        ResponseEntity<CustomerResponse> response = customerController.createCustomer(request, auth);
+        ResponseEntity<CustomerResponse> response = customerController.createCustomer(request, principal);
 
         assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
         verify(customerRepository, never()).save(any(Customer.class));
@@ -123,10 +156,10 @@ class CustomerControllerTest {
 
     @Test
     void createCustomer_WhenUserIdNull_ShouldReturnBadRequest() {
-        Authentication auth = createMockAuthentication(null);
+        ShopPrincipal principal = principal(null);
         CreateCustomerRequest request = new CreateCustomerRequest("Ivan", "+7-999-123-45-67", "Moscow");
 
-        ResponseEntity<CustomerResponse> response = customerController.createCustomer(request, auth);
+        ResponseEntity<CustomerResponse> response = customerController.createCustomer(request, principal);
 
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
         verify(customerRepository, never()).save(any(Customer.class));
@@ -134,14 +167,14 @@ class CustomerControllerTest {
 
     @Test
     void updateCustomer_WhenExists_ShouldReturnUpdatedCustomer() {
-        Authentication auth = createMockAuthentication(100L);
+        ShopPrincipal principal = principal(100L);
         UpdateCustomerRequest request = new UpdateCustomerRequest("Petr", "+7-999-111-22-33", null);
         Customer existingCustomer = new Customer(1L, 100L, "Ivan", "+7-999-123-45-67", "Moscow");
         
         when(customerRepository.findById(1L)).thenReturn(Optional.of(existingCustomer));
         when(customerRepository.save(any(Customer.class))).thenReturn(existingCustomer);
 
-        ResponseEntity<CustomerResponse> response = customerController.updateCustomer(1L, request, auth);
+        ResponseEntity<CustomerResponse> response = customerController.updateCustomer(1L, request, principal);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         verify(customerRepository, times(1)).save(any(Customer.class));
@@ -149,13 +182,13 @@ class CustomerControllerTest {
 
     @Test
     void updateCustomer_WhenNotOwnProfile_ShouldReturnForbidden() {
-        Authentication auth = createMockAuthentication(100L);
+        ShopPrincipal principal = principal(100L);
         UpdateCustomerRequest request = new UpdateCustomerRequest("Petr", "+7-999-111-22-33", null);
         Customer existingCustomer = new Customer(1L, 999L, "Ivan", "+7-999-123-45-67", "Moscow");
         
         when(customerRepository.findById(1L)).thenReturn(Optional.of(existingCustomer));
 
-        ResponseEntity<CustomerResponse> response = customerController.updateCustomer(1L, request, auth);
+        ResponseEntity<CustomerResponse> response = customerController.updateCustomer(1L, request, principal);
 
         assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
         verify(customerRepository, never()).save(any(Customer.class));
@@ -163,10 +196,10 @@ class CustomerControllerTest {
 
     @Test
     void updateCustomer_WhenUserIdNull_ShouldReturnBadRequest() {
-        Authentication auth = createMockAuthentication(null);
+        ShopPrincipal principal = principal(null);
         UpdateCustomerRequest request = new UpdateCustomerRequest("Petr", "+7-999-111-22-33", null);
 
-        ResponseEntity<CustomerResponse> response = customerController.updateCustomer(1L, request, auth);
+        ResponseEntity<CustomerResponse> response = customerController.updateCustomer(1L, request, principal);
 
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
         verify(customerRepository, never()).save(any(Customer.class));
@@ -182,12 +215,8 @@ class CustomerControllerTest {
         verify(customerRepository, times(1)).deleteById(1L);
     }
 
-    private Authentication createMockAuthentication(Long userId) {
-        Authentication auth = mock(Authentication.class);
-        Jwt jwt = mock(Jwt.class);
-        when(auth.getPrincipal()).thenReturn(jwt);
-        when(jwt.getClaims()).thenReturn(Map.of("userId", userId != null ? userId : ""));
-        return auth;
+    private ShopPrincipal principal(Long userId) {
+        return new ShopPrincipal(userId != null ? userId : ShopPrincipal.NO_USER_ID, "testuser");
     }
 }
 
@@ -0,0 +1,25 @@
+package ru.mishgan325.docsa.pr8.protobuf;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import ru.mishgan325.docsa.pr8.dto.CustomerResponse;
+import ru.mishgan325.docsa.pr8.web.protobuf.LookupSchema;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CustomerProtobufConverterTest {
+
+    private final CustomerProtobufConverter converter = new CustomerProtobufConverter();
+
+    @Test
+    void write_ShouldLeaveOutNullFields() throws Exception {
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+
+        converter.write(new CustomerResponse(7L, 100L, "Ivan", null, null),
+            CustomerResponse.class, LookupSchema.PROTOBUF, output);
+
+        // id=1 varint 7, user_id=2 varint 100, name=3 "Ivan"
+        byte[] expected = {0x08, 0x07, 0x10, 0x64, 0x1A, 0x04, 'I', 'v', 'a', 'n'};
+        assertArrayEquals(expected, output.getBodyAsBytes());
+    }
+}
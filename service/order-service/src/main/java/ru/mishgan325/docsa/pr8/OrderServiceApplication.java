@@ -3,9 +3,12 @@ package ru.mishgan325.docsa.pr8;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import ru.mishgan325.docsa.pr8.config.FeignTransportConfig;
 
 @SpringBootApplication
-@EnableFeignClients
+@EnableFeignClients(defaultConfiguration = FeignTransportConfig.class)
+@EnableScheduling
 public class OrderServiceApplication {
 
 	public static void main(String[] args) {
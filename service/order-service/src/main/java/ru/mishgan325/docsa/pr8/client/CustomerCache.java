@@ -0,0 +1,82 @@
+package ru.mishgan325.docsa.pr8.client;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import feign.FeignException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.mishgan325.docsa.pr8.dto.CustomerDto;
+
+/**
+ * Near cache for {@link CustomerClient#getCustomerByUserId}. The userId to customer
+ * mapping is effectively immutable once created, so hits skip the network hop.
+ * Missing customers are cached too, for a shorter time, so a user without a profile
+ * can create one and see it quickly. Concurrent misses for one userId share a single call.
+ */
+@Component
+public class CustomerCache {
+
+    private final CustomerClient customerClient;
+    private final Cache<Long, Optional<CustomerDto>> cache;
+
+    public CustomerCache(CustomerClient customerClient,
+                         MeterRegistry meterRegistry,
+                         @Value("${app.customer-cache.maximum-size:10000}") long maximumSize,
+                         @Value("${app.customer-cache.ttl:10m}") Duration ttl,
+                         @Value("${app.customer-cache.negative-ttl:30s}") Duration negativeTtl) {
+        this.customerClient = customerClient;
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfter(new PresenceExpiry(ttl.toNanos(), negativeTtl.toNanos()))
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "customers-by-user-id");
+    }
+
+    /**
+     * @return the customer, or {@code null} when customer-service has none for this user
+     */
+    public CustomerDto getCustomerByUserId(Long userId) {
+        return cache.get(userId, this::load).orElse(null);
+    }
+
+    public void invalidate(Long userId) {
+        cache.invalidate(userId);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private Optional<CustomerDto> load(Long userId) {
+        try {
+            return Optional.ofNullable(customerClient.getCustomerByUserId(userId));
+        } catch (FeignException.NotFound e) {
+            return Optional.empty();
+        }
+    }
+
+    private record PresenceExpiry(long ttlNanos, long negativeTtlNanos) implements Expiry<Long, Optional<CustomerDto>> {
+
+        @Override
+        public long expireAfterCreate(Long key, Optional<CustomerDto> value, long currentTime) {
+            return value.isPresent() ? ttlNanos : negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(Long key, Optional<CustomerDto> value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Long key, Optional<CustomerDto> value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
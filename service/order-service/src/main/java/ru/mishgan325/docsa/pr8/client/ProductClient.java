@@ -1,9 +1,18 @@
 package ru.mishgan325.docsa.pr8.client;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import ru.mishgan325.docsa.pr8.dto.ProductDto;
+import ru.mishgan325.docsa.pr8.dto.StockRequest;
+import ru.mishgan325.docsa.pr8.dto.StockReservationRequest;
+import ru.mishgan325.docsa.pr8.dto.StockReservationResult;
 
 import ru.mishgan325.docsa.pr8.config.FeignConfig;
 @FeignClient(name = "product-service", configuration = FeignConfig.class)
@@ -11,5 +20,22 @@ public interface ProductClient {
 
     @GetMapping("/products/{id}")
     ProductDto getProductById(@PathVariable Long id);
-}
 
+    @GetMapping("/products")
+    List<ProductDto> getProductsByIds(@RequestParam("ids") Collection<Long> ids);
+
+    /**
+     * Atomically takes stock; 409 when there is not enough, 404 when the product is gone.
+     */
+    @PostMapping("/products/{id}/stock/reserve")
+    void reserveStock(@PathVariable Long id, @RequestBody StockRequest request);
+
+    @PostMapping("/products/{id}/stock/release")
+    void releaseStock(@PathVariable Long id, @RequestBody StockRequest request);
+
+    @PostMapping("/products/stock/reserve")
+    List<StockReservationResult> reserveStockBatch(@RequestBody StockReservationRequest request);
+
+    @PostMapping("/products/stock/release")
+    void releaseStockBatch(@RequestBody StockReservationRequest request);
+}
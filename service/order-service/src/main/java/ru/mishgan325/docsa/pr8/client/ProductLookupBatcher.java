@@ -0,0 +1,154 @@
+package ru.mishgan325.docsa.pr8.client;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.mishgan325.docsa.pr8.dto.ProductDto;
+
+/**
+ * Coalesces single-product lookups from concurrent requests into one
+ * {@link ProductClient#getProductsByIds} call per window. Lookups for an id that is
+ * already queued or in flight share the same future instead of adding another id.
+ * <p>
+ * Batches are dispatched from the batcher's own thread, so they go out without a
+ * user token; product reads are public in product-service.
+ */
+@Slf4j
+@Component
+public class ProductLookupBatcher implements DisposableBean {
+
+    private final ProductClient productClient;
+    private final Executor downstreamExecutor;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final ScheduledExecutorService scheduler;
+
+    private final Map<Long, CompletableFuture<ProductDto>> inFlight = new ConcurrentHashMap<>();
+    private final Object lock = new Object();
+    private List<Long> pending = new ArrayList<>();
+    private ScheduledFuture<?> scheduledFlush;
+
+    private final Counter requests;
+    private final Counter coalesced;
+    private final DistributionSummary batchSize;
+
+    public ProductLookupBatcher(ProductClient productClient,
+                                @Qualifier("downstreamExecutor") Executor downstreamExecutor,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.product-lookup.window:5ms}") Duration window,
+                                @Value("${app.product-lookup.max-batch-size:100}") int maxBatchSize) {
+        this.productClient = productClient;
+        this.downstreamExecutor = downstreamExecutor;
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-lookup-batcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.requests = Counter.builder("products.lookup.requests")
+            .description("Product lookups requested through the batcher")
+            .register(meterRegistry);
+        this.coalesced = Counter.builder("products.lookup.coalesced")
+            .description("Product lookups served by an already queued or in-flight id")
+            .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("products.lookup.batch.size")
+            .description("Distinct ids per multi-id product call")
+            .register(meterRegistry);
+    }
+
+    public CompletableFuture<ProductDto> lookup(Long id) {
+        requests.increment();
+        CompletableFuture<ProductDto> created = new CompletableFuture<>();
+        CompletableFuture<ProductDto> existing = inFlight.putIfAbsent(id, created);
+        if (existing != null) {
+            coalesced.increment();
+            return existing;
+        }
+        enqueue(id);
+        return created;
+    }
+
+    private void enqueue(Long id) {
+        synchronized (lock) {
+            pending.add(id);
+            if (pending.size() >= maxBatchSize) {
+                cancelScheduledFlush();
+                scheduler.execute(this::flush);
+            } else if (scheduledFlush == null) {
+                scheduledFlush = scheduler.schedule(this::flush, windowNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    private void flush() {
+        List<Long> ids;
+        synchronized (lock) {
+            cancelScheduledFlush();
+            if (pending.isEmpty()) {
+                return;
+            }
+            ids = pending;
+            pending = new ArrayList<>();
+        }
+        for (int from = 0; from < ids.size(); from += maxBatchSize) {
+            List<Long> batch = ids.subList(from, Math.min(from + maxBatchSize, ids.size()));
+            downstreamExecutor.execute(() -> fetch(batch));
+        }
+    }
+
+    private void fetch(List<Long> ids) {
+        batchSize.record(ids.size());
+        Map<Long, ProductDto> found;
+        try {
+            found = productClient.getProductsByIds(ids).stream()
+                .collect(Collectors.toMap(ProductDto::id, Function.identity()));
+        } catch (RuntimeException e) {
+            log.warn("Batched lookup of {} products failed", ids.size(), e);
+            for (Long id : ids) {
+                CompletableFuture<ProductDto> future = inFlight.remove(id);
+                if (future != null) {
+                    future.completeExceptionally(e);
+                }
+            }
+            return;
+        }
+        for (Long id : ids) {
+            CompletableFuture<ProductDto> future = inFlight.remove(id);
+            if (future != null) {
+                future.complete(found.get(id));
+            }
+        }
+    }
+
+    private void cancelScheduledFlush() {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,191 @@
+package ru.mishgan325.docsa.pr8.client.protobuf;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.stereotype.Component;
+import ru.mishgan325.docsa.pr8.dto.CustomerDto;
+import ru.mishgan325.docsa.pr8.dto.ProductDto;
+import ru.mishgan325.docsa.pr8.web.protobuf.LookupSchema;
+import ru.mishgan325.docsa.pr8.web.protobuf.ProtoReader;
+import ru.mishgan325.docsa.pr8.web.protobuf.ProtoWriter;
+
+/**
+ * Protobuf bodies for product and customer lookups, picked up by Feign's decoder whenever
+ * product-service or customer-service answers with {@code application/x-protobuf}.
+ * Hand-encoded against {@link LookupSchema}, which both services implement.
+ */
+@Component
+public class ProtobufLookupConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public ProtobufLookupConverter() {
+        super(LookupSchema.PROTOBUF);
+    }
+
+    /**
+     * Bare DTOs only; lists are recognised through the generic {@code canRead}/{@code canWrite}.
+     */
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == ProductDto.class || clazz == CustomerDto.class;
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return elementType(type) != null && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return (type != null ? elementType(type) != null : supports(clazz)) && canWrite(mediaType);
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        return decode(type, inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        return decode(clazz, inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Object value, Type type, HttpOutputMessage outputMessage) throws IOException {
+        ProtoWriter writer = new ProtoWriter();
+        if (value instanceof ProductDto product) {
+            writeProduct(writer, product);
+        } else if (value instanceof CustomerDto customer) {
+            writeCustomer(writer, customer);
+        } else if (value instanceof Collection<?> items) {
+            for (Object item : items) {
+                if (item instanceof ProductDto product) {
+                    writer.message(LookupSchema.LIST_ITEM, nested -> writeProduct(nested, product));
+                } else if (item instanceof CustomerDto customer) {
+                    writer.message(LookupSchema.LIST_ITEM, nested -> writeCustomer(nested, customer));
+                } else {
+                    throw new HttpMessageNotWritableException("Cannot encode " + item + " as protobuf");
+                }
+            }
+        } else {
+            throw new HttpMessageNotWritableException("Cannot encode " + value + " as protobuf");
+        }
+        byte[] body = writer.toByteArray();
+        outputMessage.getHeaders().setContentLength(body.length);
+        outputMessage.getBody().write(body);
+    }
+
+    private Object decode(Type type, HttpInputMessage inputMessage) throws IOException {
+        Class<?> element = elementType(type);
+        ProtoReader reader = new ProtoReader(inputMessage.getBody().readAllBytes());
+        try {
+            if (element == type) {
+                return readOne(element, reader);
+            }
+            List<Object> items = new ArrayList<>();
+            while (reader.hasNext()) {
+                int tag = reader.tag();
+                if (tag >>> 3 == LookupSchema.LIST_ITEM) {
+                    items.add(readOne(element, reader.message()));
+                } else {
+                    reader.skip(tag);
+                }
+            }
+            return items;
+        } catch (IllegalArgumentException e) {
+            throw new HttpMessageNotReadableException(e.getMessage(), e, inputMessage);
+        }
+    }
+
+    /**
+     * {@code ProductDto} or {@code CustomerDto} for the bare types and for lists of them,
+     * otherwise null.
+     */
+    private static Class<?> elementType(Type type) {
+        if (type == ProductDto.class || type == CustomerDto.class) {
+            return (Class<?>) type;
+        }
+        if (type instanceof ParameterizedType parameterized
+                && parameterized.getRawType() instanceof Class<?> raw
+                && raw.isAssignableFrom(ArrayList.class)
+                && parameterized.getActualTypeArguments()[0] instanceof Class<?> argument
+                && (argument == ProductDto.class || argument == CustomerDto.class)) {
+            return argument;
+        }
+        return null;
+    }
+
+    private static Object readOne(Class<?> type, ProtoReader reader) {
+        return type == ProductDto.class ? readProduct(reader) : readCustomer(reader);
+    }
+
+    private static void writeProduct(ProtoWriter writer, ProductDto product) {
+        writer.int64(LookupSchema.PRODUCT_ID, product.id())
+            .string(LookupSchema.PRODUCT_NAME, product.name());
+        if (product.price() != null) {
+            writer.int64(LookupSchema.PRODUCT_PRICE_UNSCALED, product.price().unscaledValue().longValueExact())
+                .int32(LookupSchema.PRODUCT_PRICE_SCALE, product.price().scale());
+        }
+        writer.int32(LookupSchema.PRODUCT_QUANTITY, product.quantity());
+    }
+
+    private static ProductDto readProduct(ProtoReader reader) {
+        Long id = null;
+        String name = null;
+        Long priceUnscaled = null;
+        int priceScale = 0;
+        Integer quantity = null;
+        while (reader.hasNext()) {
+            int tag = reader.tag();
+            switch (tag >>> 3) {
+                case LookupSchema.PRODUCT_ID -> id = reader.int64();
+                case LookupSchema.PRODUCT_NAME -> name = reader.string();
+                case LookupSchema.PRODUCT_PRICE_UNSCALED -> priceUnscaled = reader.int64();
+                case LookupSchema.PRODUCT_PRICE_SCALE -> priceScale = (int) reader.int64();
+                case LookupSchema.PRODUCT_QUANTITY -> quantity = (int) reader.int64();
+                default -> reader.skip(tag);
+            }
+        }
+        BigDecimal price = priceUnscaled == null ? null : BigDecimal.valueOf(priceUnscaled, priceScale);
+        return new ProductDto(id, name, price, quantity);
+    }
+
+    private static void writeCustomer(ProtoWriter writer, CustomerDto customer) {
+        writer.int64(LookupSchema.CUSTOMER_ID, customer.id())
+            .int64(LookupSchema.CUSTOMER_USER_ID, customer.userId())
+            .string(LookupSchema.CUSTOMER_NAME, customer.name())
+            .string(LookupSchema.CUSTOMER_PHONE, customer.phone())
+            .string(LookupSchema.CUSTOMER_ADDRESS, customer.address());
+    }
+
+    private static CustomerDto readCustomer(ProtoReader reader) {
+        Long id = null;
+        Long userId = null;
+        String name = null;
+        String phone = null;
+        String address = null;
+        while (reader.hasNext()) {
+            int tag = reader.tag();
+            switch (tag >>> 3) {
+                case LookupSchema.CUSTOMER_ID -> id = reader.int64();
+                case LookupSchema.CUSTOMER_USER_ID -> userId = reader.int64();
+                case LookupSchema.CUSTOMER_NAME -> name = reader.string();
+                case LookupSchema.CUSTOMER_PHONE -> phone = reader.string();
+                case LookupSchema.CUSTOMER_ADDRESS -> address = reader.string();
+                default -> reader.skip(tag);
+            }
+        }
+        return new CustomerDto(id, userId, name, phone, address);
+    }
+}
@@ -0,0 +1,106 @@
+package ru.mishgan325.docsa.pr8.client.transport;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Count-based circuit breaker. Closed, it tracks the outcome of the last
+ * {@code windowSize} calls and opens once the failure rate reaches the threshold. Open, it
+ * rejects calls for {@code openDuration}, then lets {@code halfOpenCalls} trial calls
+ * through: any failure reopens it, all successes close it.
+ */
+class CircuitBreaker {
+
+    enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final boolean[] failed;
+    private final int minimumCalls;
+    private final int failureRateThreshold;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final LongSupplier nanoTime;
+
+    private State state = State.CLOSED;
+    private int next;
+    private int recorded;
+    private int failures;
+    private long openedAt;
+    private int trialPermits;
+    private int trialSuccesses;
+
+    CircuitBreaker(ResilienceSettings.Breaker settings, LongSupplier nanoTime) {
+        this.failed = new boolean[settings.getWindowSize()];
+        this.minimumCalls = settings.getMinimumCalls();
+        this.failureRateThreshold = settings.getFailureRateThreshold();
+        this.openNanos = settings.getOpenDuration().toNanos();
+        this.halfOpenCalls = settings.getHalfOpenCalls();
+        this.nanoTime = nanoTime;
+    }
+
+    synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN) {
+            if (nanoTime.getAsLong() - openedAt < openNanos) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            trialPermits = halfOpenCalls;
+            trialSuccesses = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialPermits == 0) {
+                return false;
+            }
+            trialPermits--;
+        }
+        return true;
+    }
+
+    synchronized void record(boolean success) {
+        switch (state) {
+            case HALF_OPEN -> {
+                if (!success) {
+                    open();
+                } else if (++trialSuccesses == halfOpenCalls) {
+                    close();
+                }
+            }
+            case CLOSED -> {
+                if (recorded == failed.length) {
+                    if (failed[next]) {
+                        failures--;
+                    }
+                } else {
+                    recorded++;
+                }
+                failed[next] = !success;
+                if (!success) {
+                    failures++;
+                }
+                next = (next + 1) % failed.length;
+                if (recorded >= minimumCalls && failures * 100 >= failureRateThreshold * recorded) {
+                    open();
+                }
+            }
+            case OPEN -> {
+                // A call that started before the circuit opened; its outcome changes nothing.
+            }
+        }
+    }
+
+    synchronized State state() {
+        return state;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = nanoTime.getAsLong();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        next = 0;
+        recorded = 0;
+        failures = 0;
+    }
+}
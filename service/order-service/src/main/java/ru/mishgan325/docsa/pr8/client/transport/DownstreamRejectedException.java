@@ -0,0 +1,15 @@
+package ru.mishgan325.docsa.pr8.client.transport;
+
+import java.io.IOException;
+
+/**
+ * A call refused locally, without touching the network: the circuit is open or the
+ * bulkhead is full. Feign wraps it in a {@code RetryableException}, like any other
+ * transport failure.
+ */
+public class DownstreamRejectedException extends IOException {
+
+    public DownstreamRejectedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,52 @@
+package ru.mishgan325.docsa.pr8.client.transport;
+
+import java.util.Arrays;
+
+/**
+ * The last {@code size} latencies, with a percentile that is recomputed after every
+ * eighth of the window has been replaced rather than on each read.
+ */
+class LatencyWindow {
+
+    private final long[] samples;
+    private final double percentile;
+    private final int refreshEvery;
+
+    private int next;
+    private int count;
+    private int sinceRefresh;
+    private long cached = -1;
+
+    LatencyWindow(int size, double percentile) {
+        this.samples = new long[size];
+        this.percentile = percentile;
+        this.refreshEvery = Math.max(1, size / 8);
+    }
+
+    synchronized void record(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1) % samples.length;
+        count = Math.min(count + 1, samples.length);
+        sinceRefresh++;
+    }
+
+    synchronized int count() {
+        return count;
+    }
+
+    /**
+     * @return the configured percentile in nanos, or -1 before any latency was recorded
+     */
+    synchronized long percentileNanos() {
+        if (count == 0) {
+            return -1;
+        }
+        if (cached < 0 || sinceRefresh >= refreshEvery) {
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            cached = sorted[Math.max(0, Math.min(count - 1, (int) Math.ceil(percentile * count) - 1))];
+            sinceRefresh = 0;
+        }
+        return cached;
+    }
+}
@@ -0,0 +1,223 @@
+package ru.mishgan325.docsa.pr8.client.transport;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.config.TlsConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpVersion;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+
+/**
+ * Feign transport on a pooled Apache HttpClient 5 async client, one pool per Feign
+ * client. Connections are kept alive and reused across requests, and can speak HTTP/2.
+ * Timeouts come from {@link TransportSettings}; Feign's per-request {@code Options} are
+ * not consulted.
+ * <p>
+ * Bodies are buffered in memory both ways, which is fine for the small JSON payloads the
+ * order-service clients exchange.
+ */
+public class PooledFeignClient implements Client, MeterBinder, Closeable {
+
+    /**
+     * Headers the transport sets itself, or that HTTP/2 forbids.
+     */
+    private static final Set<String> SKIPPED_HEADERS = caseInsensitive(
+        HttpHeaders.CONTENT_LENGTH, HttpHeaders.CONTENT_TYPE, HttpHeaders.HOST, HttpHeaders.CONNECTION,
+        HttpHeaders.KEEP_ALIVE, HttpHeaders.TRANSFER_ENCODING, HttpHeaders.UPGRADE);
+
+    private final String name;
+    private final PoolingAsyncClientConnectionManager connectionManager;
+    private final CloseableHttpAsyncClient httpClient;
+
+    public PooledFeignClient(String name, TransportSettings settings) {
+        this.name = name;
+        this.connectionManager = PoolingAsyncClientConnectionManagerBuilder.create()
+            .setMaxConnTotal(settings.getMaxConnections())
+            .setMaxConnPerRoute(settings.getMaxConnectionsPerRoute())
+            .setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(timeout(settings.getConnectTimeout()))
+                .setTimeToLive(timeValue(settings.getTimeToLive()))
+                .setValidateAfterInactivity(timeValue(settings.getValidateAfterInactivity()))
+                .build())
+            .setDefaultTlsConfig(TlsConfig.custom()
+                .setVersionPolicy(versionPolicy(settings.getProtocol()))
+                .build())
+            .setMessageMultiplexing(settings.getProtocol() != TransportSettings.Protocol.HTTP_1_1)
+            .build();
+        this.httpClient = HttpAsyncClients.custom()
+            .setConnectionManager(connectionManager)
+            .setDefaultRequestConfig(RequestConfig.custom()
+                .setConnectionRequestTimeout(timeout(settings.getConnectionRequestTimeout()))
+                .setResponseTimeout(timeout(settings.getResponseTimeout()))
+                .build())
+            .evictIdleConnections(timeValue(settings.getIdleTimeout()))
+            .disableAutomaticRetries()
+            .disableRedirectHandling()
+            .disableCookieManagement()
+            .build();
+        httpClient.start();
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        return await(executeAsync(request), name);
+    }
+
+    /**
+     * Sends the request without blocking. Cancelling the returned future aborts the
+     * exchange and frees its connection.
+     */
+    public CompletableFuture<Response> executeAsync(Request request) {
+        SimpleRequestBuilder builder = SimpleRequestBuilder.create(request.httpMethod().name())
+            .setUri(URI.create(request.url()));
+        for (Map.Entry<String, Collection<String>> header : request.headers().entrySet()) {
+            if (!SKIPPED_HEADERS.contains(header.getKey())) {
+                header.getValue().forEach(value -> builder.addHeader(header.getKey(), value));
+            }
+        }
+        if (request.body() != null) {
+            builder.setBody(request.body(), contentType(request));
+        }
+
+        CompletableFuture<Response> result = new CompletableFuture<>();
+        Future<SimpleHttpResponse> exchange = httpClient.execute(builder.build(), new FutureCallback<>() {
+            @Override
+            public void completed(SimpleHttpResponse response) {
+                result.complete(toResponse(request, response));
+            }
+
+            @Override
+            public void failed(Exception e) {
+                result.completeExceptionally(e);
+            }
+
+            @Override
+            public void cancelled() {
+                result.cancel(false);
+            }
+        });
+        result.whenComplete((response, error) -> {
+            if (result.isCancelled()) {
+                exchange.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Waits for an exchange, surfacing failures as the {@link IOException}s Feign expects
+     * from a transport.
+     */
+    static Response await(CompletableFuture<Response> exchange, String clientName) throws IOException {
+        try {
+            return exchange.get();
+        } catch (InterruptedException e) {
+            exchange.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted calling " + clientName);
+        } catch (CancellationException e) {
+            throw new IOException("Request to " + clientName + " was cancelled", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException("Request to " + clientName + " failed", e.getCause());
+        }
+    }
+
+    private static Response toResponse(Request request, SimpleHttpResponse response) {
+        Map<String, Collection<String>> headers = new LinkedHashMap<>();
+        for (Header header : response.getHeaders()) {
+            headers.computeIfAbsent(header.getName(), key -> new ArrayList<>()).add(header.getValue());
+        }
+        return Response.builder()
+            .request(request)
+            .protocolVersion(HttpVersion.HTTP_2.equals(response.getVersion())
+                ? Request.ProtocolVersion.HTTP_2 : Request.ProtocolVersion.HTTP_1_1)
+            .status(response.getCode())
+            .reason(response.getReasonPhrase())
+            .headers(headers)
+            .body(response.getBodyBytes())
+            .build();
+    }
+
+    /**
+     * Registers leased, available (idle), pending and max gauges for this pool, tagged
+     * with {@code httpclient=<client name>}.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, name).bindTo(registry);
+    }
+
+    @Override
+    public void close() {
+        httpClient.close(CloseMode.GRACEFUL);
+    }
+
+    private static ContentType contentType(Request request) {
+        for (Map.Entry<String, Collection<String>> header : request.headers().entrySet()) {
+            if (HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(header.getKey()) && !header.getValue().isEmpty()) {
+                return ContentType.parse(header.getValue().iterator().next());
+            }
+        }
+        return ContentType.APPLICATION_OCTET_STREAM;
+    }
+
+    private static HttpVersionPolicy versionPolicy(TransportSettings.Protocol protocol) {
+        return switch (protocol) {
+            case HTTP_1_1 -> HttpVersionPolicy.FORCE_HTTP_1;
+            case HTTP_2 -> HttpVersionPolicy.FORCE_HTTP_2;
+            case NEGOTIATE -> HttpVersionPolicy.NEGOTIATE;
+        };
+    }
+
+    private static Timeout timeout(Duration duration) {
+        return Timeout.ofMilliseconds(duration.toMillis());
+    }
+
+    private static TimeValue timeValue(Duration duration) {
+        return TimeValue.ofMilliseconds(duration.toMillis());
+    }
+
+    private static Set<String> caseInsensitive(String... names) {
+        Set<String> set = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        set.addAll(List.of(names));
+        return set;
+    }
+}
@@ -0,0 +1,85 @@
+package ru.mishgan325.docsa.pr8.client.transport;
+
+import java.time.Duration;
+
+import lombok.Data;
+
+/**
+ * Bulkhead, circuit breaker and hedging settings for one Feign client. Bound from
+ * {@code app.feign.resilience.default}, then overridden field by field from
+ * {@code app.feign.resilience.clients.<client-name>}.
+ */
+@Data
+public class ResilienceSettings {
+
+    private Bulkhead bulkhead = new Bulkhead();
+    private Breaker circuitBreaker = new Breaker();
+    private Hedging hedging = new Hedging();
+
+    @Data
+    public static class Bulkhead {
+
+        /**
+         * Calls allowed in flight at once. Past this, callers wait up to {@code maxWait}
+         * and are then rejected, so one slow service cannot take every Tomcat thread.
+         */
+        private int maxConcurrentCalls = 64;
+
+        private Duration maxWait = Duration.ZERO;
+    }
+
+    @Data
+    public static class Breaker {
+
+        /**
+         * Number of most recent calls the failure rate is computed over.
+         */
+        private int windowSize = 50;
+
+        private int minimumCalls = 20;
+
+        /**
+         * Failure percentage (IO errors and 5xx) that opens the circuit.
+         */
+        private int failureRateThreshold = 50;
+
+        private Duration openDuration = Duration.ofSeconds(10);
+
+        /**
+         * Trial calls let through once the open duration is over; all must succeed to close.
+         */
+        private int halfOpenCalls = 5;
+    }
+
+    @Data
+    public static class Hedging {
+
+        /**
+         * Hedges GET requests only; other methods are never sent twice.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Latency percentile of recent GETs after which a second request is sent.
+         */
+        private double percentile = 0.95;
+
+        private Duration minDelay = Duration.ofMillis(10);
+
+        /**
+         * Number of recent GET latencies the percentile is taken from.
+         */
+        private int windowSize = 512;
+
+        /**
+         * No hedging until this many latencies have been seen.
+         */
+        private int minimumSamples = 50;
+
+        /**
+         * Hedges allowed per GET, on average. Caps the extra load when a whole service,
+         * rather than one instance, is slow.
+         */
+        private double budgetRatio = 0.1;
+    }
+}
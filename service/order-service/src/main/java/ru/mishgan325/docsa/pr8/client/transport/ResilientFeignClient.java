@@ -0,0 +1,263 @@
+package ru.mishgan325.docsa.pr8.client.transport;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerUriTools;
+
+/**
+ * Sits between the load balancer and the pooled transport of one Feign client and adds:
+ * <ul>
+ *   <li>a bulkhead capping concurrent calls, so a stalled service cannot hold every
+ *       request thread;</li>
+ *   <li>a circuit breaker that fails calls fast while the service keeps failing;</li>
+ *   <li>hedging for GETs: once a call has taken longer than the recent p95, the same
+ *       request is sent to another Eureka instance and the first good answer wins.</li>
+ * </ul>
+ * Rejected calls throw {@link DownstreamRejectedException} without touching the network.
+ */
+public class ResilientFeignClient implements Client {
+
+    private static final long BUDGET_UNIT = 1_000;
+    private static final long BUDGET_CAP = 10 * BUDGET_UNIT;
+
+    private final String name;
+    private final PooledFeignClient delegate;
+    private final DiscoveryClient discoveryClient;
+    private final ResilienceSettings settings;
+
+    private final Semaphore bulkhead;
+    private final CircuitBreaker circuitBreaker;
+    private final LatencyWindow latencies;
+    private final long bulkheadWaitNanos;
+    private final long minHedgeDelayNanos;
+    private final long budgetPerCall;
+    private long hedgeBudget;
+
+    private final Counter circuitOpenRejections;
+    private final Counter bulkheadRejections;
+    private final Counter hedgesSent;
+    private final Counter hedgesWon;
+
+    public ResilientFeignClient(String name,
+                                PooledFeignClient delegate,
+                                DiscoveryClient discoveryClient,
+                                ResilienceSettings settings,
+                                MeterRegistry meterRegistry) {
+        this(name, delegate, discoveryClient, settings, meterRegistry, System::nanoTime);
+    }
+
+    ResilientFeignClient(String name,
+                         PooledFeignClient delegate,
+                         DiscoveryClient discoveryClient,
+                         ResilienceSettings settings,
+                         MeterRegistry meterRegistry,
+                         LongSupplier nanoTime) {
+        this.name = name;
+        this.delegate = delegate;
+        this.discoveryClient = discoveryClient;
+        this.settings = settings;
+        this.bulkhead = new Semaphore(settings.getBulkhead().getMaxConcurrentCalls());
+        this.circuitBreaker = new CircuitBreaker(settings.getCircuitBreaker(), nanoTime);
+        this.latencies = new LatencyWindow(settings.getHedging().getWindowSize(), settings.getHedging().getPercentile());
+        this.bulkheadWaitNanos = settings.getBulkhead().getMaxWait().toNanos();
+        this.minHedgeDelayNanos = settings.getHedging().getMinDelay().toNanos();
+        this.budgetPerCall = Math.round(settings.getHedging().getBudgetRatio() * BUDGET_UNIT);
+
+        Gauge.builder("downstream.circuit.state", circuitBreaker, breaker -> breaker.state().ordinal())
+            .description("0 closed, 1 open, 2 half-open")
+            .tag("client", name)
+            .register(meterRegistry);
+        Gauge.builder("downstream.bulkhead.available", bulkhead, Semaphore::availablePermits)
+            .tag("client", name)
+            .register(meterRegistry);
+        Gauge.builder("downstream.hedge.threshold", latencies, window -> window.percentileNanos() / 1e6)
+            .description("Latency after which a GET is hedged")
+            .baseUnit("milliseconds")
+            .tag("client", name)
+            .register(meterRegistry);
+        this.circuitOpenRejections = rejections(meterRegistry, "circuit_open");
+        this.bulkheadRejections = rejections(meterRegistry, "bulkhead_full");
+        this.hedgesSent = hedges(meterRegistry, "sent");
+        this.hedgesWon = hedges(meterRegistry, "won");
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        acquireBulkhead();
+        try {
+            if (!circuitBreaker.tryAcquirePermission()) {
+                circuitOpenRejections.increment();
+                throw new DownstreamRejectedException("Circuit breaker for " + name + " is open");
+            }
+            boolean hedgeable = settings.getHedging().isEnabled() && request.httpMethod() == Request.HttpMethod.GET;
+            long start = System.nanoTime();
+            boolean success = false;
+            try {
+                Response response = hedgeable
+                    ? executeHedged(request)
+                    : PooledFeignClient.await(delegate.executeAsync(request), name);
+                success = response.status() < 500;
+                return response;
+            } finally {
+                circuitBreaker.record(success);
+                if (hedgeable && success) {
+                    latencies.record(System.nanoTime() - start);
+                }
+            }
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    CircuitBreaker.State circuitState() {
+        return circuitBreaker.state();
+    }
+
+    private Response executeHedged(Request request) throws IOException {
+        CompletableFuture<Response> primary = delegate.executeAsync(request);
+        long delay = hedgeDelayNanos();
+        if (delay < 0) {
+            return PooledFeignClient.await(primary, name);
+        }
+        try {
+            return primary.get(delay, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // Slower than usual: hedge below.
+        } catch (InterruptedException e) {
+            primary.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted calling " + name);
+        } catch (ExecutionException e) {
+            return PooledFeignClient.await(primary, name);
+        }
+
+        Optional<Request> hedge = otherInstance(request);
+        if (hedge.isEmpty() || !takeHedgeBudget()) {
+            return PooledFeignClient.await(primary, name);
+        }
+        hedgesSent.increment();
+        CompletableFuture<Response> secondary = delegate.executeAsync(hedge.get());
+        try {
+            Response response = PooledFeignClient.await(firstGood(primary, secondary), name);
+            if (response.request() == hedge.get()) {
+                hedgesWon.increment();
+            }
+            return response;
+        } finally {
+            primary.cancel(true);
+            secondary.cancel(true);
+        }
+    }
+
+    /**
+     * Refills the budget by {@code budgetRatio} per GET; each hedge spends one unit.
+     */
+    private synchronized long hedgeDelayNanos() {
+        hedgeBudget = Math.min(BUDGET_CAP, hedgeBudget + budgetPerCall);
+        if (latencies.count() < settings.getHedging().getMinimumSamples()) {
+            return -1;
+        }
+        return Math.max(minHedgeDelayNanos, latencies.percentileNanos());
+    }
+
+    private synchronized boolean takeHedgeBudget() {
+        if (hedgeBudget < BUDGET_UNIT) {
+            return false;
+        }
+        hedgeBudget -= BUDGET_UNIT;
+        return true;
+    }
+
+    /**
+     * The same request aimed at a random instance other than the one the load balancer
+     * picked, if the service has one.
+     */
+    private Optional<Request> otherInstance(Request request) {
+        URI original = URI.create(request.url());
+        List<ServiceInstance> others = discoveryClient.getInstances(name).stream()
+            .filter(instance -> !(instance.getHost().equalsIgnoreCase(original.getHost())
+                && instance.getPort() == original.getPort()))
+            .toList();
+        if (others.isEmpty()) {
+            return Optional.empty();
+        }
+        ServiceInstance instance = others.get(ThreadLocalRandom.current().nextInt(others.size()));
+        URI url = LoadBalancerUriTools.reconstructURI(instance, original);
+        return Optional.of(Request.create(request.httpMethod(), url.toString(), request.headers(),
+            request.body(), request.charset(), request.requestTemplate()));
+    }
+
+    private void acquireBulkhead() throws IOException {
+        boolean acquired;
+        try {
+            acquired = bulkheadWaitNanos > 0
+                ? bulkhead.tryAcquire(bulkheadWaitNanos, TimeUnit.NANOSECONDS)
+                : bulkhead.tryAcquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for the " + name + " bulkhead");
+        }
+        if (!acquired) {
+            bulkheadRejections.increment();
+            throw new DownstreamRejectedException("Too many concurrent calls to " + name);
+        }
+    }
+
+    /**
+     * Completes with the first non-5xx response; if neither attempt gets one, with
+     * whichever finished last.
+     */
+    private static CompletableFuture<Response> firstGood(CompletableFuture<Response> primary,
+                                                         CompletableFuture<Response> secondary) {
+        CompletableFuture<Response> winner = new CompletableFuture<>();
+        AtomicInteger misses = new AtomicInteger();
+        for (CompletableFuture<Response> attempt : List.of(primary, secondary)) {
+            attempt.whenComplete((response, error) -> {
+                if (error == null && response.status() < 500) {
+                    winner.complete(response);
+                } else if (misses.incrementAndGet() == 2) {
+                    if (error != null) {
+                        winner.completeExceptionally(error);
+                    } else {
+                        winner.complete(response);
+                    }
+                }
+            });
+        }
+        return winner;
+    }
+
+    private Counter rejections(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("downstream.calls.rejected")
+            .tag("client", name)
+            .tag("reason", reason)
+            .register(meterRegistry);
+    }
+
+    private Counter hedges(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("downstream.hedges")
+            .tag("client", name)
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+}
@@ -0,0 +1,65 @@
+package ru.mishgan325.docsa.pr8.client.transport;
+
+import java.time.Duration;
+
+import lombok.Data;
+
+/**
+ * Connection pool and timeout settings for one Feign client. Bound from
+ * {@code app.feign.transport.default}, then overridden field by field from
+ * {@code app.feign.transport.clients.<client-name>}.
+ */
+@Data
+public class TransportSettings {
+
+    private Protocol protocol = Protocol.HTTP_1_1;
+
+    /**
+     * Upper bound across every instance of the downstream service.
+     */
+    private int maxConnections = 200;
+
+    /**
+     * Upper bound per instance (host:port). With HTTP/2 one connection per instance is
+     * normally enough, since requests are multiplexed over it.
+     */
+    private int maxConnectionsPerRoute = 50;
+
+    private Duration connectTimeout = Duration.ofSeconds(2);
+
+    private Duration responseTimeout = Duration.ofSeconds(5);
+
+    /**
+     * How long a request may wait for a pooled connection before failing.
+     */
+    private Duration connectionRequestTimeout = Duration.ofSeconds(1);
+
+    /**
+     * Idle connections older than this are closed by a background evictor.
+     */
+    private Duration idleTimeout = Duration.ofSeconds(30);
+
+    /**
+     * Connections are not reused past this age, so traffic rebalances after instances
+     * come and go in Eureka.
+     */
+    private Duration timeToLive = Duration.ofMinutes(5);
+
+    /**
+     * A pooled connection idle longer than this is checked before it is leased again.
+     */
+    private Duration validateAfterInactivity = Duration.ofSeconds(2);
+
+    public enum Protocol {
+        HTTP_1_1,
+        /**
+         * HTTP/2 only: prior knowledge (h2c) over plain HTTP, ALPN over TLS.
+         */
+        HTTP_2,
+        /**
+         * HTTP/2 when the server offers it through ALPN, else HTTP/1.1. Plain HTTP
+         * connections always end up on HTTP/1.1.
+         */
+        NEGOTIATE
+    }
+}
@@ -0,0 +1,38 @@
+package ru.mishgan325.docsa.pr8.config;
+
+import java.security.Principal;
+import java.util.Map;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.core.Authentication;
+import ru.mishgan325.docsa.pr8.client.CustomerCache;
+import ru.mishgan325.docsa.pr8.dto.CustomerDto;
+import ru.mishgan325.docsa.pr8.repository.OrderRepository;
+import ru.mishgan325.docsa.pr8.security.ShopPrincipal;
+import ru.mishgan325.docsa.pr8.web.ListETagFilter;
+
+@Configuration
+public class ConditionalGetConfig {
+
+    /**
+     * {@code GET /orders/self}: the version summary of the caller's orders. The customer
+     * comes from the near cache, so a 304 costs one aggregate query.
+     */
+    @Bean
+    public ListETagFilter listETagFilter(OrderRepository orderRepository, CustomerCache customerCache) {
+        return new ListETagFilter(Map.of("/orders/self", request -> {
+            Principal principal = request.getUserPrincipal();
+            if (!(principal instanceof Authentication authentication)
+                    || !(authentication.getPrincipal() instanceof ShopPrincipal shopPrincipal)
+                    || !shopPrincipal.hasUserId()) {
+                return null;
+            }
+            CustomerDto customer = customerCache.getCustomerByUserId(shopPrincipal.userId());
+            if (customer == null) {
+                return null;
+            }
+            return orderRepository.findListVersionByCustomerId(customer.id()).etag();
+        }));
+    }
+}
@@ -0,0 +1,31 @@
+package ru.mishgan325.docsa.pr8.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+import ru.mishgan325.docsa.pr8.client.CustomerCache;
+
+/**
+ * {@code DELETE /actuator/customercache} drops every cached customer,
+ * {@code DELETE /actuator/customercache/{userId}} drops one. Both need a bearer token, like
+ * every actuator write.
+ */
+@Component
+@Endpoint(id = "customercache")
+@RequiredArgsConstructor
+public class CustomerCacheEndpoint {
+
+    private final CustomerCache customerCache;
+
+    @DeleteOperation
+    public void invalidateAll() {
+        customerCache.invalidateAll();
+    }
+
+    @DeleteOperation
+    public void invalidate(@Selector Long userId) {
+        customerCache.invalidate(userId);
+    }
+}
@@ -0,0 +1,41 @@
+package ru.mishgan325.docsa.pr8.config;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+
+@Configuration
+public class DownstreamExecutorConfig {
+
+    /**
+     * Pool for concurrent Feign calls. Each task runs with the caller's SecurityContext,
+     * so {@link FeignConfig}'s interceptor still sees the JWT on the worker thread.
+     * When the queue is full the caller runs the call itself instead of failing.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService downstreamExecutor(
+            @Value("${app.downstream.executor.threads:32}") int threads,
+            @Value("${app.downstream.executor.queue-capacity:256}") int queueCapacity) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "downstream-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            threads, threads, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            threadFactory,
+            new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return new DelegatingSecurityContextExecutorService(executor);
+    }
+}
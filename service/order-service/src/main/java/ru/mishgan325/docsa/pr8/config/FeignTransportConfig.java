@@ -0,0 +1,73 @@
+package ru.mishgan325.docsa.pr8.config;
+
+import feign.Client;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.cloud.openfeign.loadbalancer.FeignBlockingLoadBalancerClient;
+import org.springframework.cloud.openfeign.loadbalancer.LoadBalancerFeignRequestTransformer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import ru.mishgan325.docsa.pr8.client.transport.PooledFeignClient;
+import ru.mishgan325.docsa.pr8.client.transport.ResilienceSettings;
+import ru.mishgan325.docsa.pr8.client.transport.ResilientFeignClient;
+import ru.mishgan325.docsa.pr8.client.transport.TransportSettings;
+
+/**
+ * Default configuration for every Feign client, applied through
+ * {@code @EnableFeignClients(defaultConfiguration = ...)}. Spring Cloud instantiates it
+ * once per client, in that client's own context, so each downstream service gets its own
+ * connection pool, bulkhead and circuit breaker. Deliberately not a
+ * {@code @Configuration}: component scanning would put it in the main context, where
+ * there is no client name.
+ */
+public class FeignTransportConfig {
+
+    @Bean(destroyMethod = "close")
+    public PooledFeignClient pooledFeignClient(@Value("${spring.cloud.openfeign.client.name}") String clientName,
+                                               Environment environment,
+                                               MeterRegistry meterRegistry) {
+        PooledFeignClient client = new PooledFeignClient(clientName,
+            bind(environment, "app.feign.transport", clientName, new TransportSettings()));
+        client.bindTo(meterRegistry);
+        return client;
+    }
+
+    /**
+     * Eureka load balancing on top of the bulkhead, circuit breaker and hedging, on top of
+     * the pooled transport. Replaces the default client Spring Cloud would otherwise build
+     * around {@code HttpURLConnection}.
+     */
+    @Bean
+    @Primary
+    public Client feignClient(@Value("${spring.cloud.openfeign.client.name}") String clientName,
+                              Environment environment,
+                              PooledFeignClient pooledFeignClient,
+                              DiscoveryClient discoveryClient,
+                              MeterRegistry meterRegistry,
+                              LoadBalancerClient loadBalancerClient,
+                              LoadBalancerClientFactory loadBalancerClientFactory,
+                              ObjectProvider<LoadBalancerFeignRequestTransformer> transformers) {
+        ResilientFeignClient resilient = new ResilientFeignClient(clientName, pooledFeignClient, discoveryClient,
+            bind(environment, "app.feign.resilience", clientName, new ResilienceSettings()), meterRegistry);
+        return new FeignBlockingLoadBalancerClient(resilient, loadBalancerClient,
+            loadBalancerClientFactory, transformers.orderedStream().toList());
+    }
+
+    /**
+     * Binds {@code <prefix>.default}, then the client's own {@code <prefix>.clients.<name>}
+     * over it, so a client only lists what it changes.
+     */
+    static <T> T bind(Environment environment, String prefix, String clientName, T settings) {
+        Binder binder = Binder.get(environment);
+        binder.bind(prefix + ".default", Bindable.ofInstance(settings));
+        binder.bind(prefix + ".clients." + clientName, Bindable.ofInstance(settings));
+        return settings;
+    }
+}
@@ -0,0 +1,33 @@
+package ru.mishgan325.docsa.pr8.config;
+
+import javax.sql.DataSource;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.DatabasePopulatorUtils;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs {@code db/orders-seq.sql} on startup: databases created while orders used an
+ * identity column get {@code orders_seq} from {@code ddl-auto} starting at 1, below the
+ * ids already taken. The script only moves a sequence that is behind {@code max(id)}.
+ * <p>
+ * After the entity manager factory, which creates the sequence, and before the web server
+ * takes requests.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+public class OrderSequenceInitializer implements InitializingBean {
+
+    private final DataSource dataSource;
+
+    @Override
+    public void afterPropertiesSet() {
+        DatabasePopulatorUtils.execute(
+            new ResourceDatabasePopulator(new ClassPathResource("db/orders-seq.sql")), dataSource);
+    }
+}
@@ -2,11 +2,16 @@ package ru.mishgan325.docsa.pr8.config;
 
 import feign.RequestInterceptor;
 import feign.RequestTemplate;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.security.oauth2.jwt.Jwt;
+import ru.mishgan325.docsa.pr8.client.protobuf.ProtobufLookupConverter;
+import ru.mishgan325.docsa.pr8.security.InternalIdentity;
+import ru.mishgan325.docsa.pr8.web.protobuf.LookupSchema;
 
 @Configuration
 public class FeignConfig {
@@ -20,13 +25,31 @@ public class FeignConfig {
                 Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
                 // 2. Если это JWT токен
-                if (authentication instanceof JwtAuthenticationToken jwtAuthenticationToken) {
+                if (authentication != null && authentication.getCredentials() instanceof Jwt jwt) {
                     // 3. Достаем сам токен (строку)
-                    String tokenValue = jwtAuthenticationToken.getToken().getTokenValue();
+                    String tokenValue = jwt.getTokenValue();
                     
                     // 4. Добавляем заголовок Authorization в запрос к CustomerService
                     template.header("Authorization", "Bearer " + tokenValue);
                 }
+                // Пришли через api-gateway: передаем его подписанный заголовок дальше
+                if (authentication != null && authentication.getCredentials() instanceof InternalIdentity identity) {
+                    template.header(InternalIdentity.HEADER, identity.headerValue());
+                }
+            }
+        };
+    }
+
+    /**
+     * With {@code app.downstream.codec=protobuf}, lookups ask for protobuf (decoded by
+     * {@link ProtobufLookupConverter}) and accept JSON from an instance that cannot produce it.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.downstream.codec", havingValue = "protobuf")
+    public RequestInterceptor protobufAcceptInterceptor() {
+        return template -> {
+            if ("GET".equals(template.method()) && !template.headers().containsKey(HttpHeaders.ACCEPT)) {
+                template.header(HttpHeaders.ACCEPT, LookupSchema.PROTOBUF.toString(), "application/json;q=0.5");
             }
         };
     }
@@ -1,32 +1,66 @@
 package ru.mishgan325.docsa.pr8.controller;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+import feign.FeignException;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
-import ru.mishgan325.docsa.pr8.client.CustomerClient;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.mishgan325.docsa.pr8.client.CustomerCache;
 import ru.mishgan325.docsa.pr8.client.ProductClient;
+import ru.mishgan325.docsa.pr8.dto.BatchCreateOrderRequest;
+import ru.mishgan325.docsa.pr8.dto.BatchOrderLineResult;
+import ru.mishgan325.docsa.pr8.dto.BatchOrderResponse;
+import ru.mishgan325.docsa.pr8.dto.BulkStatusUpdateRequest;
+import ru.mishgan325.docsa.pr8.dto.BulkStatusUpdateResponse;
 import ru.mishgan325.docsa.pr8.dto.CustomerDto;
 import ru.mishgan325.docsa.pr8.dto.CreateOrderRequest;
+import ru.mishgan325.docsa.pr8.dto.OrderCursor;
+import ru.mishgan325.docsa.pr8.dto.OrderPage;
 import ru.mishgan325.docsa.pr8.dto.OrderResponse;
 import ru.mishgan325.docsa.pr8.dto.ProductDto;
+import ru.mishgan325.docsa.pr8.dto.StockRequest;
+import ru.mishgan325.docsa.pr8.dto.StockReservationItem;
+import ru.mishgan325.docsa.pr8.dto.StockReservationRequest;
+import ru.mishgan325.docsa.pr8.dto.StockReservationResult;
 import ru.mishgan325.docsa.pr8.model.Order;
 import ru.mishgan325.docsa.pr8.repository.OrderRepository;
-import ru.mishgan325.docsa.pr8.util.AuthenticationUtil;
+import ru.mishgan325.docsa.pr8.security.ShopPrincipal;
+import ru.mishgan325.docsa.pr8.service.CheckoutLookupService;
+import ru.mishgan325.docsa.pr8.service.CheckoutLookupService.CheckoutLookup;
+import ru.mishgan325.docsa.pr8.service.IdempotencyService;
+import ru.mishgan325.docsa.pr8.service.OrderExportService;
+import ru.mishgan325.docsa.pr8.service.OrderStatusService;
+import ru.mishgan325.docsa.pr8.service.OrderWriteService;
+import ru.mishgan325.docsa.pr8.web.ETags;
 
 @Slf4j
 @RestController
@@ -36,39 +70,90 @@ public class OrderController {
 
     private final OrderRepository orderRepository;
     private final ProductClient productClient;
-    private final CustomerClient customerClient;
+    private final CustomerCache customerCache;
+    private final CheckoutLookupService checkoutLookupService;
+    private final OrderExportService orderExportService;
+    private final OrderWriteService orderWriteService;
+    private final OrderStatusService orderStatusService;
+    private final IdempotencyService idempotencyService;
+
+    static final String NDJSON = "application/x-ndjson";
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 200;
 
     @GetMapping
+    public ResponseEntity<OrderPage> getOrdersPage(@RequestParam(required = false) String cursor,
+                                                   @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int size) {
+        return page(cursor, size,
+                limit -> orderRepository.findAllByOrderByCreatedAtDescIdDesc(limit),
+                (after, limit) -> orderRepository.findPageBefore(after.createdAt(), after.id(), limit));
+    }
+
+    /**
+     * Legacy unpaged listing, kept for callers that opt in with {@code ?unpaged=true}.
+     */
+    @GetMapping(params = "unpaged=true")
     public List<OrderResponse> getAllOrders() {
         return orderRepository.findAll().stream()
                 .map(OrderResponse::from)
                 .toList();
     }
 
+    /**
+     * Streams every matching order as NDJSON with constant memory; filters are optional.
+     */
+    @GetMapping(value = "/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Order.OrderStatus status) {
+        if (from != null && to != null && !from.isBefore(to)) {
+            return ResponseEntity.badRequest().build();
+        }
+        StreamingResponseBody body = out -> orderExportService.exportNdjson(from, to, status, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(body);
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<OrderResponse> getOrderById(@PathVariable Long id) {
+    public ResponseEntity<OrderResponse> getOrderById(@PathVariable Long id,
+                                                      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         return orderRepository.findById(id)
-                .map(OrderResponse::from)
-                .map(ResponseEntity::ok)
+                .map(order -> ETags.respond(ifNoneMatch, ETags.strong(order.getId(), order.getVersion()),
+                        () -> OrderResponse.from(order)))
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/customer/{customerId}")
+    public ResponseEntity<OrderPage> getOrdersPageByCustomerId(@PathVariable Long customerId,
+                                                               @RequestParam(required = false) String cursor,
+                                                               @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int size) {
+        return page(cursor, size,
+                limit -> orderRepository.findByCustomerIdOrderByCreatedAtDescIdDesc(customerId, limit),
+                (after, limit) -> orderRepository.findByCustomerIdPageBefore(
+                        customerId, after.createdAt(), after.id(), limit));
+    }
+
+    @GetMapping(value = "/customer/{customerId}", params = "unpaged=true")
     public List<OrderResponse> getOrdersByCustomerId(@PathVariable Long customerId) {
         return orderRepository.findByCustomerId(customerId).stream()
                 .map(OrderResponse::from)
                 .toList();
     }
 
+    /**
+     * Conditional requests are answered by the {@code ListETagFilter} set up in
+     * {@code ConditionalGetConfig}, before this method runs.
+     */
     @GetMapping("/self")
-    public ResponseEntity<?> getSelfOrders(Authentication authentication) {
+    public ResponseEntity<?> getSelfOrders(@AuthenticationPrincipal ShopPrincipal principal) {
         try {
-            Long userId = AuthenticationUtil.extractUserId(authentication);
-            if (userId == null) {
+            if (principal == null || !principal.hasUserId()) {
                 return ResponseEntity.badRequest().body("User ID not found in token");
             }
 
-            CustomerDto customer = customerClient.getCustomerByUserId(userId);
+            CustomerDto customer = customerCache.getCustomerByUserId(principal.userId());
             if (customer == null) {
                 return ResponseEntity.badRequest().body("Customer not found for current user");
             }
@@ -85,25 +170,36 @@ public class OrderController {
         }
     }
 
+    /**
+     * With an {@code Idempotency-Key} header, a retry of the same request gets the original
+     * response back instead of placing a second order.
+     */
     @PostMapping
-    public ResponseEntity<?> createOrder(@Valid @RequestBody CreateOrderRequest request, Authentication authentication) {
+    public ResponseEntity<?> createOrder(@Valid @RequestBody CreateOrderRequest request,
+                                         @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                         @AuthenticationPrincipal ShopPrincipal principal) {
+        if (principal == null || !principal.hasUserId()) {
+            return ResponseEntity.badRequest().body("User ID not found in token");
+        }
+        if (idempotencyKey == null) {
+            return doCreateOrder(request, principal);
+        }
+        return idempotencyService.execute(principal.userId(), idempotencyKey, request,
+            () -> doCreateOrder(request, principal));
+    }
+
+    private ResponseEntity<?> doCreateOrder(CreateOrderRequest request, ShopPrincipal principal) {
         try {
-            String username = AuthenticationUtil.extractUsername(authentication);
-            Long userId = AuthenticationUtil.extractUserId(authentication);
-            
-            if (userId == null) {
-                return ResponseEntity.badRequest().body("User ID not found in token");
-            }
-            
             log.info("User '{}' (ID: {}) is creating order for product {}", 
-                username, userId, request.productId());
+                principal.username(), principal.userId(), request.productId());
 
-            CustomerDto customer = customerClient.getCustomerByUserId(userId);
+            CheckoutLookup lookup = checkoutLookupService.lookup(principal.userId(), request.productId());
+            CustomerDto customer = lookup.customer();
             if (customer == null) {
                 return ResponseEntity.badRequest().body("Customer not found for current user");
             }
 
-            ProductDto product = productClient.getProductById(request.productId());
+            ProductDto product = lookup.product();
             if (product == null) {
                 return ResponseEntity.badRequest().body("Product not found");
             }
@@ -112,16 +208,23 @@ public class OrderController {
                 return ResponseEntity.badRequest().body("Insufficient product quantity");
             }
 
-            BigDecimal totalPrice = product.price().multiply(BigDecimal.valueOf(request.quantity()));
-            
-            Order order = new Order();
-            order.setCustomerId(customer.id());
-            order.setProductId(request.productId());
-            order.setQuantity(request.quantity());
-            order.setTotalPrice(totalPrice);
-            order.setStatus(Order.OrderStatus.CONFIRMED);
+            try {
+                productClient.reserveStock(product.id(), new StockRequest(request.quantity()));
+            } catch (FeignException.Conflict e) {
+                return ResponseEntity.badRequest().body("Insufficient product quantity");
+            } catch (FeignException.NotFound e) {
+                return ResponseEntity.badRequest().body("Product not found");
+            }
+
+            Order order = newConfirmedOrder(customer, product, request.quantity());
 
-            Order saved = orderRepository.save(order);
+            Order saved;
+            try {
+                saved = orderWriteService.create(order);
+            } catch (RuntimeException e) {
+                releaseStock(List.of(new StockReservationItem(product.id(), request.quantity())));
+                throw e;
+            }
             log.info("Order created successfully: {}", saved.getId());
 
             return ResponseEntity.status(HttpStatus.CREATED).body(OrderResponse.from(saved));
@@ -132,24 +235,178 @@ public class OrderController {
         }
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<?> createOrders(@Valid @RequestBody BatchCreateOrderRequest request,
+                                          @AuthenticationPrincipal ShopPrincipal principal) {
+        try {
+            if (principal == null || !principal.hasUserId()) {
+                return ResponseEntity.badRequest().body("User ID not found in token");
+            }
+            String username = principal.username();
+            long userId = principal.userId();
+
+            List<CreateOrderRequest> lines = request.orders();
+            log.info("User '{}' (ID: {}) is creating {} orders in batch", username, userId, lines.size());
+
+            CustomerDto customer = customerCache.getCustomerByUserId(userId);
+            if (customer == null) {
+                return ResponseEntity.badRequest().body("Customer not found for current user");
+            }
+
+            Set<Long> productIds = lines.stream()
+                    .map(CreateOrderRequest::productId)
+                    .collect(Collectors.toSet());
+            Map<Long, ProductDto> products = productClient.getProductsByIds(productIds).stream()
+                    .collect(Collectors.toMap(ProductDto::id, Function.identity()));
+
+            // Lines for the same product draw from one shared stock snapshot.
+            Map<Long, Integer> remaining = new HashMap<>();
+            BatchOrderLineResult[] results = new BatchOrderLineResult[lines.size()];
+            List<Order> accepted = new ArrayList<>();
+            List<Integer> acceptedLines = new ArrayList<>();
+
+            for (int i = 0; i < lines.size(); i++) {
+                CreateOrderRequest line = lines.get(i);
+                ProductDto product = products.get(line.productId());
+                if (product == null) {
+                    results[i] = BatchOrderLineResult.rejected(i, line.productId(), "Product not found");
+                    continue;
+                }
+
+                int available = remaining.getOrDefault(product.id(), product.quantity());
+                if (available < line.quantity()) {
+                    results[i] = BatchOrderLineResult.rejected(i, line.productId(), "Insufficient product quantity");
+                    continue;
+                }
+                remaining.put(product.id(), available - line.quantity());
+
+                accepted.add(newConfirmedOrder(customer, product, line.quantity()));
+                acceptedLines.add(i);
+            }
+
+            if (!accepted.isEmpty()) {
+                List<StockReservationItem> items = accepted.stream()
+                        .map(order -> new StockReservationItem(order.getProductId(), order.getQuantity()))
+                        .toList();
+                List<StockReservationResult> reservations =
+                        productClient.reserveStockBatch(new StockReservationRequest(items));
+
+                List<Order> reserved = new ArrayList<>();
+                List<Integer> reservedLines = new ArrayList<>();
+                for (int i = 0; i < accepted.size(); i++) {
+                    int line = acceptedLines.get(i);
+                    if (reservations.get(i).reserved()) {
+                        reserved.add(accepted.get(i));
+                        reservedLines.add(line);
+                    } else {
+                        results[line] = BatchOrderLineResult.rejected(
+                                line, items.get(i).productId(), "Insufficient product quantity");
+                    }
+                }
+
+                if (!reserved.isEmpty()) {
+                    List<Order> saved;
+                    try {
+                        saved = orderWriteService.createAll(reserved);
+                    } catch (RuntimeException e) {
+                        releaseStock(reserved.stream()
+                                .map(order -> new StockReservationItem(order.getProductId(), order.getQuantity()))
+                                .toList());
+                        throw e;
+                    }
+                    for (int i = 0; i < saved.size(); i++) {
+                        int line = reservedLines.get(i);
+                        results[line] = BatchOrderLineResult.created(line, OrderResponse.from(saved.get(i)));
+                    }
+                }
+            }
+
+            BatchOrderResponse response = BatchOrderResponse.from(Arrays.asList(results));
+            log.info("Batch for user {} finished: {} created, {} rejected",
+                userId, response.created(), response.rejected());
+
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            log.error("Error creating order batch", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error creating orders: " + e.getMessage());
+        }
+    }
+
     @PutMapping("/{id}/status")
     public ResponseEntity<OrderResponse> updateOrderStatus(@PathVariable Long id, @RequestParam Order.OrderStatus status) {
-        return orderRepository.findById(id)
-                .map(order -> {
-                    order.setStatus(status);
-                    Order updated = orderRepository.save(order);
-                    return ResponseEntity.ok(OrderResponse.from(updated));
-                })
+        return orderWriteService.changeStatus(id, status)
+                .map(OrderResponse::from)
+                .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * Applies one status to many orders, selected by ids or by filter, in chunked set-based UPDATEs.
+     */
+    @PutMapping("/status")
+    public ResponseEntity<?> updateOrderStatuses(@Valid @RequestBody BulkStatusUpdateRequest request) {
+        if (request.hasIds() == request.hasFilter()) {
+            return ResponseEntity.badRequest().body("Provide either ids or a fromStatus/createdBefore filter");
+        }
+        BulkStatusUpdateResponse response = request.hasIds()
+                ? orderStatusService.updateByIds(request.ids(), request.status())
+                : orderStatusService.updateMatching(request.fromStatus(), request.createdBefore(), request.status());
+        return ResponseEntity.ok(response);
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteOrder(@PathVariable Long id) {
-        if (!orderRepository.existsById(id)) {
+        if (!orderWriteService.delete(id)) {
             return ResponseEntity.notFound().build();
         }
-        orderRepository.deleteById(id);
         return ResponseEntity.noContent().build();
     }
+
+    private static ResponseEntity<OrderPage> page(String cursor, int size,
+                                                  Function<Limit, List<Order>> first,
+                                                  BiFunction<OrderCursor, Limit, List<Order>> next) {
+        if (size < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        int pageSize = Math.min(size, MAX_PAGE_SIZE);
+        Limit limit = Limit.of(pageSize + 1);
+
+        List<Order> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = first.apply(limit);
+        } else {
+            OrderCursor after;
+            try {
+                after = OrderCursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().build();
+            }
+            rows = next.apply(after, limit);
+        }
+        return ResponseEntity.ok(OrderPage.of(rows, pageSize));
+    }
+
+    /**
+     * Compensates a reservation whose order could not be saved. Failures are only logged:
+     * the caller is already reporting the original error.
+     */
+    private void releaseStock(List<StockReservationItem> items) {
+        try {
+            productClient.releaseStockBatch(new StockReservationRequest(items));
+        } catch (RuntimeException e) {
+            log.error("Failed to release reserved stock {}", items, e);
+        }
+    }
+
+    private static Order newConfirmedOrder(CustomerDto customer, ProductDto product, int quantity) {
+        Order order = new Order();
+        order.setCustomerId(customer.id());
+        order.setProductId(product.id());
+        order.setQuantity(quantity);
+        order.setTotalPrice(product.price().multiply(BigDecimal.valueOf(quantity)));
+        order.setStatus(Order.OrderStatus.CONFIRMED);
+        return order;
+    }
 }
 
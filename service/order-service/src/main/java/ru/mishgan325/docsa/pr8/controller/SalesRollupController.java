@@ -0,0 +1,58 @@
+package ru.mishgan325.docsa.pr8.controller;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import ru.mishgan325.docsa.pr8.dto.CustomerSalesResponse;
+import ru.mishgan325.docsa.pr8.dto.ProductDailySalesResponse;
+import ru.mishgan325.docsa.pr8.dto.RollupRebuildResult;
+import ru.mishgan325.docsa.pr8.service.SalesRollupRebuildService;
+import ru.mishgan325.docsa.pr8.service.SalesRollupService;
+
+/**
+ * Sales dashboards, served from the rollup tables instead of scanning {@code orders}.
+ */
+@RestController
+@RequestMapping("/orders/rollups")
+@RequiredArgsConstructor
+public class SalesRollupController {
+
+    private final SalesRollupService salesRollupService;
+    private final SalesRollupRebuildService salesRollupRebuildService;
+
+    /**
+     * One row per day with sales in {@code [from, to]}; days without sales are omitted.
+     */
+    @GetMapping("/products/{productId}")
+    public ResponseEntity<List<ProductDailySalesResponse>> getProductDailySales(
+            @PathVariable Long productId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        if (from.isAfter(to)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(salesRollupService.getProductDailySales(productId, from, to));
+    }
+
+    @GetMapping("/customers/{customerId}")
+    public CustomerSalesResponse getCustomerSales(@PathVariable Long customerId) {
+        return salesRollupService.getCustomerSales(customerId);
+    }
+
+    @PostMapping("/rebuild")
+    public ResponseEntity<RollupRebuildResult> rebuild() {
+        return salesRollupRebuildService.rebuild()
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.status(HttpStatus.CONFLICT).build());
+    }
+}
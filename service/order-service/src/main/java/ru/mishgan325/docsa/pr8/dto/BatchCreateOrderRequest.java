@@ -0,0 +1,13 @@
+package ru.mishgan325.docsa.pr8.dto;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+public record BatchCreateOrderRequest(
+    @NotEmpty(message = "At least one order line is required")
+    @Size(max = 500, message = "At most 500 order lines per batch")
+    List<@Valid CreateOrderRequest> orders
+) {}
@@ -0,0 +1,21 @@
+package ru.mishgan325.docsa.pr8.dto;
+
+public record BatchOrderLineResult(
+    int line,
+    Long productId,
+    Status status,
+    OrderResponse order,
+    String error
+) {
+    public static BatchOrderLineResult created(int line, OrderResponse order) {
+        return new BatchOrderLineResult(line, order.productId(), Status.CREATED, order, null);
+    }
+
+    public static BatchOrderLineResult rejected(int line, Long productId, String error) {
+        return new BatchOrderLineResult(line, productId, Status.REJECTED, null, error);
+    }
+
+    public enum Status {
+        CREATED, REJECTED
+    }
+}
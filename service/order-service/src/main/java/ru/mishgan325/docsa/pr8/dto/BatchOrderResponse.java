@@ -0,0 +1,16 @@
+package ru.mishgan325.docsa.pr8.dto;
+
+import java.util.List;
+
+public record BatchOrderResponse(
+    int created,
+    int rejected,
+    List<BatchOrderLineResult> lines
+) {
+    public static BatchOrderResponse from(List<BatchOrderLineResult> lines) {
+        int created = (int) lines.stream()
+            .filter(line -> line.status() == BatchOrderLineResult.Status.CREATED)
+            .count();
+        return new BatchOrderResponse(created, lines.size() - created, lines);
+    }
+}
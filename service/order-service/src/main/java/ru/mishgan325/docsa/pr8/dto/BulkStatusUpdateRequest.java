@@ -0,0 +1,32 @@
+package ru.mishgan325.docsa.pr8.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import ru.mishgan325.docsa.pr8.model.Order;
+
+/**
+ * Moves orders to {@code status}, selected either by {@code ids} or by the
+ * {@code fromStatus}/{@code createdBefore} filter.
+ */
+public record BulkStatusUpdateRequest(
+    @NotNull(message = "Target status is required")
+    Order.OrderStatus status,
+
+    @Size(max = 10000, message = "At most 10000 ids per request")
+    List<@NotNull Long> ids,
+
+    Order.OrderStatus fromStatus,
+
+    LocalDateTime createdBefore
+) {
+    public boolean hasIds() {
+        return ids != null && !ids.isEmpty();
+    }
+
+    public boolean hasFilter() {
+        return fromStatus != null || createdBefore != null;
+    }
+}
@@ -0,0 +1,14 @@
+package ru.mishgan325.docsa.pr8.dto;
+
+import java.util.List;
+
+/**
+ * {@code unchanged} counts orders that already had the target status; for a filter
+ * request only {@code updated} is ever non-zero.
+ */
+public record BulkStatusUpdateResponse(
+    int updated,
+    int unchanged,
+    int notFound,
+    List<Long> notFoundIds
+) {}
@@ -0,0 +1,25 @@
+package ru.mishgan325.docsa.pr8.dto;
+
+import java.math.BigDecimal;
+
+import ru.mishgan325.docsa.pr8.model.CustomerSales;
+
+public record CustomerSalesResponse(
+    Long customerId,
+    long units,
+    BigDecimal revenue,
+    long orderCount
+) {
+    public static CustomerSalesResponse from(CustomerSales sales) {
+        return new CustomerSalesResponse(
+            sales.getCustomerId(),
+            sales.getUnits(),
+            sales.getRevenue(),
+            sales.getOrderCount()
+        );
+    }
+
+    public static CustomerSalesResponse empty(Long customerId) {
+        return new CustomerSalesResponse(customerId, 0, BigDecimal.ZERO, 0);
+    }
+}
@@ -0,0 +1,20 @@
+package ru.mishgan325.docsa.pr8.dto;
+
+import java.util.List;
+
+import ru.mishgan325.docsa.pr8.model.Order;
+
+public record OrderPage(
+    List<OrderResponse> items,
+    String nextCursor
+) {
+    /**
+     * @param rows up to {@code size + 1} rows; the extra row only signals that another page exists
+     */
+    public static OrderPage of(List<Order> rows, int size) {
+        boolean hasNext = rows.size() > size;
+        List<Order> page = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? OrderCursor.after(page.get(page.size() - 1)).encode() : null;
+        return new OrderPage(page.stream().map(OrderResponse::from).toList(), nextCursor);
+    }
+}
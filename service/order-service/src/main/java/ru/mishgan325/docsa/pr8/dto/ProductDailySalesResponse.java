@@ -0,0 +1,22 @@
+package ru.mishgan325.docsa.pr8.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import ru.mishgan325.docsa.pr8.model.ProductDailySales;
+
+public record ProductDailySalesResponse(
+    LocalDate date,
+    long units,
+    BigDecimal revenue,
+    long orderCount
+) {
+    public static ProductDailySalesResponse from(ProductDailySales sales) {
+        return new ProductDailySalesResponse(
+            sales.getSalesDate(),
+            sales.getUnits(),
+            sales.getRevenue(),
+            sales.getOrderCount()
+        );
+    }
+}
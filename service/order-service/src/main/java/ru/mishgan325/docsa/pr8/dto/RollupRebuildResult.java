@@ -0,0 +1,8 @@
+package ru.mishgan325.docsa.pr8.dto;
+
+public record RollupRebuildResult(
+    int chunks,
+    int productDays,
+    int customers,
+    long durationMillis
+) {}
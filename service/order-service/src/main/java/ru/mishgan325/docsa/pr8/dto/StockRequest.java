@@ -0,0 +1,5 @@
+package ru.mishgan325.docsa.pr8.dto;
+
+public record StockRequest(
+    Integer quantity
+) {}
@@ -0,0 +1,6 @@
+package ru.mishgan325.docsa.pr8.dto;
+
+public record StockReservationItem(
+    Long productId,
+    Integer quantity
+) {}
@@ -0,0 +1,7 @@
+package ru.mishgan325.docsa.pr8.dto;
+
+import java.util.List;
+
+public record StockReservationRequest(
+    List<StockReservationItem> items
+) {}
@@ -0,0 +1,7 @@
+package ru.mishgan325.docsa.pr8.dto;
+
+public record StockReservationResult(
+    Long productId,
+    Integer quantity,
+    boolean reserved
+) {}
@@ -0,0 +1,50 @@
+package ru.mishgan325.docsa.pr8.outbox;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Appends events to a local NDJSON file, one line per event, and fsyncs before returning
+ * so nothing the relay deletes from the outbox can be lost in a crash.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.outbox.sink.type", havingValue = "file")
+public class FileOrderEventSink implements OrderEventSink {
+
+    private final ObjectMapper objectMapper;
+    private final Path path;
+
+    public FileOrderEventSink(ObjectMapper objectMapper, @Value("${app.outbox.sink.path}") Path path) {
+        this.objectMapper = objectMapper;
+        this.path = path;
+        log.info("Relaying order events to {}", path.toAbsolutePath());
+    }
+
+    @Override
+    public synchronized void publish(List<OrderEvent> events) throws IOException {
+        StringBuilder lines = new StringBuilder();
+        for (OrderEvent event : events) {
+            lines.append(objectMapper.writeValueAsString(event)).append('\n');
+        }
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+    }
+}
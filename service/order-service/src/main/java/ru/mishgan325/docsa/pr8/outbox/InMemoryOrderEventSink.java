@@ -0,0 +1,43 @@
+package ru.mishgan325.docsa.pr8.outbox;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the most recent events in process, for tests and local runs without a file sink.
+ * The oldest events are dropped once {@code capacity} is reached.
+ */
+@Component
+@ConditionalOnProperty(name = "app.outbox.sink.type", havingValue = "in-memory", matchIfMissing = true)
+public class InMemoryOrderEventSink implements OrderEventSink {
+
+    private final int capacity;
+    private final Deque<OrderEvent> events = new ArrayDeque<>();
+
+    public InMemoryOrderEventSink(@Value("${app.outbox.sink.capacity:10000}") int capacity) {
+        this.capacity = capacity;
+    }
+
+    @Override
+    public synchronized void publish(List<OrderEvent> batch) {
+        for (OrderEvent event : batch) {
+            if (events.size() == capacity) {
+                events.removeFirst();
+            }
+            events.addLast(event);
+        }
+    }
+
+    public synchronized List<OrderEvent> events() {
+        return List.copyOf(events);
+    }
+
+    public synchronized void clear() {
+        events.clear();
+    }
+}
@@ -0,0 +1,28 @@
+package ru.mishgan325.docsa.pr8.outbox;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import ru.mishgan325.docsa.pr8.model.OrderOutboxEvent;
+
+/**
+ * What a sink receives for one outbox row. {@code eventId} grows monotonically and lets
+ * consumers drop the duplicates an at-least-once relay can produce.
+ */
+public record OrderEvent(
+    Long eventId,
+    Long orderId,
+    OrderOutboxEvent.EventType type,
+    LocalDateTime occurredAt,
+    @JsonRawValue String order
+) {
+    public static OrderEvent from(OrderOutboxEvent event) {
+        return new OrderEvent(
+            event.getId(),
+            event.getOrderId(),
+            event.getType(),
+            event.getCreatedAt(),
+            event.getPayload()
+        );
+    }
+}
@@ -0,0 +1,12 @@
+package ru.mishgan325.docsa.pr8.outbox;
+
+import java.util.List;
+
+/**
+ * Destination for relayed order events. The relay deletes a batch only after
+ * {@link #publish} returns, so an exception leaves the whole batch for the next run.
+ */
+public interface OrderEventSink {
+
+    void publish(List<OrderEvent> events) throws Exception;
+}
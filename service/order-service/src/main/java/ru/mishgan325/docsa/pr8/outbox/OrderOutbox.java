@@ -0,0 +1,44 @@
+package ru.mishgan325.docsa.pr8.outbox;
+
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.mishgan325.docsa.pr8.dto.OrderResponse;
+import ru.mishgan325.docsa.pr8.model.Order;
+import ru.mishgan325.docsa.pr8.model.OrderOutboxEvent;
+import ru.mishgan325.docsa.pr8.repository.OrderOutboxRepository;
+
+/**
+ * Writes outbox events for changed orders. It must join the transaction that changed them,
+ * so an order change is committed if and only if its event is;
+ * {@link OrderOutboxRelay} publishes the events afterwards.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderOutbox {
+
+    private final OrderOutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(List<Order> orders, OrderOutboxEvent.EventType type) {
+        outboxRepository.saveAll(orders.stream().map(order -> toEvent(order, type)).toList());
+    }
+
+    private OrderOutboxEvent toEvent(Order order, OrderOutboxEvent.EventType type) {
+        OrderOutboxEvent event = new OrderOutboxEvent();
+        event.setOrderId(order.getId());
+        event.setType(type);
+        try {
+            event.setPayload(objectMapper.writeValueAsString(OrderResponse.from(order)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize order " + order.getId(), e);
+        }
+        return event;
+    }
+}
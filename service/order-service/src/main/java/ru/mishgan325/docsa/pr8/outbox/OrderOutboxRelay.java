@@ -0,0 +1,106 @@
+package ru.mishgan325.docsa.pr8.outbox;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.mishgan325.docsa.pr8.model.OrderOutboxEvent;
+import ru.mishgan325.docsa.pr8.repository.OrderOutboxRepository;
+
+/**
+ * Drains the order outbox into the configured {@link OrderEventSink}.
+ * <p>
+ * Each batch is locked with {@code FOR UPDATE SKIP LOCKED}, published, and deleted in one
+ * transaction, so a failed publish leaves the batch in place and delivery is at-least-once.
+ * Order is preserved within a single relay; with several instances running, events of
+ * different batches may interleave.
+ */
+@Slf4j
+@Component
+public class OrderOutboxRelay {
+
+    private final OrderOutboxRepository outboxRepository;
+    private final OrderEventSink sink;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+
+    private final Timer lag;
+    private final DistributionSummary batchSizes;
+    private final Counter failures;
+
+    public OrderOutboxRelay(OrderOutboxRepository outboxRepository,
+                            OrderEventSink sink,
+                            TransactionTemplate transactionTemplate,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.outbox.relay.batch-size:200}") int batchSize,
+                            @Value("${app.outbox.relay.max-batches-per-run:10}") int maxBatchesPerRun) {
+        this.outboxRepository = outboxRepository;
+        this.sink = sink;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.lag = Timer.builder("orders.outbox.relay.lag")
+            .description("Time from an order change being committed to its event being published")
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("orders.outbox.relay.batch.size")
+            .description("Events published per relay batch")
+            .register(meterRegistry);
+        this.failures = Counter.builder("orders.outbox.relay.failures")
+            .description("Relay batches that failed and were left for the next run")
+            .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.relay.interval:500ms}")
+    public void drain() {
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            int relayed;
+            try {
+                relayed = relayBatch();
+            } catch (RuntimeException e) {
+                failures.increment();
+                log.warn("Order outbox relay failed, retrying on next run", e);
+                return;
+            }
+            if (relayed < batchSize) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Publishes and deletes one batch, returning how many events it held.
+     */
+    int relayBatch() {
+        Integer relayed = transactionTemplate.execute(status -> {
+            List<OrderOutboxEvent> batch = outboxRepository.lockNextBatch(batchSize);
+            if (batch.isEmpty()) {
+                return 0;
+            }
+            try {
+                sink.publish(batch.stream().map(OrderEvent::from).toList());
+            } catch (Exception e) {
+                throw new IllegalStateException("Sink rejected " + batch.size() + " order events", e);
+            }
+            outboxRepository.deleteAllByIdInBatch(batch.stream().map(OrderOutboxEvent::getId).toList());
+
+            LocalDateTime now = LocalDateTime.now();
+            for (OrderOutboxEvent event : batch) {
+                lag.record(Duration.between(event.getCreatedAt(), now));
+            }
+            batchSizes.record(batch.size());
+            return batch.size();
+        });
+        return relayed == null ? 0 : relayed;
+    }
+}
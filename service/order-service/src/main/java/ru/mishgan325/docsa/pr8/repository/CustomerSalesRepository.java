@@ -0,0 +1,31 @@
+package ru.mishgan325.docsa.pr8.repository;
+
+import java.math.BigDecimal;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ru.mishgan325.docsa.pr8.model.CustomerSales;
+
+@Repository
+public interface CustomerSalesRepository extends JpaRepository<CustomerSales, Long> {
+
+    /**
+     * Adds a (possibly negative) delta to one customer, creating the row if needed.
+     */
+    @Modifying
+    @Query(value = """
+        insert into customer_sales (customer_id, units, revenue, order_count)
+        values (:customerId, :units, :revenue, :orderCount)
+        on conflict (customer_id) do update set
+            units = customer_sales.units + excluded.units,
+            revenue = customer_sales.revenue + excluded.revenue,
+            order_count = customer_sales.order_count + excluded.order_count
+        """, nativeQuery = true)
+    void addDelta(@Param("customerId") Long customerId,
+                  @Param("units") long units,
+                  @Param("revenue") BigDecimal revenue,
+                  @Param("orderCount") long orderCount);
+}
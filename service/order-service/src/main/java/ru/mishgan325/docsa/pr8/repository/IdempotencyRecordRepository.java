@@ -0,0 +1,80 @@
+package ru.mishgan325.docsa.pr8.repository;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.mishgan325.docsa.pr8.model.IdempotencyRecord;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, IdempotencyRecord.Key> {
+
+    /**
+     * Claims the key for a new execution: inserts an IN_PROGRESS row, or takes over an
+     * expired one. Returns 0 when a live row already exists.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+        insert into idempotency_keys (user_id, idempotency_key, request_hash, status, created_at, expires_at)
+        values (:userId, :key, :requestHash, 'IN_PROGRESS', :now, :expiresAt)
+        on conflict (user_id, idempotency_key) do update set
+            request_hash = excluded.request_hash,
+            status = excluded.status,
+            response_status = null,
+            response_content_type = null,
+            response_body = null,
+            created_at = excluded.created_at,
+            expires_at = excluded.expires_at
+        where idempotency_keys.expires_at < :now
+        """, nativeQuery = true)
+    int claim(@Param("userId") Long userId,
+              @Param("key") String key,
+              @Param("requestHash") String requestHash,
+              @Param("now") LocalDateTime now,
+              @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Transactional
+    @Modifying
+    @Query("""
+        update IdempotencyRecord r
+        set r.status = :status, r.responseStatus = :responseStatus,
+            r.responseContentType = :contentType, r.responseBody = :body, r.expiresAt = :expiresAt
+        where r.userId = :userId and r.idempotencyKey = :key
+        """)
+    int complete(@Param("userId") Long userId,
+                 @Param("key") String key,
+                 @Param("status") IdempotencyRecord.Status status,
+                 @Param("responseStatus") int responseStatus,
+                 @Param("contentType") String contentType,
+                 @Param("body") String body,
+                 @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Transactional
+    @Modifying
+    @Query("""
+        delete from IdempotencyRecord r
+        where r.userId = :userId and r.idempotencyKey = :key and r.status = :status
+        """)
+    int release(@Param("userId") Long userId,
+                @Param("key") String key,
+                @Param("status") IdempotencyRecord.Status status);
+
+    /**
+     * Deletes up to {@code batchSize} expired keys, so one purge never holds long locks.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+        delete from idempotency_keys
+        where (user_id, idempotency_key) in (
+            select user_id, idempotency_key from idempotency_keys
+            where expires_at < :now
+            limit :batchSize)
+        """, nativeQuery = true)
+    int deleteExpired(@Param("now") LocalDateTime now, @Param("batchSize") int batchSize);
+}
@@ -0,0 +1,26 @@
+package ru.mishgan325.docsa.pr8.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ru.mishgan325.docsa.pr8.model.OrderOutboxEvent;
+
+@Repository
+public interface OrderOutboxRepository extends JpaRepository<OrderOutboxEvent, Long> {
+
+    /**
+     * Locks the oldest pending events. Rows already locked by another relay are skipped,
+     * so several instances drain disjoint batches instead of queueing behind each other.
+     * Must run inside a transaction; the locks are held until it ends.
+     */
+    @Query(value = """
+        select * from order_outbox
+        order by id
+        limit :batchSize
+        for update skip locked
+        """, nativeQuery = true)
+    List<OrderOutboxEvent> lockNextBatch(@Param("batchSize") int batchSize);
+}
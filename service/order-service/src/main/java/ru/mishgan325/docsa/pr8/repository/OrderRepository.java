@@ -1,13 +1,163 @@
 package ru.mishgan325.docsa.pr8.repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.mishgan325.docsa.pr8.model.Order;
+import ru.mishgan325.docsa.pr8.web.ListVersion;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByCustomerId(Long customerId);
-}
 
+    @Query("""
+        select count(o) as rowCount, coalesce(sum(o.version), 0) as versionSum, coalesce(sum(o.id), 0) as idSum
+        from Order o
+        where o.customerId = :customerId
+        """)
+    ListVersion findListVersionByCustomerId(@Param("customerId") Long customerId);
+
+    // Keyset pages, newest first. The redundant "createdAt <= :createdAt" gives the
+    // planner an index range to seek to instead of filtering from the top.
+
+    List<Order> findAllByOrderByCreatedAtDescIdDesc(Limit limit);
+
+    @Query("""
+        select o from Order o
+        where o.createdAt <= :createdAt
+          and (o.createdAt < :createdAt or o.id < :id)
+        order by o.createdAt desc, o.id desc
+        """)
+    List<Order> findPageBefore(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Limit limit);
+
+    List<Order> findByCustomerIdOrderByCreatedAtDescIdDesc(Long customerId, Limit limit);
+
+    @Query("""
+        select o from Order o
+        where o.customerId = :customerId
+          and o.createdAt <= :createdAt
+          and (o.createdAt < :createdAt or o.id < :id)
+        order by o.createdAt desc, o.id desc
+        """)
+    List<Order> findByCustomerIdPageBefore(@Param("customerId") Long customerId,
+                                           @Param("createdAt") LocalDateTime createdAt,
+                                           @Param("id") Long id,
+                                           Limit limit);
+
+    /**
+     * Server-side cursor over matching orders in id order. Must be consumed inside a
+     * read-only transaction; every filter is optional.
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+        select o from Order o
+        where (:from is null or o.createdAt >= :from)
+          and (:to is null or o.createdAt < :to)
+          and (:status is null or o.status = :status)
+        order by o.id
+        """)
+    Stream<Order> streamForExport(@Param("from") LocalDateTime from,
+                                  @Param("to") LocalDateTime to,
+                                  @Param("status") Order.OrderStatus status);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select o from Order o where o.id = :id")
+    Optional<Order> lockById(@Param("id") Long id);
+
+    // Bulk status transitions: lock a chunk of orders that actually change, then move them
+    // with one UPDATE. The locked rows are loaded so their outbox events can be written.
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+        select o from Order o
+        where o.id in :ids and o.status <> :status
+        order by o.id
+        """)
+    List<Order> lockForStatusChange(@Param("ids") Collection<Long> ids, @Param("status") Order.OrderStatus status);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+        select o from Order o
+        where o.status <> :status
+          and (:fromStatus is null or o.status = :fromStatus)
+          and (:createdBefore is null or o.createdAt < :createdBefore)
+        order by o.id
+        """)
+    List<Order> lockMatchingForStatusChange(@Param("status") Order.OrderStatus status,
+                                            @Param("fromStatus") Order.OrderStatus fromStatus,
+                                            @Param("createdBefore") LocalDateTime createdBefore,
+                                            Limit limit);
+
+    @Modifying(clearAutomatically = true)
+    @Query("update Order o set o.status = :status, o.version = o.version + 1 where o.id in :ids")
+    int updateStatus(@Param("ids") Collection<Long> ids, @Param("status") Order.OrderStatus status);
+
+    @Query("select o.id from Order o where o.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // Sales rollup rebuild: totals over one id range, summed across ranges by the caller.
+
+    @Query("select min(o.id) as minId, max(o.id) as maxId from Order o")
+    IdRange findIdRange();
+
+    @Query("""
+        select o.productId as productId, cast(o.createdAt as LocalDate) as salesDate,
+               sum(o.quantity) as units, sum(o.totalPrice) as revenue, count(o) as orderCount
+        from Order o
+        where o.id between :fromId and :toId and o.status <> :excluded
+        group by o.productId, cast(o.createdAt as LocalDate)
+        """)
+    List<ProductDayTotal> sumByProductAndDay(@Param("fromId") Long fromId,
+                                             @Param("toId") Long toId,
+                                             @Param("excluded") Order.OrderStatus excluded);
+
+    @Query("""
+        select o.customerId as customerId,
+               sum(o.quantity) as units, sum(o.totalPrice) as revenue, count(o) as orderCount
+        from Order o
+        where o.id between :fromId and :toId and o.status <> :excluded
+        group by o.customerId
+        """)
+    List<CustomerTotal> sumByCustomer(@Param("fromId") Long fromId,
+                                      @Param("toId") Long toId,
+                                      @Param("excluded") Order.OrderStatus excluded);
+
+    interface IdRange {
+        Long getMinId();
+        Long getMaxId();
+    }
+
+    interface ProductDayTotal {
+        Long getProductId();
+        LocalDate getSalesDate();
+        Long getUnits();
+        BigDecimal getRevenue();
+        Long getOrderCount();
+    }
+
+    interface CustomerTotal {
+        Long getCustomerId();
+        Long getUnits();
+        BigDecimal getRevenue();
+        Long getOrderCount();
+    }
+}
@@ -0,0 +1,36 @@
+package ru.mishgan325.docsa.pr8.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ru.mishgan325.docsa.pr8.model.ProductDailySales;
+
+@Repository
+public interface ProductDailySalesRepository extends JpaRepository<ProductDailySales, ProductDailySales.Key> {
+
+    List<ProductDailySales> findByProductIdAndSalesDateBetweenOrderBySalesDate(Long productId, LocalDate from, LocalDate to);
+
+    /**
+     * Adds a (possibly negative) delta to one product-day, creating the row if needed.
+     */
+    @Modifying
+    @Query(value = """
+        insert into product_daily_sales (product_id, sales_date, units, revenue, order_count)
+        values (:productId, :salesDate, :units, :revenue, :orderCount)
+        on conflict (product_id, sales_date) do update set
+            units = product_daily_sales.units + excluded.units,
+            revenue = product_daily_sales.revenue + excluded.revenue,
+            order_count = product_daily_sales.order_count + excluded.order_count
+        """, nativeQuery = true)
+    void addDelta(@Param("productId") Long productId,
+                  @Param("salesDate") LocalDate salesDate,
+                  @Param("units") long units,
+                  @Param("revenue") BigDecimal revenue,
+                  @Param("orderCount") long orderCount);
+}
@@ -0,0 +1,79 @@
+package ru.mishgan325.docsa.pr8.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import ru.mishgan325.docsa.pr8.client.CustomerCache;
+import ru.mishgan325.docsa.pr8.client.ProductLookupBatcher;
+import ru.mishgan325.docsa.pr8.dto.CustomerDto;
+import ru.mishgan325.docsa.pr8.dto.ProductDto;
+
+/**
+ * Fetches the customer and the product for a checkout concurrently. The product goes
+ * through {@link ProductLookupBatcher}, so concurrent checkouts share multi-id calls.
+ * Per-phase timers ({@code orders.create.lookup{phase=customer|product|total}}) show
+ * how much the overlap saves: {@code customer + product - total}.
+ */
+@Service
+public class CheckoutLookupService {
+
+    private final CustomerCache customerCache;
+    private final ProductLookupBatcher productLookupBatcher;
+    private final Executor downstreamExecutor;
+    private final Timer customerTimer;
+    private final Timer productTimer;
+    private final Timer totalTimer;
+
+    public CheckoutLookupService(CustomerCache customerCache,
+                                 ProductLookupBatcher productLookupBatcher,
+                                 @Qualifier("downstreamExecutor") Executor downstreamExecutor,
+                                 MeterRegistry meterRegistry) {
+        this.customerCache = customerCache;
+        this.productLookupBatcher = productLookupBatcher;
+        this.downstreamExecutor = downstreamExecutor;
+        this.customerTimer = phaseTimer(meterRegistry, "customer");
+        this.productTimer = phaseTimer(meterRegistry, "product");
+        this.totalTimer = phaseTimer(meterRegistry, "total");
+    }
+
+    public CheckoutLookup lookup(Long userId, Long productId) {
+        return totalTimer.record(() -> {
+            CompletableFuture<CustomerDto> customer = async(customerTimer,
+                () -> customerCache.getCustomerByUserId(userId));
+            Timer.Sample productSample = Timer.start();
+            CompletableFuture<ProductDto> product = productLookupBatcher.lookup(productId)
+                .whenComplete((result, error) -> productSample.stop(productTimer));
+            return new CheckoutLookup(join(customer), join(product));
+        });
+    }
+
+    private <T> CompletableFuture<T> async(Timer timer, Supplier<T> call) {
+        return CompletableFuture.supplyAsync(() -> timer.record(call), downstreamExecutor);
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static Timer phaseTimer(MeterRegistry meterRegistry, String phase) {
+        return Timer.builder("orders.create.lookup")
+            .description("Downstream lookups performed while creating an order")
+            .tag("phase", phase)
+            .register(meterRegistry);
+    }
+
+    public record CheckoutLookup(CustomerDto customer, ProductDto product) {}
+}
@@ -0,0 +1,283 @@
+package ru.mishgan325.docsa.pr8.service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ru.mishgan325.docsa.pr8.model.IdempotencyRecord;
+import ru.mishgan325.docsa.pr8.repository.IdempotencyRecordRepository;
+
+/**
+ * Runs a request at most once per {@code Idempotency-Key} and user, replaying the stored
+ * response to retries.
+ * <p>
+ * Concurrent duplicates on this instance wait on the first execution's future; duplicates
+ * racing on another instance see the IN_PROGRESS row and poll until it completes. Completed
+ * responses are kept in a small front cache so hot retries skip the database. 5xx
+ * responses are not stored: the key is released and a retry runs the request again.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    public static final int MAX_KEY_LENGTH = 128;
+
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(50);
+
+    private final IdempotencyRecordRepository repository;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Duration inProgressTtl;
+    private final Duration waitTimeout;
+    private final int cleanupBatchSize;
+
+    private final Cache<IdempotencyRecord.Key, StoredResponse> frontCache;
+    private final ConcurrentMap<IdempotencyRecord.Key, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(IdempotencyRecordRepository repository,
+                              ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.idempotency.ttl:24h}") Duration ttl,
+                              @Value("${app.idempotency.in-progress-ttl:60s}") Duration inProgressTtl,
+                              @Value("${app.idempotency.wait-timeout:10s}") Duration waitTimeout,
+                              @Value("${app.idempotency.front-cache.maximum-size:10000}") long frontCacheSize,
+                              @Value("${app.idempotency.front-cache.ttl:5m}") Duration frontCacheTtl,
+                              @Value("${app.idempotency.cleanup.batch-size:1000}") int cleanupBatchSize) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.inProgressTtl = inProgressTtl;
+        this.waitTimeout = waitTimeout;
+        this.cleanupBatchSize = cleanupBatchSize;
+        this.frontCache = Caffeine.newBuilder()
+            .maximumSize(frontCacheSize)
+            .expireAfterWrite(frontCacheTtl.compareTo(ttl) < 0 ? frontCacheTtl : ttl)
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, frontCache, "idempotency-responses");
+    }
+
+    public ResponseEntity<?> execute(Long userId, String key, Object request, Supplier<ResponseEntity<?>> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            return ResponseEntity.badRequest().body("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        IdempotencyRecord.Key id = new IdempotencyRecord.Key(userId, key);
+        String requestHash = hash(request);
+
+        StoredResponse cached = frontCache.getIfPresent(id);
+        if (cached != null) {
+            return replay(cached, requestHash);
+        }
+
+        InFlight mine = new InFlight(requestHash, new CompletableFuture<>());
+        InFlight leader = inFlight.putIfAbsent(id, mine);
+        if (leader != null) {
+            return awaitLeader(leader, requestHash);
+        }
+        try {
+            ResponseEntity<?> response = executeOnce(id, requestHash, action);
+            mine.response().complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            mine.response().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(id, mine);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.cleanup.interval:10m}")
+    public void purgeExpired() {
+        int purged = 0;
+        int deleted;
+        do {
+            deleted = repository.deleteExpired(LocalDateTime.now(), cleanupBatchSize);
+            purged += deleted;
+        } while (deleted == cleanupBatchSize);
+        if (purged > 0) {
+            log.info("Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    /**
+     * Claims the key and runs the action. While another execution owns the key, waits for
+     * its stored response; if that execution releases the key, claims it again. The whole
+     * wait, across takeovers, is bounded by {@code wait-timeout}.
+     */
+    private ResponseEntity<?> executeOnce(IdempotencyRecord.Key id, String requestHash, Supplier<ResponseEntity<?>> action) {
+        long deadline = System.nanoTime() + waitTimeout.toNanos();
+        while (true) {
+            LocalDateTime now = LocalDateTime.now();
+            if (repository.claim(id.getUserId(), id.getIdempotencyKey(), requestHash, now, now.plus(inProgressTtl)) == 1) {
+                return run(id, requestHash, action);
+            }
+            Optional<ResponseEntity<?>> stored = awaitStored(id, requestHash, deadline);
+            if (stored.isPresent()) {
+                return stored.get();
+            }
+            if (System.nanoTime() > deadline) {
+                return stillInProgress();
+            }
+        }
+    }
+
+    private ResponseEntity<?> run(IdempotencyRecord.Key id, String requestHash, Supplier<ResponseEntity<?>> action) {
+        ResponseEntity<?> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            release(id);
+            throw e;
+        }
+        if (response.getStatusCode().is5xxServerError()) {
+            release(id);
+            return response;
+        }
+
+        StoredResponse stored = StoredResponse.of(response, requestHash, objectMapper);
+        repository.complete(id.getUserId(), id.getIdempotencyKey(), IdempotencyRecord.Status.COMPLETED,
+            stored.status(), stored.contentType(), stored.body(), LocalDateTime.now().plus(ttl));
+        frontCache.put(id, stored);
+        return response;
+    }
+
+    /**
+     * Another execution owns the key: polls until its response is stored or {@code deadline}
+     * passes. Empty when the key was released, so the caller can claim it.
+     */
+    private Optional<ResponseEntity<?>> awaitStored(IdempotencyRecord.Key id, String requestHash, long deadline) {
+        while (true) {
+            Optional<IdempotencyRecord> record = repository.findById(id);
+            if (record.isEmpty()) {
+                return Optional.empty();
+            }
+            IdempotencyRecord existing = record.get();
+            if (!existing.getRequestHash().equals(requestHash)) {
+                return Optional.of(keyReused());
+            }
+            if (existing.getStatus() == IdempotencyRecord.Status.COMPLETED) {
+                StoredResponse stored = StoredResponse.of(existing);
+                frontCache.put(id, stored);
+                return Optional.of(stored.toResponse());
+            }
+            if (System.nanoTime() > deadline) {
+                return Optional.of(stillInProgress());
+            }
+            try {
+                Thread.sleep(POLL_INTERVAL.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return Optional.of(stillInProgress());
+            }
+        }
+    }
+
+    private ResponseEntity<?> awaitLeader(InFlight leader, String requestHash) {
+        if (!leader.requestHash().equals(requestHash)) {
+            return keyReused();
+        }
+        try {
+            return leader.response().get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return stillInProgress();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return stillInProgress();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Original request with this Idempotency-Key failed", e.getCause());
+        }
+    }
+
+    private void release(IdempotencyRecord.Key id) {
+        try {
+            repository.release(id.getUserId(), id.getIdempotencyKey(), IdempotencyRecord.Status.IN_PROGRESS);
+        } catch (RuntimeException e) {
+            // The claim expires after in-progress-ttl anyway.
+            log.warn("Failed to release idempotency key {}", id, e);
+        }
+    }
+
+    private static ResponseEntity<?> replay(StoredResponse stored, String requestHash) {
+        return stored.requestHash().equals(requestHash) ? stored.toResponse() : keyReused();
+    }
+
+    private static ResponseEntity<?> keyReused() {
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+            .body("Idempotency-Key was already used for a different request");
+    }
+
+    private static ResponseEntity<?> stillInProgress() {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+            .body("A request with this Idempotency-Key is still in progress");
+    }
+
+    private String hash(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot fingerprint request", e);
+        }
+    }
+
+    private record InFlight(String requestHash, CompletableFuture<ResponseEntity<?>> response) {}
+
+    /**
+     * A response as stored: String bodies verbatim as text, anything else as JSON.
+     */
+    record StoredResponse(String requestHash, int status, String contentType, String body) {
+
+        static StoredResponse of(ResponseEntity<?> response, String requestHash, ObjectMapper objectMapper) {
+            Object body = response.getBody();
+            int status = response.getStatusCode().value();
+            if (body == null) {
+                return new StoredResponse(requestHash, status, null, null);
+            }
+            if (body instanceof String text) {
+                return new StoredResponse(requestHash, status, MediaType.TEXT_PLAIN_VALUE, text);
+            }
+            try {
+                return new StoredResponse(requestHash, status, MediaType.APPLICATION_JSON_VALUE,
+                    objectMapper.writeValueAsString(body));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Cannot store response body", e);
+            }
+        }
+
+        static StoredResponse of(IdempotencyRecord record) {
+            return new StoredResponse(record.getRequestHash(), record.getResponseStatus(),
+                record.getResponseContentType(), record.getResponseBody());
+        }
+
+        ResponseEntity<?> toResponse() {
+            ResponseEntity.BodyBuilder builder = ResponseEntity.status(status);
+            if (body == null) {
+                return builder.build();
+            }
+            return builder.contentType(MediaType.parseMediaType(contentType)).body(body);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package ru.mishgan325.docsa.pr8.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.mishgan325.docsa.pr8.dto.BulkStatusUpdateResponse;
+import ru.mishgan325.docsa.pr8.model.Order;
+import ru.mishgan325.docsa.pr8.model.OrderOutboxEvent;
+import ru.mishgan325.docsa.pr8.outbox.OrderOutbox;
+import ru.mishgan325.docsa.pr8.repository.OrderRepository;
+
+/**
+ * Bulk status transitions. Work is split into chunks, each its own transaction: lock the
+ * orders that actually change, move them with one UPDATE, and write their outbox events
+ * and sales rollup deltas. A failure part-way leaves earlier chunks committed.
+ */
+@Slf4j
+@Service
+public class OrderStatusService {
+
+    private final OrderRepository orderRepository;
+    private final OrderOutbox orderOutbox;
+    private final SalesRollupService salesRollupService;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public OrderStatusService(OrderRepository orderRepository,
+                              OrderOutbox orderOutbox,
+                              SalesRollupService salesRollupService,
+                              TransactionTemplate transactionTemplate,
+                              @Value("${app.orders.bulk-status.chunk-size:500}") int chunkSize) {
+        this.orderRepository = orderRepository;
+        this.orderOutbox = orderOutbox;
+        this.salesRollupService = salesRollupService;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+    }
+
+    public BulkStatusUpdateResponse updateByIds(List<Long> ids, Order.OrderStatus status) {
+        List<Long> distinct = List.copyOf(new LinkedHashSet<>(ids));
+        Set<Long> updated = new HashSet<>();
+        List<Long> leftover = new ArrayList<>();
+        int unchanged = 0;
+
+        for (int from = 0; from < distinct.size(); from += chunkSize) {
+            List<Long> chunk = distinct.subList(from, Math.min(from + chunkSize, distinct.size()));
+            List<Long> changed = transactionTemplate.execute(tx ->
+                apply(orderRepository.lockForStatusChange(chunk, status), status));
+            updated.addAll(changed);
+            List<Long> rest = chunk.stream().filter(id -> !updated.contains(id)).toList();
+            if (!rest.isEmpty()) {
+                // Either already in the target status or missing; one query tells them apart.
+                Set<Long> existing = new HashSet<>(orderRepository.findExistingIds(rest));
+                unchanged += existing.size();
+                rest.stream().filter(id -> !existing.contains(id)).forEach(leftover::add);
+            }
+        }
+        log.info("Bulk status {} by ids: {} updated, {} unchanged, {} not found",
+            status, updated.size(), unchanged, leftover.size());
+        return new BulkStatusUpdateResponse(updated.size(), unchanged, leftover.size(), leftover);
+    }
+
+    /**
+     * Updates every order matching the filter. Each chunk moves its rows out of the filter
+     * (their status becomes {@code status}), so the loop ends once a chunk comes back short.
+     */
+    public BulkStatusUpdateResponse updateMatching(Order.OrderStatus fromStatus,
+                                                   LocalDateTime createdBefore,
+                                                   Order.OrderStatus status) {
+        int updated = 0;
+        int changed;
+        do {
+            changed = transactionTemplate.execute(tx -> apply(
+                orderRepository.lockMatchingForStatusChange(status, fromStatus, createdBefore, Limit.of(chunkSize)),
+                status)).size();
+            updated += changed;
+        } while (changed == chunkSize);
+        log.info("Bulk status {} for fromStatus={} createdBefore={}: {} updated",
+            status, fromStatus, createdBefore, updated);
+        return new BulkStatusUpdateResponse(updated, 0, 0, List.of());
+    }
+
+    private List<Long> apply(List<Order> locked, Order.OrderStatus status) {
+        if (locked.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = locked.stream().map(Order::getId).toList();
+        salesRollupService.statusChanging(locked, status);
+        orderRepository.updateStatus(ids, status);
+        // The UPDATE cleared the persistence context, so these are detached snapshots now.
+        locked.forEach(order -> order.setStatus(status));
+        orderOutbox.record(locked, OrderOutboxEvent.EventType.STATUS_CHANGED);
+        return ids;
+    }
+}
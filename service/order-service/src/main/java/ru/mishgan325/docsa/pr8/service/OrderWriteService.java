@@ -0,0 +1,71 @@
+package ru.mishgan325.docsa.pr8.service;
+
+import java.util.List;
+import java.util.Optional;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.mishgan325.docsa.pr8.model.Order;
+import ru.mishgan325.docsa.pr8.model.OrderOutboxEvent;
+import ru.mishgan325.docsa.pr8.outbox.OrderOutbox;
+import ru.mishgan325.docsa.pr8.repository.OrderRepository;
+
+/**
+ * Single-order writes. Each one saves the order, its outbox event and the sales rollup
+ * deltas in one transaction.
+ */
+@Service
+@RequiredArgsConstructor
+public class OrderWriteService {
+
+    private final OrderRepository orderRepository;
+    private final OrderOutbox orderOutbox;
+    private final SalesRollupService salesRollupService;
+
+    @Transactional
+    public Order create(Order order) {
+        Order saved = orderRepository.save(order);
+        recordCreated(List.of(saved));
+        return saved;
+    }
+
+    @Transactional
+    public List<Order> createAll(List<Order> orders) {
+        List<Order> saved = orderRepository.saveAll(orders);
+        recordCreated(saved);
+        return saved;
+    }
+
+    /**
+     * Locks the order while changing it, so two concurrent cancellations can't both
+     * reverse its sales. An unchanged status writes nothing.
+     */
+    @Transactional
+    public Optional<Order> changeStatus(Long id, Order.OrderStatus status) {
+        return orderRepository.lockById(id).map(order -> {
+            if (order.getStatus() == status) {
+                return order;
+            }
+            salesRollupService.statusChanging(List.of(order), status);
+            order.setStatus(status);
+            Order saved = orderRepository.save(order);
+            orderOutbox.record(List.of(saved), OrderOutboxEvent.EventType.STATUS_CHANGED);
+            return saved;
+        });
+    }
+
+    @Transactional
+    public boolean delete(Long id) {
+        return orderRepository.lockById(id).map(order -> {
+            orderRepository.deleteById(id);
+            salesRollupService.deleted(List.of(order));
+            return true;
+        }).orElse(false);
+    }
+
+    private void recordCreated(List<Order> saved) {
+        orderOutbox.record(saved, OrderOutboxEvent.EventType.CREATED);
+        salesRollupService.created(saved);
+    }
+}
@@ -0,0 +1,183 @@
+package ru.mishgan325.docsa.pr8.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.mishgan325.docsa.pr8.dto.RollupRebuildResult;
+import ru.mishgan325.docsa.pr8.model.CustomerSales;
+import ru.mishgan325.docsa.pr8.model.Order;
+import ru.mishgan325.docsa.pr8.model.ProductDailySales;
+import ru.mishgan325.docsa.pr8.repository.CustomerSalesRepository;
+import ru.mishgan325.docsa.pr8.repository.OrderRepository;
+import ru.mishgan325.docsa.pr8.repository.ProductDailySalesRepository;
+
+/**
+ * Recomputes the sales rollups from {@code orders}. The id space is cut into chunks that
+ * are aggregated in parallel, the partial totals are merged in memory, and both rollup
+ * tables are replaced in one transaction.
+ * <p>
+ * Orders written while the chunks are being scanned may be missed or counted twice until
+ * the next rebuild, so run it when order traffic is low.
+ */
+@Slf4j
+@Service
+public class SalesRollupRebuildService {
+
+    private static final int FLUSH_EVERY = 500;
+
+    private final OrderRepository orderRepository;
+    private final ProductDailySalesRepository productDailySalesRepository;
+    private final CustomerSalesRepository customerSalesRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int parallelism;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public SalesRollupRebuildService(OrderRepository orderRepository,
+                                     ProductDailySalesRepository productDailySalesRepository,
+                                     CustomerSalesRepository customerSalesRepository,
+                                     EntityManager entityManager,
+                                     TransactionTemplate transactionTemplate,
+                                     @Value("${app.sales-rollups.rebuild.chunk-size:50000}") int chunkSize,
+                                     @Value("${app.sales-rollups.rebuild.parallelism:4}") int parallelism) {
+        this.orderRepository = orderRepository;
+        this.productDailySalesRepository = productDailySalesRepository;
+        this.customerSalesRepository = customerSalesRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+    }
+
+    @Scheduled(cron = "${app.sales-rollups.rebuild.cron:-}")
+    public void scheduledRebuild() {
+        rebuild().ifPresentOrElse(
+            result -> log.info("Scheduled sales rollup rebuild finished: {}", result),
+            () -> log.warn("Skipping scheduled sales rollup rebuild, one is already running"));
+    }
+
+    /**
+     * Returns empty when another rebuild is already in progress.
+     */
+    public Optional<RollupRebuildResult> rebuild() {
+        if (!running.compareAndSet(false, true)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(doRebuild());
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private RollupRebuildResult doRebuild() {
+        long start = System.nanoTime();
+        Map<ProductDailySales.Key, ProductDailySales> productDays = new ConcurrentHashMap<>();
+        Map<Long, CustomerSales> customers = new ConcurrentHashMap<>();
+
+        OrderRepository.IdRange range = orderRepository.findIdRange();
+        int chunks = 0;
+        if (range != null && range.getMinId() != null) {
+            List<long[]> bounds = new ArrayList<>();
+            for (long from = range.getMinId(); from <= range.getMaxId(); from += chunkSize) {
+                bounds.add(new long[] {from, Math.min(from + chunkSize - 1, range.getMaxId())});
+            }
+            chunks = bounds.size();
+            scanInParallel(bounds, productDays, customers);
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            productDailySalesRepository.deleteAllInBatch();
+            customerSalesRepository.deleteAllInBatch();
+            persistInBatches(productDays.values());
+            persistInBatches(customers.values());
+        });
+
+        RollupRebuildResult result = new RollupRebuildResult(chunks, productDays.size(), customers.size(),
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        log.info("Rebuilt sales rollups: {}", result);
+        return result;
+    }
+
+    private void scanInParallel(List<long[]> bounds,
+                                Map<ProductDailySales.Key, ProductDailySales> productDays,
+                                Map<Long, CustomerSales> customers) {
+        AtomicInteger threadIndex = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(parallelism, bounds.size()), runnable -> {
+            Thread thread = new Thread(runnable, "rollup-rebuild-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> scans = new ArrayList<>();
+            for (long[] chunk : bounds) {
+                scans.add(pool.submit(() -> scanChunk(chunk[0], chunk[1], productDays, customers)));
+            }
+            for (Future<?> scan : scans) {
+                scan.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Sales rollup rebuild interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Sales rollup rebuild failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void scanChunk(long fromId, long toId,
+                           Map<ProductDailySales.Key, ProductDailySales> productDays,
+                           Map<Long, CustomerSales> customers) {
+        for (OrderRepository.ProductDayTotal total
+                : orderRepository.sumByProductAndDay(fromId, toId, Order.OrderStatus.CANCELLED)) {
+            productDays.merge(
+                new ProductDailySales.Key(total.getProductId(), total.getSalesDate()),
+                new ProductDailySales(total.getProductId(), total.getSalesDate(),
+                    total.getUnits(), total.getRevenue(), total.getOrderCount()),
+                (a, b) -> new ProductDailySales(a.getProductId(), a.getSalesDate(),
+                    a.getUnits() + b.getUnits(), a.getRevenue().add(b.getRevenue()),
+                    a.getOrderCount() + b.getOrderCount()));
+        }
+        for (OrderRepository.CustomerTotal total
+                : orderRepository.sumByCustomer(fromId, toId, Order.OrderStatus.CANCELLED)) {
+            customers.merge(
+                total.getCustomerId(),
+                new CustomerSales(total.getCustomerId(), total.getUnits(), total.getRevenue(), total.getOrderCount()),
+                (a, b) -> new CustomerSales(a.getCustomerId(),
+                    a.getUnits() + b.getUnits(), a.getRevenue().add(b.getRevenue()),
+                    a.getOrderCount() + b.getOrderCount()));
+        }
+    }
+
+    private void persistInBatches(Iterable<?> rows) {
+        int written = 0;
+        for (Object row : rows) {
+            entityManager.persist(row);
+            if (++written % FLUSH_EVERY == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
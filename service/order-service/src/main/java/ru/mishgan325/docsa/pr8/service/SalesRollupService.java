@@ -0,0 +1,105 @@
+package ru.mishgan325.docsa.pr8.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.mishgan325.docsa.pr8.dto.CustomerSalesResponse;
+import ru.mishgan325.docsa.pr8.dto.ProductDailySalesResponse;
+import ru.mishgan325.docsa.pr8.model.Order;
+import ru.mishgan325.docsa.pr8.model.ProductDailySales;
+import ru.mishgan325.docsa.pr8.repository.CustomerSalesRepository;
+import ru.mishgan325.docsa.pr8.repository.ProductDailySalesRepository;
+
+/**
+ * Keeps the per-product-day and per-customer sales rollups in step with order writes.
+ * Every order that is not CANCELLED counts; the write methods must join the transaction
+ * that changes the orders.
+ */
+@Service
+@RequiredArgsConstructor
+public class SalesRollupService {
+
+    private static final Predicate<Order> COUNTED = order -> order.getStatus() != Order.OrderStatus.CANCELLED;
+
+    private static final Comparator<ProductDailySales.Key> PRODUCT_DAY_ORDER =
+        Comparator.comparing(ProductDailySales.Key::getProductId).thenComparing(ProductDailySales.Key::getSalesDate);
+
+    private final ProductDailySalesRepository productDailySalesRepository;
+    private final CustomerSalesRepository customerSalesRepository;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void created(List<Order> orders) {
+        apply(orders.stream().filter(COUNTED).toList(), 1);
+    }
+
+    /**
+     * Call before the new status is set: the orders still carry their previous status.
+     * Cancelling reverses an order's sales, un-cancelling restores them.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void statusChanging(List<Order> orders, Order.OrderStatus status) {
+        if (status == Order.OrderStatus.CANCELLED) {
+            apply(orders.stream().filter(COUNTED).toList(), -1);
+        } else {
+            apply(orders.stream().filter(COUNTED.negate()).toList(), 1);
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void deleted(List<Order> orders) {
+        apply(orders.stream().filter(COUNTED).toList(), -1);
+    }
+
+    public List<ProductDailySalesResponse> getProductDailySales(Long productId, LocalDate from, LocalDate to) {
+        return productDailySalesRepository.findByProductIdAndSalesDateBetweenOrderBySalesDate(productId, from, to)
+            .stream()
+            .map(ProductDailySalesResponse::from)
+            .toList();
+    }
+
+    public CustomerSalesResponse getCustomerSales(Long customerId) {
+        return customerSalesRepository.findById(customerId)
+            .map(CustomerSalesResponse::from)
+            .orElse(CustomerSalesResponse.empty(customerId));
+    }
+
+    private void apply(List<Order> orders, int sign) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        // Sorted maps: concurrent writers then lock rollup rows in one global order and
+        // cannot deadlock on each other.
+        Map<ProductDailySales.Key, Delta> byProductDay = new TreeMap<>(PRODUCT_DAY_ORDER);
+        Map<Long, Delta> byCustomer = new TreeMap<>();
+        for (Order order : orders) {
+            ProductDailySales.Key key = new ProductDailySales.Key(order.getProductId(), order.getCreatedAt().toLocalDate());
+            byProductDay.computeIfAbsent(key, k -> new Delta()).add(order, sign);
+            byCustomer.computeIfAbsent(order.getCustomerId(), k -> new Delta()).add(order, sign);
+        }
+        byProductDay.forEach((key, delta) -> productDailySalesRepository.addDelta(
+            key.getProductId(), key.getSalesDate(), delta.units, delta.revenue, delta.orderCount));
+        byCustomer.forEach((customerId, delta) -> customerSalesRepository.addDelta(
+            customerId, delta.units, delta.revenue, delta.orderCount));
+    }
+
+    private static final class Delta {
+        private long units;
+        private BigDecimal revenue = BigDecimal.ZERO;
+        private long orderCount;
+
+        private void add(Order order, int sign) {
+            units += (long) sign * order.getQuantity();
+            revenue = revenue.add(order.getTotalPrice().multiply(BigDecimal.valueOf(sign)));
+            orderCount += sign;
+        }
+    }
+}
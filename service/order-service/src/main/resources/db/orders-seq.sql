@@ -0,0 +1,4 @@
+-- orders.id used to come from an identity column; ddl-auto then created orders_seq at 1.
+-- Move the sequence past the existing ids once, so pooled blocks (allocationSize 50) start above them.
+SELECT setval('orders_seq', (SELECT max(id) FROM orders) + 50)
+WHERE (SELECT max(id) FROM orders) > (SELECT last_value FROM orders_seq);
@@ -0,0 +1,83 @@
+package ru.mishgan325.docsa.pr8.benchmark;
+
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.GenericHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import ru.mishgan325.docsa.pr8.client.protobuf.ProtobufLookupConverter;
+import ru.mishgan325.docsa.pr8.dto.CustomerDto;
+import ru.mishgan325.docsa.pr8.dto.ProductDto;
+import ru.mishgan325.docsa.pr8.web.protobuf.LookupSchema;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the JSON and protobuf codecs order-service can use for product and customer
+ * lookups: encode plus decode time per lookup, and bytes on the wire. Bodies go through the
+ * same {@code HttpMessageConverter}s Feign and the downstream controllers use, so the
+ * numbers are the per-call codec cost the {@code app.downstream.codec} switch trades.
+ * Run with {@code gradle :service:order-service:benchmark}.
+ */
+@Tag("benchmark")
+class LookupCodecBenchmark {
+
+    private static final Type PRODUCT_LIST = new ParameterizedTypeReference<List<ProductDto>>() {}.getType();
+    private static final int BATCH = 100;
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 50_000;
+
+    private final MappingJackson2HttpMessageConverter json = new MappingJackson2HttpMessageConverter(new ObjectMapper());
+    private final ProtobufLookupConverter protobuf = new ProtobufLookupConverter();
+
+    @Test
+    void jsonVersusProtobuf() throws Exception {
+        List<ProductDto> products = new ArrayList<>();
+        for (long i = 1; i <= BATCH; i++) {
+            products.add(new ProductDto(i, "Product " + i, BigDecimal.valueOf(i * 1999, 2), (int) (i * 7)));
+        }
+        CustomerDto customer = new CustomerDto(42L, 1042L, "Ivan Petrov", "+7-999-123-45-67", "Moscow, Tverskaya 1");
+
+        run("product", json, ProductDto.class, products.get(0), MediaType.APPLICATION_JSON);
+        run("product", protobuf, ProductDto.class, products.get(0), LookupSchema.PROTOBUF);
+        run("products[" + BATCH + "]", json, PRODUCT_LIST, products, MediaType.APPLICATION_JSON);
+        run("products[" + BATCH + "]", protobuf, PRODUCT_LIST, products, LookupSchema.PROTOBUF);
+        run("customer", json, CustomerDto.class, customer, MediaType.APPLICATION_JSON);
+        run("customer", protobuf, CustomerDto.class, customer, LookupSchema.PROTOBUF);
+    }
+
+    private void run(String payload, GenericHttpMessageConverter<Object> converter, Type type, Object value,
+                     MediaType mediaType) throws Exception {
+        int size = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            size = roundTrip(converter, type, value, mediaType);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            roundTrip(converter, type, value, mediaType);
+        }
+        long nanos = System.nanoTime() - start;
+        System.out.printf("%-14s %-10s bytes=%6d encode+decode=%8dns/op%n",
+            payload, mediaType.getSubtype(), size, nanos / ITERATIONS);
+    }
+
+    private static int roundTrip(GenericHttpMessageConverter<Object> converter, Type type, Object value,
+                                 MediaType mediaType) throws Exception {
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(value, type, mediaType, output);
+        byte[] body = output.getBodyAsBytes();
+        MockHttpInputMessage input = new MockHttpInputMessage(body);
+        input.getHeaders().setContentType(mediaType);
+        assertEquals(value, converter.read(type, null, input));
+        return body.length;
+    }
+}
@@ -0,0 +1,149 @@
+package ru.mishgan325.docsa.pr8.benchmark;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import ru.mishgan325.docsa.pr8.client.CustomerCache;
+import ru.mishgan325.docsa.pr8.client.CustomerClient;
+import ru.mishgan325.docsa.pr8.client.ProductClient;
+import ru.mishgan325.docsa.pr8.client.ProductLookupBatcher;
+import ru.mishgan325.docsa.pr8.controller.OrderController;
+import ru.mishgan325.docsa.pr8.dto.BatchCreateOrderRequest;
+import ru.mishgan325.docsa.pr8.dto.CreateOrderRequest;
+import ru.mishgan325.docsa.pr8.dto.CustomerDto;
+import ru.mishgan325.docsa.pr8.dto.ProductDto;
+import ru.mishgan325.docsa.pr8.dto.StockReservationRequest;
+import ru.mishgan325.docsa.pr8.dto.StockReservationResult;
+import ru.mishgan325.docsa.pr8.model.Order;
+import ru.mishgan325.docsa.pr8.outbox.OrderOutbox;
+import ru.mishgan325.docsa.pr8.repository.OrderOutboxRepository;
+import ru.mishgan325.docsa.pr8.repository.OrderRepository;
+import ru.mishgan325.docsa.pr8.security.ShopPrincipal;
+import ru.mishgan325.docsa.pr8.service.CheckoutLookupService;
+import ru.mishgan325.docsa.pr8.service.IdempotencyService;
+import ru.mishgan325.docsa.pr8.service.OrderExportService;
+import ru.mishgan325.docsa.pr8.service.OrderStatusService;
+import ru.mishgan325.docsa.pr8.service.OrderWriteService;
+import ru.mishgan325.docsa.pr8.service.SalesRollupService;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Compares N calls to {@code POST /orders} with one {@code POST /orders/batch} of N lines.
+ * Every remote interaction (Feign call or JDBC statement round trip) is charged a fixed
+ * simulated RTT; {@code saveAll} is charged one round trip per {@code hibernate.jdbc.batch_size}
+ * rows, which is what the sequence-based ids make possible.
+ * Run with {@code gradle :service:order-service:benchmark}.
+ */
+@Tag("benchmark")
+class OrderBatchBenchmark {
+
+    private static final int LINES = 200;
+    private static final int JDBC_BATCH_SIZE = 50;
+    private static final long RTT_MICROS = 2_000;
+
+    private final AtomicLong roundTrips = new AtomicLong();
+
+    @Test
+    void batchVersusSingleCalls() {
+        OrderController controller = controller();
+        ShopPrincipal principal = new ShopPrincipal(100L, "benchmark");
+        List<CreateOrderRequest> lines = new ArrayList<>();
+        for (int i = 0; i < LINES; i++) {
+            lines.add(new CreateOrderRequest((long) (i % 20) + 1, 1));
+        }
+
+        // warm-up
+        controller.createOrders(new BatchCreateOrderRequest(lines.subList(0, 10)), principal);
+        lines.subList(0, 10).forEach(line -> controller.createOrder(line, null, principal));
+
+        roundTrips.set(0);
+        long start = System.nanoTime();
+        for (CreateOrderRequest line : lines) {
+            controller.createOrder(line, null, principal);
+        }
+        report("single", System.nanoTime() - start);
+
+        roundTrips.set(0);
+        start = System.nanoTime();
+        controller.createOrders(new BatchCreateOrderRequest(lines), principal);
+        report("batch", System.nanoTime() - start);
+    }
+
+    private void report(String mode, long nanos) {
+        System.out.printf("%-6s lines=%d roundTrips=%d wall=%dms%n",
+            mode, LINES, roundTrips.get(), TimeUnit.NANOSECONDS.toMillis(nanos));
+    }
+
+    private OrderController controller() {
+        CustomerClient customerClient = mock(CustomerClient.class);
+        ProductClient productClient = mock(ProductClient.class);
+        OrderRepository orderRepository = mock(OrderRepository.class);
+
+        CustomerDto customer = new CustomerDto(1L, 100L, "Ivan", "+7-999-123", "Moscow");
+        when(customerClient.getCustomerByUserId(anyLong())).thenAnswer(invocation -> remote(1, customer));
+        when(productClient.getProductById(anyLong())).thenAnswer(invocation ->
+            remote(1, product(invocation.getArgument(0))));
+        when(productClient.getProductsByIds(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return remote(1, ids.stream().map(OrderBatchBenchmark::product).toList());
+        });
+        doAnswer(invocation -> remote(1, null)).when(productClient).reserveStock(anyLong(), any());
+        when(productClient.reserveStockBatch(any())).thenAnswer(invocation -> {
+            StockReservationRequest request = invocation.getArgument(0);
+            return remote(1, request.items().stream()
+                .map(item -> new StockReservationResult(item.productId(), item.quantity(), true))
+                .toList());
+        });
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> remote(1, invocation.getArgument(0)));
+        when(orderRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Order> orders = invocation.getArgument(0);
+            return remote((orders.size() + JDBC_BATCH_SIZE - 1) / JDBC_BATCH_SIZE, orders);
+        });
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ProductLookupBatcher productLookupBatcher = new ProductLookupBatcher(
+            productClient, Runnable::run, meterRegistry, Duration.ZERO, 100);
+        // A zero-size cache keeps every customer lookup remote, as before the near cache.
+        CustomerCache customerCache = new CustomerCache(
+            customerClient, meterRegistry, 0, Duration.ofMinutes(1), Duration.ofSeconds(1));
+        CheckoutLookupService checkoutLookupService = new CheckoutLookupService(
+            customerCache, productLookupBatcher, Runnable::run, meterRegistry);
+        OrderOutbox orderOutbox = new OrderOutbox(
+            mock(OrderOutboxRepository.class), new ObjectMapper().registerModule(new JavaTimeModule()));
+        OrderWriteService orderWriteService = new OrderWriteService(
+            orderRepository, orderOutbox, mock(SalesRollupService.class));
+        return new OrderController(orderRepository, productClient, customerCache, checkoutLookupService,
+            mock(OrderExportService.class), orderWriteService, mock(OrderStatusService.class),
+            mock(IdempotencyService.class));
+    }
+
+    private <T> T remote(int trips, T result) {
+        roundTrips.addAndGet(trips);
+        long deadline = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(RTT_MICROS * trips);
+        while (System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        return result;
+    }
+
+    private static ProductDto product(Long id) {
+        return new ProductDto(id, "Product " + id, new BigDecimal("10.00"), 1_000_000);
+    }
+}
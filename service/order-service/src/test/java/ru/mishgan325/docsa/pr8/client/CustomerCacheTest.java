@@ -0,0 +1,75 @@
+package ru.mishgan325.docsa.pr8.client;
+
+import java.time.Duration;
+
+import feign.FeignException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.mishgan325.docsa.pr8.dto.CustomerDto;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerCacheTest {
+
+    @Mock
+    private CustomerClient customerClient;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CustomerCache customerCache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        customerCache = new CustomerCache(customerClient, meterRegistry, 100, Duration.ofMinutes(10), Duration.ofMinutes(1));
+    }
+
+    @Test
+    void getCustomerByUserId_ShouldCallClientOnlyOnce() {
+        CustomerDto customer = new CustomerDto(1L, 100L, "Ivan", "+7-999-123", "Moscow");
+        when(customerClient.getCustomerByUserId(100L)).thenReturn(customer);
+
+        assertEquals(customer, customerCache.getCustomerByUserId(100L));
+        assertEquals(customer, customerCache.getCustomerByUserId(100L));
+
+        verify(customerClient, times(1)).getCustomerByUserId(100L);
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void getCustomerByUserId_WhenNotFound_ShouldCacheAbsence() {
+        when(customerClient.getCustomerByUserId(100L)).thenThrow(mock(FeignException.NotFound.class));
+
+        assertNull(customerCache.getCustomerByUserId(100L));
+        assertNull(customerCache.getCustomerByUserId(100L));
+
+        verify(customerClient, times(1)).getCustomerByUserId(100L);
+    }
+
+    @Test
+    void getCustomerByUserId_WhenClientFails_ShouldNotCacheError() {
+        CustomerDto customer = new CustomerDto(1L, 100L, "Ivan", "+7-999-123", "Moscow");
+        when(customerClient.getCustomerByUserId(100L))
+            .thenThrow(new IllegalStateException("customer-service down"))
+            .thenReturn(customer);
+
+        assertThrows(IllegalStateException.class, () -> customerCache.getCustomerByUserId(100L));
+        assertEquals(customer, customerCache.getCustomerByUserId(100L));
+    }
+
+    @Test
+    void invalidate_ShouldForceReload() {
+        when(customerClient.getCustomerByUserId(100L)).thenReturn(null);
+
+        customerCache.getCustomerByUserId(100L);
+        customerCache.invalidate(100L);
+        customerCache.getCustomerByUserId(100L);
+
+        verify(customerClient, times(2)).getCustomerByUserId(100L);
+    }
+}
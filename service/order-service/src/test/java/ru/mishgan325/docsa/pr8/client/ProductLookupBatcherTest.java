@@ -0,0 +1,89 @@
+package ru.mishgan325.docsa.pr8.client;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.mishgan325.docsa.pr8.dto.ProductDto;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductLookupBatcherTest {
+
+    @Mock
+    private ProductClient productClient;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ProductLookupBatcher batcher;
+
+    @AfterEach
+    void tearDown() {
+        batcher.destroy();
+    }
+
+    @Test
+    void lookup_WithinOneWindow_ShouldIssueSingleDedupedCall() {
+        batcher = new ProductLookupBatcher(productClient, Runnable::run, meterRegistry, Duration.ofMillis(50), 100);
+        when(productClient.getProductsByIds(anyCollection())).thenReturn(List.of(product(1L), product(2L)));
+
+        CompletableFuture<ProductDto> first = batcher.lookup(1L);
+        CompletableFuture<ProductDto> second = batcher.lookup(2L);
+        CompletableFuture<ProductDto> duplicate = batcher.lookup(1L);
+        CompletableFuture<ProductDto> missing = batcher.lookup(3L);
+
+        assertEquals(1L, first.join().id());
+        assertEquals(2L, second.join().id());
+        assertSame(first, duplicate);
+        assertNull(missing.join());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<Long>> ids = ArgumentCaptor.forClass(Collection.class);
+        verify(productClient, times(1)).getProductsByIds(ids.capture());
+        assertEquals(Set.of(1L, 2L, 3L), Set.copyOf(ids.getValue()));
+        assertEquals(1.0, meterRegistry.get("products.lookup.coalesced").counter().count());
+    }
+
+    @Test
+    void lookup_WhenBatchIsFull_ShouldFlushWithoutWaitingForWindow() {
+        batcher = new ProductLookupBatcher(productClient, Runnable::run, meterRegistry, Duration.ofMinutes(1), 2);
+        when(productClient.getProductsByIds(anyCollection())).thenReturn(List.of(product(1L), product(2L)));
+
+        CompletableFuture<ProductDto> first = batcher.lookup(1L);
+        CompletableFuture<ProductDto> second = batcher.lookup(2L);
+
+        assertEquals(1L, first.join().id());
+        assertEquals(2L, second.join().id());
+    }
+
+    @Test
+    void lookup_WhenCallFails_ShouldFailEveryWaiterAndAllowRetry() {
+        batcher = new ProductLookupBatcher(productClient, Runnable::run, meterRegistry, Duration.ZERO, 100);
+        when(productClient.getProductsByIds(anyCollection()))
+            .thenThrow(new IllegalStateException("product-service down"))
+            .thenReturn(List.of(product(1L)));
+
+        CompletionException e = assertThrows(CompletionException.class, () -> batcher.lookup(1L).join());
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+
+        assertEquals(1L, batcher.lookup(1L).join().id());
+    }
+
+    private static ProductDto product(Long id) {
+        return new ProductDto(id, "Product " + id, new BigDecimal("10.00"), 5);
+    }
+}
@@ -0,0 +1,96 @@
+package ru.mishgan325.docsa.pr8.client.protobuf;
+
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import ru.mishgan325.docsa.pr8.dto.CustomerDto;
+import ru.mishgan325.docsa.pr8.dto.ProductDto;
+import ru.mishgan325.docsa.pr8.web.protobuf.LookupSchema;
+import ru.mishgan325.docsa.pr8.web.protobuf.ProtoWriter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProtobufLookupConverterTest {
+
+    private static final Type PRODUCT_LIST = new ParameterizedTypeReference<List<ProductDto>>() {}.getType();
+    private static final Type CUSTOMER_LIST = new ParameterizedTypeReference<List<CustomerDto>>() {}.getType();
+
+    private final ProtobufLookupConverter converter = new ProtobufLookupConverter();
+
+    @Test
+    void productList_ShouldRoundTrip() throws Exception {
+        List<ProductDto> products = List.of(
+            new ProductDto(1L, "Laptop", new BigDecimal("1299.90"), 5),
+            new ProductDto(2L, "Кабель", null, null));
+
+        Object decoded = converter.read(PRODUCT_LIST, null, new MockHttpInputMessage(write(products, PRODUCT_LIST)));
+
+        assertEquals(products, decoded);
+    }
+
+    @Test
+    void customer_ShouldRoundTrip() throws Exception {
+        CustomerDto customer = new CustomerDto(7L, 100L, "Ivan", "+7-999-123-45-67", "Moscow");
+
+        Object decoded = converter.read(CustomerDto.class, null,
+            new MockHttpInputMessage(write(customer, CustomerDto.class)));
+
+        assertEquals(customer, decoded);
+    }
+
+    @Test
+    void read_ShouldSkipFieldsItDoesNotKnow() throws Exception {
+        ProtoWriter writer = new ProtoWriter()
+            .int64(1, 7L)
+            .string(9, "added later")
+            .int64(10, 42L)
+            .string(3, "Ivan");
+
+        Object decoded = converter.read(CustomerDto.class, null, new MockHttpInputMessage(writer.toByteArray()));
+
+        assertEquals(new CustomerDto(7L, null, "Ivan", null, null), decoded);
+    }
+
+    @Test
+    void read_WhenTruncated_ShouldFailAsNotReadable() {
+        byte[] body = new ProtoWriter().string(2, "Laptop").toByteArray();
+        byte[] truncated = Arrays.copyOf(body, body.length - 2);
+
+        assertThrows(HttpMessageNotReadableException.class,
+            () -> converter.read(ProductDto.class, null, new MockHttpInputMessage(truncated)));
+    }
+
+    @Test
+    void canRead_ShouldOnlyAcceptLookupTypes() {
+        MediaType protobuf = LookupSchema.PROTOBUF;
+
+        assertTrue(converter.canRead(ProductDto.class, null, protobuf));
+        assertTrue(converter.canRead(CUSTOMER_LIST, null, protobuf));
+        assertFalse(converter.canRead(String.class, null, protobuf));
+        assertFalse(converter.canRead(ProductDto.class, null, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canRead(new ParameterizedTypeReference<List<String>>() {}.getType(), null, protobuf));
+    }
+
+    @Test
+    void write_ShouldMatchTheSchemaFieldNumbers() throws Exception {
+        byte[] body = write(new ProductDto(1L, "A", new BigDecimal("2.50"), 3), ProductDto.class);
+
+        // id=1 varint 1, name=2 "A", price_unscaled=3 varint 250, price_scale=4 varint 2, quantity=5 varint 3
+        byte[] expected = {0x08, 0x01, 0x12, 0x01, 'A', 0x18, (byte) 0xFA, 0x01, 0x20, 0x02, 0x28, 0x03};
+        assertArrayEquals(expected, body);
+    }
+
+    private byte[] write(Object value, Type type) throws Exception {
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(value, type, LookupSchema.PROTOBUF, output);
+        return output.getBodyAsBytes();
+    }
+}
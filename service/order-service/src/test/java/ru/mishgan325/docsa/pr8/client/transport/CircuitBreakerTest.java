@@ -0,0 +1,90 @@
+package ru.mishgan325.docsa.pr8.client.transport;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private CircuitBreaker circuitBreaker;
+
+    @BeforeEach
+    void setUp() {
+        ResilienceSettings.Breaker settings = new ResilienceSettings.Breaker();
+        settings.setWindowSize(10);
+        settings.setMinimumCalls(4);
+        settings.setFailureRateThreshold(50);
+        settings.setOpenDuration(Duration.ofSeconds(10));
+        settings.setHalfOpenCalls(2);
+        circuitBreaker = new CircuitBreaker(settings, now::get);
+    }
+
+    @Test
+    void record_ShouldOpenOnceFailureRateReachesThresholdAfterMinimumCalls() {
+        circuitBreaker.record(false);
+        circuitBreaker.record(false);
+        circuitBreaker.record(false);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.state(), "below minimum calls");
+
+        circuitBreaker.record(true);
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.state());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+    }
+
+    @Test
+    void record_ShouldOnlyCountTheLastWindowOfCalls() {
+        for (int i = 0; i < 10; i++) {
+            circuitBreaker.record(true);
+        }
+        for (int i = 0; i < 4; i++) {
+            circuitBreaker.record(false);
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.state(), "4 of the last 10 failed");
+
+        circuitBreaker.record(false);
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.state(), "5 of the last 10 failed");
+    }
+
+    @Test
+    void tryAcquirePermission_AfterOpenDuration_ShouldAllowTrialCallsAndCloseWhenTheySucceed() {
+        openCircuit();
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertFalse(circuitBreaker.tryAcquirePermission(), "only two trial calls");
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.state());
+
+        circuitBreaker.record(true);
+        circuitBreaker.record(true);
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.state());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+    }
+
+    @Test
+    void record_WhenTrialCallFails_ShouldReopen() {
+        openCircuit();
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+
+        circuitBreaker.record(false);
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.state());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+    }
+
+    private void openCircuit() {
+        for (int i = 0; i < 4; i++) {
+            circuitBreaker.record(false);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.state());
+    }
+}
@@ -0,0 +1,107 @@
+package ru.mishgan325.docsa.pr8.client.transport;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import com.sun.net.httpserver.HttpServer;
+import feign.Request;
+import feign.Response;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PooledFeignClientTest {
+
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+
+    private HttpServer server;
+    private PooledFeignClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/echo", exchange -> {
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            byte[] body = exchange.getRequestBody().readAllBytes();
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.getResponseHeaders().add("X-Auth-Seen", String.valueOf(exchange.getRequestHeaders().getFirst("Authorization")));
+            exchange.sendResponseHeaders(201, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        client = new PooledFeignClient("test-service", new TransportSettings());
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        server.stop(0);
+    }
+
+    @Test
+    void execute_ShouldSendHeadersAndBodyAndReuseTheConnection() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        client.bindTo(registry);
+        for (int i = 0; i < 3; i++) {
+            Response response = client.execute(post("{\"quantity\":" + i + "}"), new Request.Options());
+
+            assertEquals(201, response.status());
+            assertEquals("{\"quantity\":" + i + "}",
+                new String(response.body().asInputStream().readAllBytes(), StandardCharsets.UTF_8));
+            assertEquals(List.of("Bearer t"), List.copyOf(response.headers().get("x-auth-seen")));
+            assertEquals(Request.ProtocolVersion.HTTP_1_1, response.protocolVersion());
+            awaitReleased(registry);
+        }
+        assertEquals(1, clientPorts.size(), "keep-alive connection should be reused");
+    }
+
+    @Test
+    void bindTo_ShouldExposeLeasedIdleAndPendingGauges() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        client.bindTo(registry);
+
+        client.execute(post("{}"), new Request.Options());
+        awaitReleased(registry);
+
+        assertEquals(1.0, registry.get("httpcomponents.httpclient.pool.total.connections")
+            .tags("httpclient", "test-service", "state", "available").gauge().value());
+        assertEquals(0.0, registry.get("httpcomponents.httpclient.pool.total.connections")
+            .tags("httpclient", "test-service", "state", "leased").gauge().value());
+        assertEquals(0.0, registry.get("httpcomponents.httpclient.pool.total.pending")
+            .tags("httpclient", "test-service").gauge().value());
+        assertEquals(200.0, registry.get("httpcomponents.httpclient.pool.total.max")
+            .tags("httpclient", "test-service").gauge().value());
+    }
+
+    /**
+     * The response callback fires just before the connection goes back to the pool.
+     */
+    private static void awaitReleased(SimpleMeterRegistry registry) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (leased(registry) > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private static double leased(SimpleMeterRegistry registry) {
+        return registry.get("httpcomponents.httpclient.pool.total.connections")
+            .tags("httpclient", "test-service", "state", "leased").gauge().value();
+    }
+
+    private Request post(String body) {
+        String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/echo";
+        return Request.create(Request.HttpMethod.POST, url,
+            Map.of("Content-Type", List.of("application/json"), "Authorization", List.of("Bearer t")),
+            body.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8, null);
+    }
+}
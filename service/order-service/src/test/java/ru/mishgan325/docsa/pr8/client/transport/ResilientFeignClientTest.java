@@ -0,0 +1,153 @@
+package ru.mishgan325.docsa.pr8.client.transport;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import feign.Request;
+import feign.Response;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ResilientFeignClientTest {
+
+    private static final String SERVICE = "product-service";
+
+    @Mock
+    private PooledFeignClient transport;
+
+    @Mock
+    private DiscoveryClient discoveryClient;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ResilienceSettings settings;
+
+    @BeforeEach
+    void setUp() {
+        settings = new ResilienceSettings();
+        settings.getHedging().setMinimumSamples(3);
+        settings.getHedging().setMinDelay(Duration.ofMillis(5));
+        settings.getHedging().setBudgetRatio(1.0);
+        settings.getCircuitBreaker().setMinimumCalls(2);
+        settings.getCircuitBreaker().setWindowSize(4);
+    }
+
+    @Test
+    void execute_WhenGetIsSlowerThanPercentile_ShouldHedgeToAnotherInstance() throws IOException {
+        ResilientFeignClient client = client();
+        Request toA = get("http://10.0.0.1:8081/products/1");
+        when(transport.executeAsync(toA)).thenAnswer(invocation -> completed(invocation.getArgument(0), 200));
+        for (int i = 0; i < 3; i++) {
+            client.execute(toA, new Request.Options());
+        }
+
+        Request slow = get("http://10.0.0.1:8081/products/2");
+        CompletableFuture<Response> stalled = new CompletableFuture<>();
+        when(transport.executeAsync(slow)).thenReturn(stalled);
+        when(transport.executeAsync(argThat(request -> request.url().equals("http://10.0.0.2:8081/products/2"))))
+            .thenAnswer(invocation -> completed(invocation.getArgument(0), 200));
+        when(discoveryClient.getInstances(SERVICE)).thenReturn(List.of(
+            new DefaultServiceInstance("a", SERVICE, "10.0.0.1", 8081, false),
+            new DefaultServiceInstance("b", SERVICE, "10.0.0.2", 8081, false)));
+
+        Response response = client.execute(slow, new Request.Options());
+
+        assertEquals("http://10.0.0.2:8081/products/2", response.request().url());
+        assertTrue(stalled.isCancelled(), "the losing attempt is cancelled");
+        assertEquals(1.0, meterRegistry.get("downstream.hedges").tags("client", SERVICE, "outcome", "won").counter().count());
+    }
+
+    @Test
+    void execute_ShouldNeverHedgePosts() throws IOException {
+        settings.getHedging().setMinimumSamples(0);
+        ResilientFeignClient client = client();
+        Request post = Request.create(Request.HttpMethod.POST, "http://10.0.0.1:8081/products/1/stock/reserve",
+            Map.of(), "{}".getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8, null);
+        when(transport.executeAsync(post)).thenAnswer(invocation -> CompletableFuture.supplyAsync(
+            () -> response(post, 204), CompletableFuture.delayedExecutor(50, TimeUnit.MILLISECONDS)));
+
+        assertEquals(204, client.execute(post, new Request.Options()).status());
+
+        verify(transport, times(1)).executeAsync(any());
+        verifyNoInteractions(discoveryClient);
+    }
+
+    @Test
+    void execute_WhenCircuitIsOpen_ShouldRejectWithoutCallingTransport() throws IOException {
+        ResilientFeignClient client = client();
+        Request request = get("http://10.0.0.1:8081/products/1");
+        when(transport.executeAsync(request)).thenAnswer(invocation -> completed(request, 503));
+        client.execute(request, new Request.Options());
+        client.execute(request, new Request.Options());
+        assertEquals(CircuitBreaker.State.OPEN, client.circuitState());
+
+        assertThrows(DownstreamRejectedException.class, () -> client.execute(request, new Request.Options()));
+
+        verify(transport, times(2)).executeAsync(any());
+        assertEquals(1.0, meterRegistry.get("downstream.calls.rejected")
+            .tags("client", SERVICE, "reason", "circuit_open").counter().count());
+    }
+
+    @Test
+    void execute_WhenBulkheadIsFull_ShouldRejectAtOnce() throws Exception {
+        settings.getBulkhead().setMaxConcurrentCalls(1);
+        settings.getHedging().setEnabled(false);
+        ResilientFeignClient client = client();
+        Request request = get("http://10.0.0.1:8081/products/1");
+        CompletableFuture<Response> pending = new CompletableFuture<>();
+        CountDownLatch sent = new CountDownLatch(1);
+        when(transport.executeAsync(request)).thenAnswer(invocation -> {
+            sent.countDown();
+            return pending;
+        });
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<Response> inFlight = pool.submit(() -> client.execute(request, new Request.Options()));
+            assertTrue(sent.await(2, TimeUnit.SECONDS));
+
+            assertThrows(DownstreamRejectedException.class, () -> client.execute(request, new Request.Options()));
+
+            pending.complete(response(request, 200));
+            assertEquals(200, inFlight.get(2, TimeUnit.SECONDS).status());
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1.0, meterRegistry.get("downstream.bulkhead.available").tags("client", SERVICE).gauge().value());
+    }
+
+    private ResilientFeignClient client() {
+        return new ResilientFeignClient(SERVICE, transport, discoveryClient, settings, meterRegistry);
+    }
+
+    private static Request get(String url) {
+        return Request.create(Request.HttpMethod.GET, url, Map.of(), null, StandardCharsets.UTF_8, null);
+    }
+
+    private static CompletableFuture<Response> completed(Request request, int status) {
+        return CompletableFuture.completedFuture(response(request, status));
+    }
+
+    private static Response response(Request request, int status) {
+        return Response.builder().request(request).status(status).headers(Map.of()).build();
+    }
+}
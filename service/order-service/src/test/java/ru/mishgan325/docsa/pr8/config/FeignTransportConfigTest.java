@@ -0,0 +1,33 @@
+package ru.mishgan325.docsa.pr8.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import ru.mishgan325.docsa.pr8.client.transport.PooledFeignClient;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FeignTransportConfigTest {
+
+    @Test
+    void pooledFeignClient_ShouldOverrideDefaultsPerClient() {
+        MockEnvironment environment = new MockEnvironment()
+            .withProperty("app.feign.transport.default.max-connections", "100")
+            .withProperty("app.feign.transport.default.max-connections-per-route", "20")
+            .withProperty("app.feign.transport.clients.product-service.max-connections", "400");
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        FeignTransportConfig config = new FeignTransportConfig();
+
+        try (PooledFeignClient products = config.pooledFeignClient("product-service", environment, registry);
+             PooledFeignClient customers = config.pooledFeignClient("customer-service", environment, registry)) {
+            assertEquals(400.0, maxConnections(registry, "product-service"));
+            assertEquals(100.0, maxConnections(registry, "customer-service"));
+            assertEquals(20.0, registry.get("httpcomponents.httpclient.pool.route.max.default")
+                .tags("httpclient", "product-service").gauge().value());
+        }
+    }
+
+    private static double maxConnections(SimpleMeterRegistry registry, String client) {
+        return registry.get("httpcomponents.httpclient.pool.total.max").tags("httpclient", client).gauge().value();
+    }
+}
@@ -1,31 +1,65 @@
 package ru.mishgan325.docsa.pr8.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import feign.FeignException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.mishgan325.docsa.pr8.client.CustomerCache;
 import ru.mishgan325.docsa.pr8.client.CustomerClient;
 import ru.mishgan325.docsa.pr8.client.ProductClient;
+import ru.mishgan325.docsa.pr8.client.ProductLookupBatcher;
+import ru.mishgan325.docsa.pr8.dto.BatchCreateOrderRequest;
+import ru.mishgan325.docsa.pr8.dto.BatchOrderLineResult;
+import ru.mishgan325.docsa.pr8.dto.BatchOrderResponse;
+import ru.mishgan325.docsa.pr8.dto.BulkStatusUpdateRequest;
+import ru.mishgan325.docsa.pr8.dto.BulkStatusUpdateResponse;
 import ru.mishgan325.docsa.pr8.dto.CreateOrderRequest;
 import ru.mishgan325.docsa.pr8.dto.CustomerDto;
+import ru.mishgan325.docsa.pr8.dto.OrderCursor;
+import ru.mishgan325.docsa.pr8.dto.OrderPage;
 import ru.mishgan325.docsa.pr8.dto.OrderResponse;
 import ru.mishgan325.docsa.pr8.dto.ProductDto;
+import ru.mishgan325.docsa.pr8.dto.StockRequest;
+import ru.mishgan325.docsa.pr8.dto.StockReservationItem;
+import ru.mishgan325.docsa.pr8.dto.StockReservationRequest;
+import ru.mishgan325.docsa.pr8.dto.StockReservationResult;
 import ru.mishgan325.docsa.pr8.model.Order;
+import ru.mishgan325.docsa.pr8.model.OrderOutboxEvent;
+import ru.mishgan325.docsa.pr8.outbox.OrderOutbox;
+import ru.mishgan325.docsa.pr8.repository.OrderOutboxRepository;
 import ru.mishgan325.docsa.pr8.repository.OrderRepository;
-
+import ru.mishgan325.docsa.pr8.security.ShopPrincipal;
+import ru.mishgan325.docsa.pr8.service.CheckoutLookupService;
+import ru.mishgan325.docsa.pr8.service.IdempotencyService;
+import ru.mishgan325.docsa.pr8.service.OrderExportService;
+import ru.mishgan325.docsa.pr8.service.OrderStatusService;
+import ru.mishgan325.docsa.pr8.service.OrderWriteService;
+import ru.mishgan325.docsa.pr8.service.SalesRollupService;
+
+import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.mockito.Mockito.lenient;
 
@@ -41,9 +75,50 @@ class OrderControllerTest {
     @Mock
     private CustomerClient customerClient;
 
-    @InjectMocks
+    @Mock
+    private OrderExportService orderExportService;
+
+    @Mock
+    private OrderOutboxRepository orderOutboxRepository;
+
+    @Mock
+    private OrderStatusService orderStatusService;
+
+    @Mock
+    private SalesRollupService salesRollupService;
+
+    @Mock
+    private IdempotencyService idempotencyService;
+
+    @Captor
+    private ArgumentCaptor<List<OrderOutboxEvent>> outboxEvents;
+
+    private ProductLookupBatcher productLookupBatcher;
+
     private OrderController orderController;
 
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        productLookupBatcher = new ProductLookupBatcher(
+            productClient, Runnable::run, meterRegistry, Duration.ZERO, 100);
+        CustomerCache customerCache = new CustomerCache(
+            customerClient, meterRegistry, 100, Duration.ofMinutes(1), Duration.ofSeconds(1));
+        CheckoutLookupService checkoutLookupService = new CheckoutLookupService(
+            customerCache, productLookupBatcher, Runnable::run, meterRegistry);
+        OrderOutbox orderOutbox = new OrderOutbox(
+            orderOutboxRepository, new ObjectMapper().registerModule(new JavaTimeModule()));
+        OrderWriteService orderWriteService = new OrderWriteService(orderRepository, orderOutbox, salesRollupService);
+        orderController = new OrderController(
+            orderRepository, productClient, customerCache, checkoutLookupService, orderExportService,
+            orderWriteService, orderStatusService, idempotencyService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        productLookupBatcher.destroy();
+    }
+
     @Test
     void getAllOrders_ShouldReturnListOfOrders() {
         Order order = createOrder(1L, 1L, 1L, 2, new BigDecimal("3000.00"));
@@ -56,27 +131,116 @@ class OrderControllerTest {
         verify(orderRepository, times(1)).findAll();
     }
 
+    @Test
+    void getOrdersPage_WhenMoreRowsThanSize_ShouldReturnNextCursor() {
+        Order newer = createOrder(2L, 1L, 1L, 1, new BigDecimal("1500.00"));
+        Order older = createOrder(1L, 1L, 1L, 1, new BigDecimal("1500.00"));
+        when(orderRepository.findAllByOrderByCreatedAtDescIdDesc(Limit.of(2))).thenReturn(List.of(newer, older));
+
+        ResponseEntity<OrderPage> response = orderController.getOrdersPage(null, 1);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        OrderPage page = response.getBody();
+        assertNotNull(page);
+        assertEquals(1, page.items().size());
+        assertEquals(2L, page.items().get(0).id());
+        assertEquals(OrderCursor.after(newer), OrderCursor.decode(page.nextCursor()));
+        verify(orderRepository, never()).findAll();
+    }
+
+    @Test
+    void getOrdersPage_WithCursor_ShouldSeekPastIt() {
+        Order last = createOrder(5L, 1L, 1L, 1, new BigDecimal("1500.00"));
+        String cursor = OrderCursor.after(last).encode();
+        Order older = createOrder(4L, 1L, 1L, 1, new BigDecimal("1500.00"));
+        when(orderRepository.findPageBefore(last.getCreatedAt(), 5L, Limit.of(OrderController.MAX_PAGE_SIZE + 1)))
+            .thenReturn(List.of(older));
+
+        ResponseEntity<OrderPage> response = orderController.getOrdersPage(cursor, 10_000);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, response.getBody().items().size());
+        assertNull(response.getBody().nextCursor());
+    }
+
+    @Test
+    void getOrdersPage_WithMalformedCursor_ShouldReturnBadRequest() {
+        ResponseEntity<OrderPage> response = orderController.getOrdersPage("not-a-cursor", 10);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    void getOrdersPageByCustomerId_ShouldUseCustomerKeyset() {
+        Order order = createOrder(1L, 7L, 1L, 1, new BigDecimal("1500.00"));
+        when(orderRepository.findByCustomerIdOrderByCreatedAtDescIdDesc(7L, Limit.of(11))).thenReturn(List.of(order));
+
+        ResponseEntity<OrderPage> response = orderController.getOrdersPageByCustomerId(7L, null, 10);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, response.getBody().items().size());
+        verify(orderRepository, never()).findByCustomerId(any());
+    }
+
+    @Test
+    void exportOrders_ShouldStreamThroughExportService() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2025, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2025, 2, 1, 0, 0);
+
+        ResponseEntity<StreamingResponseBody> response =
+            orderController.exportOrders(from, to, Order.OrderStatus.COMPLETED);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("application/x-ndjson", response.getHeaders().getContentType().toString());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        verify(orderExportService).exportNdjson(from, to, Order.OrderStatus.COMPLETED, out);
+    }
+
+    @Test
+    void exportOrders_WhenRangeIsEmpty_ShouldReturnBadRequest() {
+        LocalDateTime from = LocalDateTime.of(2025, 2, 1, 0, 0);
+
+        ResponseEntity<StreamingResponseBody> response = orderController.exportOrders(from, from, null);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(orderExportService);
+    }
+
     @Test
     void getOrderById_WhenExists_ShouldReturnOrder() {
         Order order = createOrder(1L, 1L, 1L, 2, new BigDecimal("3000.00"));
         when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
 
-        ResponseEntity<OrderResponse> response = orderController.getOrderById(1L);
+        ResponseEntity<OrderResponse> response = orderController.getOrderById(1L, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
     }
 
+    @Test
+    void getOrderById_WhenVersionUnchanged_ShouldReturnNotModified() {
+        Order order = createOrder(1L, 1L, 1L, 2, new BigDecimal("3000.00"));
+        order.setVersion(4L);
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+
+        ResponseEntity<OrderResponse> response = orderController.getOrderById(1L, "W/\"1-4\"");
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals("\"1-4\"", response.getHeaders().getETag());
+        assertNull(response.getBody());
+    }
+
     @Test
     void getSelfOrders_WhenCustomerExists_ShouldReturnOrders() {
-        Authentication auth = createMockAuthentication(100L);
+        ShopPrincipal principal = principal(100L);
         CustomerDto customer = new CustomerDto(1L, 100L, "Ivan", "+7-999-123", "Moscow");
         Order order = createOrder(1L, 1L, 1L, 2, new BigDecimal("3000.00"));
         
         when(customerClient.getCustomerByUserId(100L)).thenReturn(customer);
         when(orderRepository.findByCustomerId(1L)).thenReturn(List.of(order));
 
-        ResponseEntity<?> response = orderController.getSelfOrders(auth);
+        ResponseEntity<?> response = orderController.getSelfOrders(principal);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
@@ -84,9 +248,9 @@ class OrderControllerTest {
 
     @Test
     void getSelfOrders_WhenUserIdNull_ShouldReturnBadRequest() {
-        Authentication auth = createMockAuthentication(null);
+        ShopPrincipal principal = principal(null);
 
-        ResponseEntity<?> response = orderController.getSelfOrders(auth);
+        ResponseEntity<?> response = orderController.getSelfOrders(principal);
 
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
     }
@@ -94,69 +258,276 @@ class OrderControllerTest {
     @Test
     void createOrder_WhenValid_ShouldReturnCreatedOrder() {
         CreateOrderRequest request = new CreateOrderRequest(1L, 2);
-        Authentication auth = createMockAuthentication(100L);
+        ShopPrincipal principal = principal(100L);
         CustomerDto customer = new CustomerDto(1L, 100L, "Ivan", "+7-999-123", "Moscow");
         ProductDto product = new ProductDto(1L, "Laptop", new BigDecimal("1500.00"), 10);
         Order savedOrder = createOrder(1L, 1L, 1L, 2, new BigDecimal("3000.00"));
         
         when(customerClient.getCustomerByUserId(100L)).thenReturn(customer);
-        when(productClient.getProductById(1L)).thenReturn(product);
+        when(productClient.getProductsByIds(List.of(1L))).thenReturn(List.of(product));
         when(orderRepository.save(any(Order.class))).thenReturn(savedOrder);
 
-        ResponseEntity<?> response = orderController.createOrder(request, auth);
+        ResponseEntity<?> response = orderController.createOrder(request, null, principal);
 
         assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        verify(productClient, times(1)).reserveStock(1L, new StockRequest(2));
         verify(orderRepository, times(1)).save(any(Order.class));
+        verify(orderOutboxRepository, times(1)).saveAll(outboxEvents.capture());
+        assertEquals(1L, outboxEvents.getValue().get(0).getOrderId());
+        assertEquals(OrderOutboxEvent.EventType.CREATED, outboxEvents.getValue().get(0).getType());
+        verify(salesRollupService, times(1)).created(List.of(savedOrder));
     }
 
     @Test
     void createOrder_WhenInsufficientQuantity_ShouldReturnBadRequest() {
         CreateOrderRequest request = new CreateOrderRequest(1L, 20);
-        Authentication auth = createMockAuthentication(100L);
+        ShopPrincipal principal = principal(100L);
         CustomerDto customer = new CustomerDto(1L, 100L, "Ivan", "+7-999-123", "Moscow");
         ProductDto product = new ProductDto(1L, "Laptop", new BigDecimal("1500.00"), 10);
         
         when(customerClient.getCustomerByUserId(100L)).thenReturn(customer);
-        when(productClient.getProductById(1L)).thenReturn(product);
+        when(productClient.getProductsByIds(List.of(1L))).thenReturn(List.of(product));
+
+        ResponseEntity<?> response = orderController.createOrder(request, null, principal);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(orderRepository, never()).save(any(Order.class));
+    }
+
+    @Test
+    void createOrder_WhenReservationConflicts_ShouldReturnBadRequest() {
+        CreateOrderRequest request = new CreateOrderRequest(1L, 2);
+        ShopPrincipal principal = principal(100L);
+        CustomerDto customer = new CustomerDto(1L, 100L, "Ivan", "+7-999-123", "Moscow");
+        ProductDto product = new ProductDto(1L, "Laptop", new BigDecimal("1500.00"), 10);
+
+        when(customerClient.getCustomerByUserId(100L)).thenReturn(customer);
+        when(productClient.getProductsByIds(List.of(1L))).thenReturn(List.of(product));
+        doThrow(mock(FeignException.Conflict.class)).when(productClient).reserveStock(eq(1L), any());
 
-        ResponseEntity<?> response = orderController.createOrder(request, auth);
+        ResponseEntity<?> response = orderController.createOrder(request, null, principal);
 
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
         verify(orderRepository, never()).save(any(Order.class));
     }
 
+    @Test
+    void createOrder_WhenSaveFails_ShouldReleaseReservedStock() {
+        CreateOrderRequest request = new CreateOrderRequest(1L, 2);
+        ShopPrincipal principal = principal(100L);
+        CustomerDto customer = new CustomerDto(1L, 100L, "Ivan", "+7-999-123", "Moscow");
+        ProductDto product = new ProductDto(1L, "Laptop", new BigDecimal("1500.00"), 10);
+
+        when(customerClient.getCustomerByUserId(100L)).thenReturn(customer);
+        when(productClient.getProductsByIds(List.of(1L))).thenReturn(List.of(product));
+        when(orderRepository.save(any(Order.class))).thenThrow(new IllegalStateException("db down"));
+
+        ResponseEntity<?> response = orderController.createOrder(request, null, principal);
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+        verify(productClient).releaseStockBatch(
+            new StockReservationRequest(List.of(new StockReservationItem(1L, 2))));
+    }
+
+    @Test
+    void createOrder_WithIdempotencyKey_ShouldGoThroughIdempotencyService() {
+        CreateOrderRequest request = new CreateOrderRequest(1L, 2);
+        ShopPrincipal principal = principal(100L);
+        doReturn(ResponseEntity.status(HttpStatus.CREATED).body("{\"id\":1}"))
+            .when(idempotencyService).execute(eq(100L), eq("retry-1"), eq(request), any());
+
+        ResponseEntity<?> response = orderController.createOrder(request, "retry-1", principal);
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals("{\"id\":1}", response.getBody());
+        verifyNoInteractions(productClient, orderRepository);
+    }
+
     @Test
     void createOrder_WhenCustomerNotFound_ShouldReturnBadRequest() {
         CreateOrderRequest request = new CreateOrderRequest(1L, 2);
-        Authentication auth = createMockAuthentication(100L);
+        ShopPrincipal principal = principal(100L);
         
         when(customerClient.getCustomerByUserId(100L)).thenReturn(null);
 
-        ResponseEntity<?> response = orderController.createOrder(request, auth);
+        ResponseEntity<?> response = orderController.createOrder(request, null, principal);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    void createOrders_ShouldLookUpOnceAndSaveAcceptedLinesInOneBatch() {
+        BatchCreateOrderRequest request = new BatchCreateOrderRequest(List.of(
+            new CreateOrderRequest(1L, 6),
+            new CreateOrderRequest(2L, 1),
+            new CreateOrderRequest(1L, 6),
+            new CreateOrderRequest(99L, 1)
+        ));
+        ShopPrincipal principal = principal(100L);
+        CustomerDto customer = new CustomerDto(1L, 100L, "Ivan", "+7-999-123", "Moscow");
+        ProductDto laptop = new ProductDto(1L, "Laptop", new BigDecimal("1500.00"), 10);
+        ProductDto mouse = new ProductDto(2L, "Mouse", new BigDecimal("20.00"), 100);
+
+        when(customerClient.getCustomerByUserId(100L)).thenReturn(customer);
+        when(productClient.getProductsByIds(anyCollection())).thenReturn(List.of(laptop, mouse));
+        when(productClient.reserveStockBatch(any())).thenReturn(List.of(
+            new StockReservationResult(1L, 6, true),
+            new StockReservationResult(2L, 1, true)
+        ));
+        when(orderRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        ResponseEntity<?> response = orderController.createOrders(request, principal);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        BatchOrderResponse body = (BatchOrderResponse) response.getBody();
+        assertNotNull(body);
+        assertEquals(2, body.created());
+        assertEquals(2, body.rejected());
+        assertEquals(BatchOrderLineResult.Status.CREATED, body.lines().get(0).status());
+        assertEquals(BatchOrderLineResult.Status.CREATED, body.lines().get(1).status());
+        assertEquals("Insufficient product quantity", body.lines().get(2).error());
+        assertEquals("Product not found", body.lines().get(3).error());
+        verify(customerClient, times(1)).getCustomerByUserId(100L);
+        verify(productClient, times(1)).getProductsByIds(anyCollection());
+        verify(productClient, never()).getProductById(any());
+        verify(orderRepository, times(1)).saveAll(anyList());
+        verify(orderRepository, never()).save(any(Order.class));
+    }
+
+    @Test
+    void createOrders_WhenReservationLost_ShouldRejectOnlyThatLine() {
+        BatchCreateOrderRequest request = new BatchCreateOrderRequest(List.of(
+            new CreateOrderRequest(1L, 2),
+            new CreateOrderRequest(2L, 1)
+        ));
+        ShopPrincipal principal = principal(100L);
+        CustomerDto customer = new CustomerDto(1L, 100L, "Ivan", "+7-999-123", "Moscow");
+
+        when(customerClient.getCustomerByUserId(100L)).thenReturn(customer);
+        when(productClient.getProductsByIds(anyCollection())).thenReturn(List.of(
+            new ProductDto(1L, "Laptop", new BigDecimal("1500.00"), 10),
+            new ProductDto(2L, "Mouse", new BigDecimal("20.00"), 100)
+        ));
+        when(productClient.reserveStockBatch(any())).thenReturn(List.of(
+            new StockReservationResult(1L, 2, false),
+            new StockReservationResult(2L, 1, true)
+        ));
+        when(orderRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        ResponseEntity<?> response = orderController.createOrders(request, principal);
+
+        BatchOrderResponse body = (BatchOrderResponse) response.getBody();
+        assertNotNull(body);
+        assertEquals(BatchOrderLineResult.Status.REJECTED, body.lines().get(0).status());
+        assertEquals(BatchOrderLineResult.Status.CREATED, body.lines().get(1).status());
+    }
+
+    @Test
+    void createOrders_WhenCustomerNotFound_ShouldReturnBadRequest() {
+        BatchCreateOrderRequest request = new BatchCreateOrderRequest(List.of(new CreateOrderRequest(1L, 2)));
+        ShopPrincipal principal = principal(100L);
+
+        when(customerClient.getCustomerByUserId(100L)).thenReturn(null);
+
+        ResponseEntity<?> response = orderController.createOrders(request, principal);
 
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(productClient, never()).getProductsByIds(anyCollection());
+        verify(orderRepository, never()).saveAll(anyList());
     }
 
     @Test
     void updateOrderStatus_WhenExists_ShouldReturnUpdatedOrder() {
         Order order = createOrder(1L, 1L, 1L, 2, new BigDecimal("3000.00"));
-        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+        when(orderRepository.lockById(1L)).thenReturn(Optional.of(order));
         when(orderRepository.save(any(Order.class))).thenReturn(order);
 
         ResponseEntity<OrderResponse> response = orderController.updateOrderStatus(1L, Order.OrderStatus.COMPLETED);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         verify(orderRepository, times(1)).save(any(Order.class));
+        verify(salesRollupService, times(1)).statusChanging(List.of(order), Order.OrderStatus.COMPLETED);
+        verify(orderOutboxRepository, times(1)).saveAll(outboxEvents.capture());
+        OrderOutboxEvent event = outboxEvents.getValue().get(0);
+        assertEquals(OrderOutboxEvent.EventType.STATUS_CHANGED, event.getType());
+        assertTrue(event.getPayload().contains("\"status\":\"COMPLETED\""));
     }
 
     @Test
-    void deleteOrder_WhenExists_ShouldReturn204() {
-        when(orderRepository.existsById(1L)).thenReturn(true);
+    void updateOrderStatus_WhenStatusUnchanged_ShouldNotWriteOutboxEvent() {
+        Order order = createOrder(1L, 1L, 1L, 2, new BigDecimal("3000.00"));
+        when(orderRepository.lockById(1L)).thenReturn(Optional.of(order));
+
+        ResponseEntity<OrderResponse> response = orderController.updateOrderStatus(1L, order.getStatus());
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(orderRepository, never()).save(any(Order.class));
+        verifyNoInteractions(orderOutboxRepository);
+    }
+
+    @Test
+    void updateOrderStatuses_ByIds_ShouldDelegateAndReturnCounts() {
+        BulkStatusUpdateResponse counts = new BulkStatusUpdateResponse(2, 0, 1, List.of(3L));
+        when(orderStatusService.updateByIds(List.of(1L, 2L, 3L), Order.OrderStatus.COMPLETED)).thenReturn(counts);
+
+        ResponseEntity<?> response = orderController.updateOrderStatuses(
+            new BulkStatusUpdateRequest(Order.OrderStatus.COMPLETED, List.of(1L, 2L, 3L), null, null));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(counts, response.getBody());
+    }
+
+    @Test
+    void updateOrderStatuses_ByFilter_ShouldDelegate() {
+        LocalDateTime before = LocalDateTime.of(2025, 1, 1, 0, 0);
+        when(orderStatusService.updateMatching(Order.OrderStatus.CONFIRMED, before, Order.OrderStatus.COMPLETED))
+            .thenReturn(new BulkStatusUpdateResponse(1200, 0, 0, List.of()));
+
+        ResponseEntity<?> response = orderController.updateOrderStatuses(
+            new BulkStatusUpdateRequest(Order.OrderStatus.COMPLETED, null, Order.OrderStatus.CONFIRMED, before));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1200, ((BulkStatusUpdateResponse) response.getBody()).updated());
+    }
+
+    @Test
+    void updateOrderStatuses_WithIdsAndFilter_ShouldReturnBadRequest() {
+        ResponseEntity<?> response = orderController.updateOrderStatuses(new BulkStatusUpdateRequest(
+            Order.OrderStatus.COMPLETED, List.of(1L), Order.OrderStatus.CONFIRMED, null));
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(orderStatusService);
+    }
+
+    @Test
+    void updateOrderStatuses_WithoutSelection_ShouldReturnBadRequest() {
+        ResponseEntity<?> response = orderController.updateOrderStatuses(
+            new BulkStatusUpdateRequest(Order.OrderStatus.COMPLETED, List.of(), null, null));
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(orderStatusService);
+    }
+
+    @Test
+    void deleteOrder_WhenExists_ShouldReturn204AndReverseSales() {
+        Order order = createOrder(1L, 1L, 1L, 2, new BigDecimal("3000.00"));
+        when(orderRepository.lockById(1L)).thenReturn(Optional.of(order));
 
         ResponseEntity<Void> response = orderController.deleteOrder(1L);
 
         assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
         verify(orderRepository, times(1)).deleteById(1L);
+        verify(salesRollupService, times(1)).deleted(List.of(order));
+    }
+
+    @Test
+    void deleteOrder_WhenNotExists_ShouldReturn404() {
+        when(orderRepository.lockById(1L)).thenReturn(Optional.empty());
+
+        ResponseEntity<Void> response = orderController.deleteOrder(1L);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        verify(orderRepository, never()).deleteById(any());
     }
 
     private Order createOrder(Long id, Long customerId, Long productId, Integer quantity, BigDecimal totalPrice) {
@@ -171,13 +542,8 @@ class OrderControllerTest {
         return order;
     }
 
-    private Authentication createMockAuthentication(Long userId) {
-        Authentication auth = mock(Authentication.class);
-        Jwt jwt = mock(Jwt.class);
-        when(auth.getPrincipal()).thenReturn(jwt);
-        when(jwt.getClaims()).thenReturn(userId != null ? Map.of("userId", userId) : Map.of());
-        lenient().when(jwt.getClaimAsString("sub")).thenReturn("testuser");
-        return auth;
+    private ShopPrincipal principal(Long userId) {
+        return new ShopPrincipal(userId != null ? userId : ShopPrincipal.NO_USER_ID, "testuser");
     }
 }
 
@@ -0,0 +1,45 @@
+package ru.mishgan325.docsa.pr8.outbox;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.mishgan325.docsa.pr8.model.OrderOutboxEvent;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileOrderEventSinkTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+        .registerModule(new JavaTimeModule())
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void publish_ShouldAppendOneLinePerEventWithOrderInline() throws Exception {
+        Path file = dir.resolve("events.ndjson");
+        FileOrderEventSink sink = new FileOrderEventSink(objectMapper, file);
+        LocalDateTime now = LocalDateTime.now();
+
+        sink.publish(List.of(new OrderEvent(1L, 10L, OrderOutboxEvent.EventType.CREATED, now,
+            "{\"id\":10,\"status\":\"CONFIRMED\"}")));
+        sink.publish(List.of(new OrderEvent(2L, 10L, OrderOutboxEvent.EventType.STATUS_CHANGED, now,
+            "{\"id\":10,\"status\":\"COMPLETED\"}")));
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(2, lines.size());
+        JsonNode second = objectMapper.readTree(lines.get(1));
+        assertEquals(2L, second.get("eventId").asLong());
+        assertEquals("STATUS_CHANGED", second.get("type").asText());
+        assertEquals("COMPLETED", second.get("order").get("status").asText());
+    }
+}
@@ -0,0 +1,88 @@
+package ru.mishgan325.docsa.pr8.outbox;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.mishgan325.docsa.pr8.model.OrderOutboxEvent;
+import ru.mishgan325.docsa.pr8.repository.OrderOutboxRepository;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderOutboxRelayTest {
+
+    @Mock
+    private OrderOutboxRepository outboxRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final InMemoryOrderEventSink sink = new InMemoryOrderEventSink(100);
+
+    private OrderOutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        relay = new OrderOutboxRelay(outboxRepository, sink, new TransactionTemplate(transactionManager),
+            meterRegistry, 2, 10);
+    }
+
+    @Test
+    void drain_ShouldPublishAndDeleteBatchesUntilOneIsShort() {
+        when(outboxRepository.lockNextBatch(2))
+            .thenReturn(List.of(event(1L), event(2L)))
+            .thenReturn(List.of(event(3L)));
+
+        relay.drain();
+
+        assertEquals(List.of(1L, 2L, 3L), sink.events().stream().map(OrderEvent::eventId).toList());
+        verify(outboxRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(outboxRepository).deleteAllByIdInBatch(List.of(3L));
+        verify(outboxRepository, times(2)).lockNextBatch(2);
+        assertEquals(2, meterRegistry.get("orders.outbox.relay.batch.size").summary().count());
+        assertEquals(3, meterRegistry.get("orders.outbox.relay.lag").timer().count());
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void drain_WhenSinkFails_ShouldKeepEventsAndRollBack() throws Exception {
+        OrderEventSink failingSink = mock(OrderEventSink.class);
+        doThrow(new java.io.IOException("disk full")).when(failingSink).publish(anyList());
+        relay = new OrderOutboxRelay(outboxRepository, failingSink, new TransactionTemplate(transactionManager),
+            meterRegistry, 2, 10);
+        when(outboxRepository.lockNextBatch(2)).thenReturn(List.of(event(1L)));
+
+        relay.drain();
+
+        verify(outboxRepository, never()).deleteAllByIdInBatch(any());
+        verify(transactionManager).rollback(any());
+        assertEquals(1.0, meterRegistry.get("orders.outbox.relay.failures").counter().count());
+    }
+
+    @Test
+    void drain_WhenOutboxEmpty_ShouldPublishNothing() {
+        when(outboxRepository.lockNextBatch(2)).thenReturn(List.of());
+
+        relay.drain();
+
+        assertTrue(sink.events().isEmpty());
+        verify(outboxRepository, never()).deleteAllByIdInBatch(any());
+    }
+
+    private static OrderOutboxEvent event(Long id) {
+        return new OrderOutboxEvent(id, 10L + id, OrderOutboxEvent.EventType.CREATED,
+            "{\"id\":" + (10L + id) + "}", LocalDateTime.now().minusSeconds(1));
+    }
+}
@@ -0,0 +1,100 @@
+package ru.mishgan325.docsa.pr8.service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import ru.mishgan325.docsa.pr8.client.CustomerCache;
+import ru.mishgan325.docsa.pr8.client.CustomerClient;
+import ru.mishgan325.docsa.pr8.client.ProductClient;
+import ru.mishgan325.docsa.pr8.client.ProductLookupBatcher;
+import ru.mishgan325.docsa.pr8.config.DownstreamExecutorConfig;
+import ru.mishgan325.docsa.pr8.dto.CustomerDto;
+import ru.mishgan325.docsa.pr8.dto.ProductDto;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CheckoutLookupServiceTest {
+
+    @Mock
+    private CustomerClient customerClient;
+
+    @Mock
+    private ProductClient productClient;
+
+    private ExecutorService executor;
+    private SimpleMeterRegistry meterRegistry;
+    private ProductLookupBatcher productLookupBatcher;
+    private CheckoutLookupService checkoutLookupService;
+
+    @BeforeEach
+    void setUp() {
+        executor = new DownstreamExecutorConfig().downstreamExecutor(2, 8);
+        meterRegistry = new SimpleMeterRegistry();
+        productLookupBatcher = new ProductLookupBatcher(productClient, executor, meterRegistry, Duration.ZERO, 100);
+        CustomerCache customerCache = new CustomerCache(
+            customerClient, meterRegistry, 100, Duration.ofMinutes(1), Duration.ofSeconds(1));
+        checkoutLookupService = new CheckoutLookupService(customerCache, productLookupBatcher, executor, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        productLookupBatcher.destroy();
+        executor.shutdownNow();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void lookup_ShouldRunBothCallsConcurrentlyAndForwardCallerSecurityContext() {
+        Authentication auth = new JwtAuthenticationToken(Jwt.withTokenValue("token")
+            .header("alg", "none")
+            .claim("sub", "testuser")
+            .build());
+        SecurityContextHolder.getContext().setAuthentication(auth);
+
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        when(customerClient.getCustomerByUserId(100L)).thenAnswer(invocation -> {
+            assertSame(auth, SecurityContextHolder.getContext().getAuthentication());
+            bothStarted.countDown();
+            assertTrue(bothStarted.await(5, TimeUnit.SECONDS));
+            return new CustomerDto(1L, 100L, "Ivan", "+7-999-123", "Moscow");
+        });
+        when(productClient.getProductsByIds(List.of(1L))).thenAnswer(invocation -> {
+            bothStarted.countDown();
+            assertTrue(bothStarted.await(5, TimeUnit.SECONDS));
+            return List.of(new ProductDto(1L, "Laptop", new BigDecimal("1500.00"), 10));
+        });
+
+        CheckoutLookupService.CheckoutLookup lookup = checkoutLookupService.lookup(100L, 1L);
+
+        assertEquals(1L, lookup.customer().id());
+        assertEquals(1L, lookup.product().id());
+        assertEquals(1, meterRegistry.get("orders.create.lookup").tag("phase", "total").timer().count());
+    }
+
+    @Test
+    void lookup_WhenCallFails_ShouldRethrowOriginalException() {
+        when(customerClient.getCustomerByUserId(100L)).thenThrow(new IllegalStateException("customer-service down"));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+            () -> checkoutLookupService.lookup(100L, 1L));
+
+        assertEquals("customer-service down", e.getMessage());
+    }
+}
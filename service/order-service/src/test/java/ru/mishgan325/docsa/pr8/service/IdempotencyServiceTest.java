@@ -0,0 +1,212 @@
+package ru.mishgan325.docsa.pr8.service;
+
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import ru.mishgan325.docsa.pr8.model.IdempotencyRecord;
+import ru.mishgan325.docsa.pr8.repository.IdempotencyRecordRepository;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    private static final Long USER_ID = 100L;
+    private static final IdempotencyRecord.Key KEY = new IdempotencyRecord.Key(USER_ID, "k1");
+
+    @Mock
+    private IdempotencyRecordRepository repository;
+
+    private IdempotencyService idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyService(repository, new ObjectMapper(), new SimpleMeterRegistry(),
+            Duration.ofHours(24), Duration.ofSeconds(60), Duration.ofSeconds(2),
+            100, Duration.ofMinutes(5), 2);
+    }
+
+    @Test
+    void execute_ShouldStoreFirstResponseAndReplayRetryFromFrontCache() {
+        when(repository.claim(eq(USER_ID), eq("k1"), anyString(), any(), any())).thenReturn(1);
+        AtomicInteger runs = new AtomicInteger();
+
+        ResponseEntity<?> first = idempotencyService.execute(USER_ID, "k1", Map.of("productId", 1), () -> {
+            runs.incrementAndGet();
+            return ResponseEntity.status(HttpStatus.CREATED).body(Map.of("id", 7));
+        });
+        ResponseEntity<?> retry = idempotencyService.execute(USER_ID, "k1", Map.of("productId", 1), () -> {
+            runs.incrementAndGet();
+            return ResponseEntity.internalServerError().build();
+        });
+
+        assertEquals(1, runs.get());
+        assertEquals(HttpStatus.CREATED, first.getStatusCode());
+        assertEquals(HttpStatus.CREATED, retry.getStatusCode());
+        assertEquals("{\"id\":7}", retry.getBody());
+        assertEquals(MediaType.APPLICATION_JSON, retry.getHeaders().getContentType());
+        verify(repository).complete(eq(USER_ID), eq("k1"), eq(IdempotencyRecord.Status.COMPLETED),
+            eq(201), eq(MediaType.APPLICATION_JSON_VALUE), eq("{\"id\":7}"), any());
+        verify(repository, times(1)).claim(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void execute_WhenCompletedElsewhere_ShouldReplayStoredResponse() {
+        when(repository.claim(eq(USER_ID), eq("k1"), anyString(), any(), any())).thenReturn(0);
+        String hash = requestHash();
+        when(repository.findById(KEY)).thenReturn(Optional.of(new IdempotencyRecord(USER_ID, "k1", hash,
+            IdempotencyRecord.Status.COMPLETED, 400, MediaType.TEXT_PLAIN_VALUE, "Product not found",
+            LocalDateTime.now(), LocalDateTime.now().plusHours(1))));
+
+        ResponseEntity<?> response = idempotencyService.execute(USER_ID, "k1", Map.of("productId", 1),
+            () -> fail("must not run again"));
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("Product not found", response.getBody());
+        verify(repository, never()).complete(any(), any(), any(), anyInt(), any(), any(), any());
+    }
+
+    @Test
+    void execute_WhenKeyReusedForDifferentRequest_ShouldReturnUnprocessableEntity() {
+        when(repository.claim(eq(USER_ID), eq("k1"), anyString(), any(), any())).thenReturn(1);
+        idempotencyService.execute(USER_ID, "k1", Map.of("productId", 1), () -> ResponseEntity.ok("done"));
+
+        ResponseEntity<?> response = idempotencyService.execute(USER_ID, "k1", Map.of("productId", 2),
+            () -> fail("must not run"));
+
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, response.getStatusCode());
+    }
+
+    @Test
+    void execute_ConcurrentDuplicates_ShouldRunActionOnce() throws Exception {
+        when(repository.claim(eq(USER_ID), eq("k1"), anyString(), any(), any())).thenReturn(1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<ResponseEntity<?>> leader = pool.submit(() ->
+                idempotencyService.execute(USER_ID, "k1", "same", () -> {
+                    runs.incrementAndGet();
+                    started.countDown();
+                    await(proceed);
+                    return ResponseEntity.status(HttpStatus.CREATED).body("created");
+                }));
+            assertTrue(started.await(2, TimeUnit.SECONDS));
+            Future<ResponseEntity<?>> follower = pool.submit(() ->
+                idempotencyService.execute(USER_ID, "k1", "same", () -> {
+                    runs.incrementAndGet();
+                    return ResponseEntity.ok("duplicate");
+                }));
+            proceed.countDown();
+
+            assertEquals("created", leader.get(2, TimeUnit.SECONDS).getBody());
+            assertEquals("created", follower.get(2, TimeUnit.SECONDS).getBody());
+            assertEquals(1, runs.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void execute_WhenServerError_ShouldReleaseKeyAndRunAgainOnRetry() {
+        when(repository.claim(eq(USER_ID), eq("k1"), anyString(), any(), any())).thenReturn(1);
+
+        ResponseEntity<?> failed = idempotencyService.execute(USER_ID, "k1", "same",
+            () -> ResponseEntity.internalServerError().body("db down"));
+        ResponseEntity<?> retried = idempotencyService.execute(USER_ID, "k1", "same",
+            () -> ResponseEntity.status(HttpStatus.CREATED).body("created"));
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, failed.getStatusCode());
+        assertEquals(HttpStatus.CREATED, retried.getStatusCode());
+        verify(repository).release(USER_ID, "k1", IdempotencyRecord.Status.IN_PROGRESS);
+        verify(repository, times(1)).complete(any(), any(), any(), anyInt(), any(), any(), any());
+    }
+
+    @Test
+    void execute_WhenOwnerReleasedKey_ShouldClaimItAndRun() {
+        when(repository.claim(eq(USER_ID), eq("k1"), anyString(), any(), any())).thenReturn(0, 1);
+        when(repository.findById(KEY)).thenReturn(Optional.empty());
+
+        ResponseEntity<?> response = idempotencyService.execute(USER_ID, "k1", "same",
+            () -> ResponseEntity.status(HttpStatus.CREATED).body("created"));
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        verify(repository, times(2)).claim(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void execute_WhenClaimKeepsBeingLost_ShouldGiveUpAfterWaitTimeout() {
+        IdempotencyService shortWait = new IdempotencyService(repository, new ObjectMapper(), new SimpleMeterRegistry(),
+            Duration.ofHours(24), Duration.ofSeconds(60), Duration.ofMillis(100),
+            100, Duration.ofMinutes(5), 2);
+        when(repository.claim(eq(USER_ID), eq("k1"), anyString(), any(), any())).thenReturn(0);
+        when(repository.findById(KEY)).thenReturn(Optional.empty());
+
+        long start = System.nanoTime();
+        ResponseEntity<?> response = shortWait.execute(USER_ID, "k1", "same", () -> fail("must not run"));
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(2)) < 0);
+    }
+
+    @Test
+    void execute_WhenKeyTooLong_ShouldReturnBadRequest() {
+        ResponseEntity<?> response = idempotencyService.execute(USER_ID, "x".repeat(129), "same",
+            () -> fail("must not run"));
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void purgeExpired_ShouldDeleteInBatchesUntilOneComesBackShort() {
+        when(repository.deleteExpired(any(), eq(2))).thenReturn(2, 2, 1);
+
+        idempotencyService.purgeExpired();
+
+        verify(repository, times(3)).deleteExpired(any(), eq(2));
+    }
+
+    private static String requestHash() {
+        try {
+            byte[] body = new ObjectMapper().writeValueAsBytes(Map.of("productId", 1));
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package ru.mishgan325.docsa.pr8.service;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.mishgan325.docsa.pr8.model.Order;
+import ru.mishgan325.docsa.pr8.repository.OrderRepository;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderExportServiceTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+        .registerModule(new JavaTimeModule())
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private OrderExportService orderExportService;
+
+    @BeforeEach
+    void setUp() {
+        orderExportService = new OrderExportService(orderRepository, entityManager, objectMapper);
+    }
+
+    @Test
+    void exportNdjson_ShouldWriteOneLinePerOrderAndDetachEach() throws Exception {
+        Order first = createOrder(1L);
+        Order second = createOrder(2L);
+        when(orderRepository.streamForExport(null, null, Order.OrderStatus.CONFIRMED))
+            .thenReturn(Stream.of(first, second));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long written = orderExportService.exportNdjson(null, null, Order.OrderStatus.CONFIRMED, out);
+
+        assertEquals(2, written);
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        JsonNode line = objectMapper.readTree(lines[1]);
+        assertEquals(2L, line.get("id").asLong());
+        assertEquals("CONFIRMED", line.get("status").asText());
+        verify(entityManager).detach(first);
+        verify(entityManager).detach(second);
+    }
+
+    @Test
+    void exportNdjson_ShouldFlushOnlyEveryFlushEveryRowsWithoutLeadingSeparators() throws Exception {
+        int rows = OrderExportService.FLUSH_EVERY * 2 + 1;
+        when(orderRepository.streamForExport(null, null, null))
+            .thenReturn(LongStream.rangeClosed(1, rows).mapToObj(this::createOrder));
+        AtomicInteger flushes = new AtomicInteger();
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void flush() {
+                flushes.incrementAndGet();
+            }
+        };
+
+        orderExportService.exportNdjson(null, null, null, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(rows, lines.length);
+        for (String line : lines) {
+            assertFalse(Character.isWhitespace(line.charAt(0)), "line starts with whitespace: " + line);
+        }
+        // One flush per FLUSH_EVERY rows, plus one for the tail when the generator closes.
+        assertEquals(rows / OrderExportService.FLUSH_EVERY + 1, flushes.get());
+    }
+
+    private Order createOrder(Long id) {
+        Order order = new Order();
+        order.setId(id);
+        order.setCustomerId(1L);
+        order.setProductId(1L);
+        order.setQuantity(1);
+        order.setTotalPrice(new BigDecimal("10.00"));
+        order.setStatus(Order.OrderStatus.CONFIRMED);
+        order.setCreatedAt(LocalDateTime.of(2025, 1, 1, 12, 0));
+        return order;
+    }
+}
@@ -0,0 +1,107 @@
+package ru.mishgan325.docsa.pr8.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.mishgan325.docsa.pr8.dto.BulkStatusUpdateResponse;
+import ru.mishgan325.docsa.pr8.model.Order;
+import ru.mishgan325.docsa.pr8.model.OrderOutboxEvent;
+import ru.mishgan325.docsa.pr8.outbox.OrderOutbox;
+import ru.mishgan325.docsa.pr8.repository.OrderRepository;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderStatusServiceTest {
+
+    private static final Order.OrderStatus COMPLETED = Order.OrderStatus.COMPLETED;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private OrderOutbox orderOutbox;
+
+    @Mock
+    private SalesRollupService salesRollupService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private OrderStatusService orderStatusService;
+
+    @BeforeEach
+    void setUp() {
+        orderStatusService = new OrderStatusService(
+            orderRepository, orderOutbox, salesRollupService, new TransactionTemplate(transactionManager), 2);
+    }
+
+    @Test
+    void updateByIds_ShouldUpdateInChunksAndCountUnchangedAndMissing() {
+        Order first = createOrder(1L);
+        Order third = createOrder(3L);
+        when(orderRepository.lockForStatusChange(List.of(1L, 2L), COMPLETED)).thenReturn(List.of(first));
+        when(orderRepository.lockForStatusChange(List.of(3L, 4L), COMPLETED)).thenReturn(List.of(third));
+        when(orderRepository.findExistingIds(List.of(2L))).thenReturn(List.of(2L));
+        when(orderRepository.findExistingIds(List.of(4L))).thenReturn(List.of());
+
+        BulkStatusUpdateResponse response = orderStatusService.updateByIds(List.of(1L, 2L, 3L, 4L, 1L), COMPLETED);
+
+        assertEquals(new BulkStatusUpdateResponse(2, 1, 1, List.of(4L)), response);
+        verify(orderRepository).updateStatus(List.of(1L), COMPLETED);
+        verify(orderRepository).updateStatus(List.of(3L), COMPLETED);
+        verify(orderOutbox).record(List.of(first), OrderOutboxEvent.EventType.STATUS_CHANGED);
+        verify(salesRollupService).statusChanging(List.of(first), COMPLETED);
+        assertEquals(COMPLETED, first.getStatus());
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void updateMatching_ShouldLoopUntilChunkComesBackShort() {
+        LocalDateTime before = LocalDateTime.of(2025, 1, 1, 0, 0);
+        when(orderRepository.lockMatchingForStatusChange(COMPLETED, Order.OrderStatus.CONFIRMED, before, Limit.of(2)))
+            .thenReturn(List.of(createOrder(1L), createOrder(2L)))
+            .thenReturn(List.of(createOrder(3L)));
+
+        BulkStatusUpdateResponse response = orderStatusService.updateMatching(Order.OrderStatus.CONFIRMED, before, COMPLETED);
+
+        assertEquals(3, response.updated());
+        verify(orderRepository).updateStatus(List.of(1L, 2L), COMPLETED);
+        verify(orderRepository).updateStatus(List.of(3L), COMPLETED);
+        verify(orderRepository, times(2)).lockMatchingForStatusChange(any(), any(), any(), any());
+    }
+
+    @Test
+    void updateMatching_WhenNothingMatches_ShouldNotUpdate() {
+        when(orderRepository.lockMatchingForStatusChange(COMPLETED, Order.OrderStatus.PENDING, null, Limit.of(2)))
+            .thenReturn(List.of());
+
+        BulkStatusUpdateResponse response = orderStatusService.updateMatching(Order.OrderStatus.PENDING, null, COMPLETED);
+
+        assertEquals(0, response.updated());
+        verify(orderRepository, never()).updateStatus(any(), any());
+        verifyNoInteractions(orderOutbox);
+    }
+
+    private static Order createOrder(Long id) {
+        Order order = new Order();
+        order.setId(id);
+        order.setCustomerId(1L);
+        order.setProductId(1L);
+        order.setQuantity(1);
+        order.setTotalPrice(new BigDecimal("10.00"));
+        order.setStatus(Order.OrderStatus.CONFIRMED);
+        order.setCreatedAt(LocalDateTime.now());
+        return order;
+    }
+}
@@ -0,0 +1,112 @@
+package ru.mishgan325.docsa.pr8.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.mishgan325.docsa.pr8.dto.RollupRebuildResult;
+import ru.mishgan325.docsa.pr8.model.CustomerSales;
+import ru.mishgan325.docsa.pr8.model.Order;
+import ru.mishgan325.docsa.pr8.model.ProductDailySales;
+import ru.mishgan325.docsa.pr8.repository.CustomerSalesRepository;
+import ru.mishgan325.docsa.pr8.repository.OrderRepository;
+import ru.mishgan325.docsa.pr8.repository.ProductDailySalesRepository;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SalesRollupRebuildServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 14);
+    private static final Order.OrderStatus CANCELLED = Order.OrderStatus.CANCELLED;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private ProductDailySalesRepository productDailySalesRepository;
+
+    @Mock
+    private CustomerSalesRepository customerSalesRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SalesRollupRebuildService rebuildService;
+
+    @BeforeEach
+    void setUp() {
+        rebuildService = new SalesRollupRebuildService(orderRepository, productDailySalesRepository,
+            customerSalesRepository, entityManager, new TransactionTemplate(transactionManager), 100, 4);
+    }
+
+    @Test
+    void rebuild_ShouldMergeChunkTotalsAndReplaceRollups() {
+        OrderRepository.IdRange range = idRange(1L, 250L);
+        OrderRepository.ProductDayTotal first = productDay(5L, 10);
+        OrderRepository.ProductDayTotal last = productDay(5L, 1);
+        when(orderRepository.findIdRange()).thenReturn(range);
+        when(orderRepository.sumByProductAndDay(anyLong(), anyLong(), eq(CANCELLED))).thenReturn(List.of());
+        when(orderRepository.sumByProductAndDay(1L, 100L, CANCELLED)).thenReturn(List.of(first));
+        when(orderRepository.sumByProductAndDay(201L, 250L, CANCELLED)).thenReturn(List.of(last));
+        when(orderRepository.sumByCustomer(anyLong(), anyLong(), eq(CANCELLED))).thenReturn(List.of());
+
+        RollupRebuildResult result = rebuildService.rebuild().orElseThrow();
+
+        assertEquals(3, result.chunks());
+        assertEquals(1, result.productDays());
+        verify(orderRepository).sumByProductAndDay(101L, 200L, CANCELLED);
+        verify(productDailySalesRepository).deleteAllInBatch();
+        verify(customerSalesRepository).deleteAllInBatch();
+        ArgumentCaptor<Object> persisted = ArgumentCaptor.forClass(Object.class);
+        verify(entityManager).persist(persisted.capture());
+        ProductDailySales merged = (ProductDailySales) persisted.getValue();
+        assertEquals(11L, merged.getUnits());
+        assertEquals(new BigDecimal("110"), merged.getRevenue());
+        assertEquals(2L, merged.getOrderCount());
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void rebuild_WhenNoOrders_ShouldClearRollups() {
+        OrderRepository.IdRange range = idRange(null, null);
+        when(orderRepository.findIdRange()).thenReturn(range);
+
+        RollupRebuildResult result = rebuildService.rebuild().orElseThrow();
+
+        assertEquals(0, result.chunks());
+        verify(productDailySalesRepository).deleteAllInBatch();
+        verify(customerSalesRepository).deleteAllInBatch();
+        verify(entityManager, never()).persist(any(CustomerSales.class));
+    }
+
+    private static OrderRepository.IdRange idRange(Long min, Long max) {
+        OrderRepository.IdRange range = mock(OrderRepository.IdRange.class);
+        lenient().when(range.getMinId()).thenReturn(min);
+        lenient().when(range.getMaxId()).thenReturn(max);
+        return range;
+    }
+
+    private static OrderRepository.ProductDayTotal productDay(Long productId, long units) {
+        OrderRepository.ProductDayTotal total = mock(OrderRepository.ProductDayTotal.class);
+        when(total.getProductId()).thenReturn(productId);
+        when(total.getSalesDate()).thenReturn(DAY);
+        when(total.getUnits()).thenReturn(units);
+        when(total.getRevenue()).thenReturn(BigDecimal.TEN.multiply(BigDecimal.valueOf(units)));
+        when(total.getOrderCount()).thenReturn(1L);
+        return total;
+    }
+}
@@ -0,0 +1,100 @@
+package ru.mishgan325.docsa.pr8.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.mishgan325.docsa.pr8.dto.CustomerSalesResponse;
+import ru.mishgan325.docsa.pr8.model.Order;
+import ru.mishgan325.docsa.pr8.repository.CustomerSalesRepository;
+import ru.mishgan325.docsa.pr8.repository.ProductDailySalesRepository;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SalesRollupServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 14);
+
+    @Mock
+    private ProductDailySalesRepository productDailySalesRepository;
+
+    @Mock
+    private CustomerSalesRepository customerSalesRepository;
+
+    @InjectMocks
+    private SalesRollupService salesRollupService;
+
+    @Test
+    void created_ShouldAddOneDeltaPerProductDayAndCustomerInKeyOrder() {
+        salesRollupService.created(List.of(
+            createOrder(2L, 7L, 1, "10.00", Order.OrderStatus.CONFIRMED),
+            createOrder(1L, 7L, 2, "30.00", Order.OrderStatus.CONFIRMED),
+            createOrder(2L, 7L, 3, "30.00", Order.OrderStatus.CONFIRMED),
+            createOrder(1L, 7L, 5, "50.00", Order.OrderStatus.CANCELLED)));
+
+        InOrder inOrder = inOrder(productDailySalesRepository);
+        inOrder.verify(productDailySalesRepository).addDelta(1L, DAY, 2, new BigDecimal("30.00"), 1);
+        inOrder.verify(productDailySalesRepository).addDelta(2L, DAY, 4, new BigDecimal("40.00"), 2);
+        verify(customerSalesRepository).addDelta(7L, 6, new BigDecimal("70.00"), 3);
+    }
+
+    @Test
+    void statusChanging_ToCancelled_ShouldReverseOnlyCountedOrders() {
+        salesRollupService.statusChanging(List.of(
+            createOrder(1L, 7L, 2, "30.00", Order.OrderStatus.CONFIRMED),
+            createOrder(1L, 7L, 1, "15.00", Order.OrderStatus.CANCELLED)), Order.OrderStatus.CANCELLED);
+
+        verify(productDailySalesRepository).addDelta(1L, DAY, -2, new BigDecimal("-30.00"), -1);
+        verify(customerSalesRepository).addDelta(7L, -2, new BigDecimal("-30.00"), -1);
+    }
+
+    @Test
+    void statusChanging_FromCancelled_ShouldRestoreSales() {
+        salesRollupService.statusChanging(List.of(
+            createOrder(1L, 7L, 2, "30.00", Order.OrderStatus.CANCELLED)), Order.OrderStatus.CONFIRMED);
+
+        verify(productDailySalesRepository).addDelta(1L, DAY, 2, new BigDecimal("30.00"), 1);
+        verify(customerSalesRepository).addDelta(7L, 2, new BigDecimal("30.00"), 1);
+    }
+
+    @Test
+    void statusChanging_BetweenCountedStatuses_ShouldNotTouchRollups() {
+        salesRollupService.statusChanging(List.of(
+            createOrder(1L, 7L, 2, "30.00", Order.OrderStatus.CONFIRMED)), Order.OrderStatus.COMPLETED);
+
+        verifyNoInteractions(productDailySalesRepository, customerSalesRepository);
+    }
+
+    @Test
+    void getCustomerSales_WhenNoRollup_ShouldReturnZeros() {
+        when(customerSalesRepository.findById(anyLong())).thenReturn(Optional.empty());
+
+        CustomerSalesResponse response = salesRollupService.getCustomerSales(7L);
+
+        assertEquals(0, response.units());
+        assertEquals(BigDecimal.ZERO, response.revenue());
+    }
+
+    private static Order createOrder(Long productId, Long customerId, int quantity, String totalPrice,
+                                     Order.OrderStatus status) {
+        Order order = new Order();
+        order.setCustomerId(customerId);
+        order.setProductId(productId);
+        order.setQuantity(quantity);
+        order.setTotalPrice(new BigDecimal(totalPrice));
+        order.setStatus(status);
+        order.setCreatedAt(DAY.atTime(12, 0));
+        return order;
+    }
+}
@@ -0,0 +1,29 @@
+package ru.mishgan325.docsa.pr8.config;
+
+import java.util.Map;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.mishgan325.docsa.pr8.repository.ProductRepository;
+import ru.mishgan325.docsa.pr8.repository.ProductStockStripeRepository;
+import ru.mishgan325.docsa.pr8.web.ETags;
+import ru.mishgan325.docsa.pr8.web.ListETagFilter;
+import ru.mishgan325.docsa.pr8.web.ListVersion;
+
+@Configuration
+public class ConditionalGetConfig {
+
+    /**
+     * {@code GET /products}: the product table's version summary plus the stripes' version
+     * sum, which moves with every striped reservation.
+     */
+    @Bean
+    public ListETagFilter listETagFilter(ProductRepository productRepository,
+                                         ProductStockStripeRepository stripeRepository) {
+        return new ListETagFilter(Map.of("/products", request -> {
+            ListVersion products = productRepository.findListVersion();
+            return ETags.weak(products.getRowCount(), products.getVersionSum(), products.getIdSum(),
+                    stripeRepository.sumVersions());
+        }));
+    }
+}
@@ -4,41 +4,73 @@ import java.util.List;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import ru.mishgan325.docsa.pr8.dto.CreateProductRequest;
 import ru.mishgan325.docsa.pr8.dto.UpdateProductRequest;
 import ru.mishgan325.docsa.pr8.dto.ProductResponse;
+import ru.mishgan325.docsa.pr8.dto.StockRequest;
+import ru.mishgan325.docsa.pr8.dto.StockReservationRequest;
+import ru.mishgan325.docsa.pr8.dto.StockReservationResult;
+import ru.mishgan325.docsa.pr8.dto.StockStripingRequest;
 import ru.mishgan325.docsa.pr8.model.Product;
 import ru.mishgan325.docsa.pr8.repository.ProductRepository;
+import ru.mishgan325.docsa.pr8.service.StockService;
+import ru.mishgan325.docsa.pr8.web.ETags;
 
 @RestController
 @RequestMapping("/products")
 @RequiredArgsConstructor
 public class ProductController {
 
+    private static final int MAX_IDS_PER_LOOKUP = 500;
+
     private final ProductRepository productRepository;
+    private final StockService stockService;
 
     @GetMapping
     public List<ProductResponse> getAllProducts() {
-        return productRepository.findAll().stream()
-                .map(ProductResponse::from)
-                .toList();
+        return stockService.toResponses(productRepository.findAll());
+    }
+
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<ProductResponse>> getProductsByIds(@RequestParam List<Long> ids) {
+        if (ids.size() > MAX_IDS_PER_LOOKUP) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(stockService.toResponses(productRepository.findAllById(ids)));
     }
 
+    /**
+     * Tagged with the product's version; a striped product's tag also carries its live
+     * total, since stripe reservations don't bump the version.
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<ProductResponse> getProductById(@PathVariable Long id) {
+    public ResponseEntity<ProductResponse> getProductById(@PathVariable Long id,
+                                                          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         return productRepository.findById(id)
-                .map(ProductResponse::from)
-                .map(ResponseEntity::ok)
+                .map(product -> {
+                    if (!product.isStriped()) {
+                        return ETags.respond(ifNoneMatch, ETags.strong(product.getId(), product.getVersion()),
+                                () -> ProductResponse.from(product));
+                    }
+                    ProductResponse response = stockService.toResponse(product);
+                    return ETags.respond(ifNoneMatch,
+                            ETags.strong(product.getId(), product.getVersion(), response.quantity()), () -> response);
+                })
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -59,21 +91,86 @@ public class ProductController {
                 .map(product -> {
                     if (request.name() != null) product.setName(request.name());
                     if (request.price() != null) product.setPrice(request.price());
-                    if (request.quantity() != null) product.setQuantity(request.quantity());
+                    if (request.quantity() != null && !product.isStriped()) product.setQuantity(request.quantity());
                     
                     Product updated = productRepository.save(product);
-                    return ResponseEntity.ok(ProductResponse.from(updated));
+                    if (request.quantity() != null && product.isStriped()) {
+                        stockService.setStripedQuantity(id, request.quantity());
+                    }
+                    return ResponseEntity.ok(stockService.toResponse(updated));
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @PostMapping("/{id}/stock/reserve")
+    public ResponseEntity<Void> reserveStock(@PathVariable Long id, @Valid @RequestBody StockRequest request) {
+        return switch (stockService.reserve(id, request.quantity())) {
+            case RESERVED -> ResponseEntity.noContent().build();
+            case INSUFFICIENT -> ResponseEntity.status(HttpStatus.CONFLICT).build();
+            case NOT_FOUND -> ResponseEntity.notFound().build();
+        };
+    }
+
+    @PostMapping("/{id}/stock/release")
+    public ResponseEntity<Void> releaseStock(@PathVariable Long id, @Valid @RequestBody StockRequest request) {
+        if (stockService.release(id, request.quantity())) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Reserves each item independently; one item running out does not undo the others.
+     */
+    @PostMapping("/stock/reserve")
+    public List<StockReservationResult> reserveStock(@Valid @RequestBody StockReservationRequest request) {
+        return request.items().stream()
+                .map(item -> new StockReservationResult(item.productId(), item.quantity(),
+                        stockService.reserve(item.productId(), item.quantity()) == StockService.Outcome.RESERVED))
+                .toList();
+    }
+
+    @PostMapping("/stock/release")
+    public ResponseEntity<Void> releaseStock(@Valid @RequestBody StockReservationRequest request) {
+        request.items().forEach(item -> stockService.release(item.productId(), item.quantity()));
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Spreads the product's stock over several counters so concurrent reservations of a
+     * hot product stop queueing on one row lock.
+     */
+    @PutMapping("/{id}/stock/stripes")
+    public ResponseEntity<ProductResponse> enableStockStriping(@PathVariable Long id, @Valid @RequestBody StockStripingRequest request) {
+        return stockService.enableStriping(id, request.stripes())
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping("/{id}/stock/stripes")
+    public ResponseEntity<ProductResponse> disableStockStriping(@PathVariable Long id) {
+        return stockService.disableStriping(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteProduct(@PathVariable Long id) {
         if (!productRepository.existsById(id)) {
             return ResponseEntity.notFound().build();
         }
         productRepository.deleteById(id);
+        stockService.deleteStripes(id);
         return ResponseEntity.noContent().build();
     }
+
+    /**
+     * The product changed between loading and saving it, typically through a concurrent
+     * stock reservation; the client re-reads and retries.
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Void> handleConcurrentUpdate() {
+        return ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
 }
 
@@ -10,11 +10,15 @@ public record ProductResponse(
     Integer quantity
 ) {
     public static ProductResponse from(Product product) {
+        return from(product, product.getQuantity());
+    }
+
+    public static ProductResponse from(Product product, Integer quantity) {
         return new ProductResponse(
             product.getId(),
             product.getName(),
             product.getPrice(),
-            product.getQuantity()
+            quantity
         );
     }
 }
@@ -0,0 +1,13 @@
+package ru.mishgan325.docsa.pr8.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+public record StockReservationItem(
+    @NotNull(message = "Product ID is required")
+    Long productId,
+
+    @NotNull(message = "Quantity is required")
+    @Positive(message = "Quantity must be positive")
+    Integer quantity
+) {}
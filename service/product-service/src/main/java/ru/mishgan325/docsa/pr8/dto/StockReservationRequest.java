@@ -0,0 +1,13 @@
+package ru.mishgan325.docsa.pr8.dto;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+public record StockReservationRequest(
+    @NotEmpty(message = "At least one item is required")
+    @Size(max = 500, message = "At most 500 items per request")
+    List<@Valid StockReservationItem> items
+) {}
@@ -0,0 +1,12 @@
+package ru.mishgan325.docsa.pr8.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+public record StockStripingRequest(
+    @NotNull(message = "Stripe count is required")
+    @Min(value = 2, message = "At least 2 stripes")
+    @Max(value = 64, message = "At most 64 stripes")
+    Integer stripes
+) {}
@@ -8,10 +8,12 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity
 @Table(name = "products")
@@ -33,5 +35,32 @@ public class Product {
 
     @Column(nullable = false)
     private Integer quantity;
+
+    /**
+     * Number of {@link ProductStockStripe} rows holding this product's stock, or {@code null}
+     * when stock lives in {@link #quantity}. Striped products keep {@code quantity} at 0.
+     */
+    private Integer stockStripes;
+
+    /**
+     * Bumped on every write, including the bulk stock updates in {@code ProductRepository},
+     * and the source of the product's ETag. Stripe reservations leave it alone.
+     */
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
+    public Product(Long id, String name, BigDecimal price, Integer quantity) {
+        this(id, name, price, quantity, null);
+    }
+
+    public Product(Long id, String name, BigDecimal price, Integer quantity, Integer stockStripes) {
+        this(id, name, price, quantity, stockStripes, null);
+    }
+
+    public boolean isStriped() {
+        return stockStripes != null;
+    }
 }
 
@@ -0,0 +1,60 @@
+package ru.mishgan325.docsa.pr8.model;
+
+import java.io.Serializable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
+
+/**
+ * One sub-counter of a striped product's stock. Reservations for hot SKUs are spread
+ * over the stripes so concurrent decrements don't all queue on one row lock.
+ */
+@Entity
+@Table(name = "product_stock_stripes")
+@IdClass(ProductStockStripe.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductStockStripe {
+
+    @Id
+    private Long productId;
+
+    @Id
+    private Integer stripe;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    /**
+     * Bumped with every quantity change, so the product list's ETag notices stripe
+     * reservations that leave {@link Product#getVersion()} untouched.
+     */
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
+    public ProductStockStripe(Long productId, Integer stripe, Integer quantity) {
+        this(productId, stripe, quantity, null);
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long productId;
+        private Integer stripe;
+    }
+}
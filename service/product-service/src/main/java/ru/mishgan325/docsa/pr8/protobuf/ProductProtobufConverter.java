@@ -0,0 +1,86 @@
+package ru.mishgan325.docsa.pr8.protobuf;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Collection;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import ru.mishgan325.docsa.pr8.dto.ProductResponse;
+import ru.mishgan325.docsa.pr8.web.protobuf.LookupSchema;
+import ru.mishgan325.docsa.pr8.web.protobuf.ProtoWriter;
+
+/**
+ * Writes {@link ProductResponse}s as protobuf {@code Product} and {@code ProductList}
+ * messages of {@link LookupSchema} when a caller sends {@code Accept: application/x-protobuf};
+ * order-service does for its lookups. Registered after Jackson by {@link ru.mishgan325.docsa.pr8.config.ProtobufWebConfig}, so
+ * callers that accept anything still get JSON.
+ */
+public class ProductProtobufConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public ProductProtobufConverter() {
+        super(LookupSchema.PROTOBUF);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == ProductResponse.class;
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return (type != null ? isProductOrList(type) : supports(clazz)) && canWrite(mediaType);
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Products are not accepted as protobuf", inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Products are not accepted as protobuf", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Object value, Type type, HttpOutputMessage outputMessage) throws IOException {
+        ProtoWriter writer = new ProtoWriter();
+        if (value instanceof ProductResponse product) {
+            write(writer, product);
+        } else {
+            for (Object item : (Collection<?>) value) {
+                writer.message(LookupSchema.LIST_ITEM, nested -> write(nested, (ProductResponse) item));
+            }
+        }
+        byte[] body = writer.toByteArray();
+        outputMessage.getHeaders().setContentLength(body.length);
+        outputMessage.getBody().write(body);
+    }
+
+    private static boolean isProductOrList(Type type) {
+        return type == ProductResponse.class
+            || type instanceof ParameterizedType parameterized
+                && parameterized.getRawType() instanceof Class<?> raw
+                && Collection.class.isAssignableFrom(raw)
+                && parameterized.getActualTypeArguments()[0] == ProductResponse.class;
+    }
+
+    private static void write(ProtoWriter writer, ProductResponse product) {
+        writer.int64(LookupSchema.PRODUCT_ID, product.id())
+            .string(LookupSchema.PRODUCT_NAME, product.name());
+        if (product.price() != null) {
+            writer.int64(LookupSchema.PRODUCT_PRICE_UNSCALED, product.price().unscaledValue().longValueExact())
+                .int32(LookupSchema.PRODUCT_PRICE_SCALE, product.price().scale());
+        }
+        writer.int32(LookupSchema.PRODUCT_QUANTITY, product.quantity());
+    }
+}
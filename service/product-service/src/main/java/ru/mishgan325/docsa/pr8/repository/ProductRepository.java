@@ -1,10 +1,55 @@
 package ru.mishgan325.docsa.pr8.repository;
 
+import java.util.Optional;
+
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import ru.mishgan325.docsa.pr8.model.Product;
+import ru.mishgan325.docsa.pr8.web.ListVersion;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
-}
 
+    /**
+     * Takes {@code quantity} units in one conditional UPDATE: no entity load and no
+     * read-modify-write window. The row lock is held only for the statement itself.
+     *
+     * @return 1 if reserved, 0 if the product is missing or has too little stock
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update Product p set p.quantity = p.quantity - :quantity, p.version = p.version + 1 where p.id = :id and p.quantity >= :quantity")
+    int reserve(@Param("id") Long id, @Param("quantity") int quantity);
+
+    /**
+     * Returns previously reserved units, e.g. when the order that took them could not be saved.
+     *
+     * @return 1 if released, 0 if the product is missing
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update Product p set p.quantity = p.quantity + :quantity, p.version = p.version + 1 where p.id = :id")
+    int release(@Param("id") Long id, @Param("quantity") int quantity);
+
+    /**
+     * @return the stripe count (0 when not striped), or empty when the product does not exist
+     */
+    @Query("select coalesce(p.stockStripes, 0) from Product p where p.id = :id")
+    Optional<Integer> findStockStripesById(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from Product p where p.id = :id")
+    Optional<Product> lockById(@Param("id") Long id);
+
+    @Query("""
+        select count(p) as rowCount, coalesce(sum(p.version), 0) as versionSum, coalesce(sum(p.id), 0) as idSum
+        from Product p
+        """)
+    ListVersion findListVersion();
+}
@@ -0,0 +1,57 @@
+package ru.mishgan325.docsa.pr8.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.mishgan325.docsa.pr8.model.ProductStockStripe;
+
+@Repository
+public interface ProductStockStripeRepository extends JpaRepository<ProductStockStripe, ProductStockStripe.Key> {
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("""
+        update ProductStockStripe s set s.quantity = s.quantity - :quantity, s.version = s.version + 1
+        where s.productId = :productId and s.stripe = :stripe and s.quantity >= :quantity
+        """)
+    int reserve(@Param("productId") Long productId, @Param("stripe") int stripe, @Param("quantity") int quantity);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("""
+        update ProductStockStripe s set s.quantity = s.quantity + :quantity, s.version = s.version + 1
+        where s.productId = :productId and s.stripe = :stripe
+        """)
+    int release(@Param("productId") Long productId, @Param("stripe") int stripe, @Param("quantity") int quantity);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from ProductStockStripe s where s.productId = :productId order by s.stripe")
+    List<ProductStockStripe> lockAllByProductId(@Param("productId") Long productId);
+
+    @Query("""
+        select s.productId as productId, sum(s.quantity) as quantity from ProductStockStripe s
+        where s.productId in :productIds group by s.productId
+        """)
+    List<StripedTotal> sumByProductIds(@Param("productIds") Collection<Long> productIds);
+
+    @Query("select coalesce(sum(s.version), 0) from ProductStockStripe s")
+    long sumVersions();
+
+    @Transactional
+    @Modifying
+    @Query("delete from ProductStockStripe s where s.productId = :productId")
+    void deleteAllByProductId(@Param("productId") Long productId);
+
+    interface StripedTotal {
+        Long getProductId();
+        Long getQuantity();
+    }
+}
@@ -0,0 +1,203 @@
+package ru.mishgan325.docsa.pr8.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.mishgan325.docsa.pr8.dto.ProductResponse;
+import ru.mishgan325.docsa.pr8.model.Product;
+import ru.mishgan325.docsa.pr8.model.ProductStockStripe;
+import ru.mishgan325.docsa.pr8.repository.ProductRepository;
+import ru.mishgan325.docsa.pr8.repository.ProductStockStripeRepository;
+
+/**
+ * Stock reservations for both plain and striped products.
+ * <p>
+ * A plain product keeps its stock in {@code products.quantity} and is reserved with one
+ * conditional UPDATE. A striped product splits its stock across N
+ * {@code product_stock_stripes} rows: a reservation tries a random stripe, then its
+ * neighbour, and only when both are short locks every stripe to take from several.
+ */
+@Service
+@RequiredArgsConstructor
+public class StockService {
+
+    private static final int FAST_PATH_ATTEMPTS = 2;
+
+    private final ProductRepository productRepository;
+    private final ProductStockStripeRepository stripeRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public enum Outcome {
+        RESERVED, INSUFFICIENT, NOT_FOUND
+    }
+
+    public Outcome reserve(Long productId, int quantity) {
+        // Plain products succeed here in a single statement. Striped ones hold 0 in
+        // products.quantity, so the UPDATE matches nothing and locks nothing.
+        if (productRepository.reserve(productId, quantity) == 1) {
+            return Outcome.RESERVED;
+        }
+        Optional<Integer> stripes = productRepository.findStockStripesById(productId);
+        if (stripes.isEmpty()) {
+            return Outcome.NOT_FOUND;
+        }
+        if (stripes.get() == 0) {
+            return Outcome.INSUFFICIENT;
+        }
+        return reserveStriped(productId, stripes.get(), quantity);
+    }
+
+    public boolean release(Long productId, int quantity) {
+        Optional<Integer> stripes = productRepository.findStockStripesById(productId);
+        if (stripes.isEmpty()) {
+            return false;
+        }
+        if (stripes.get() > 0
+                && stripeRepository.release(productId, randomStripe(stripes.get()), quantity) == 1) {
+            return true;
+        }
+        return productRepository.release(productId, quantity) == 1;
+    }
+
+    /**
+     * Moves the product's current stock into {@code stripes} evenly filled sub-counters.
+     */
+    @Transactional
+    public Optional<ProductResponse> enableStriping(Long productId, int stripes) {
+        return productRepository.lockById(productId).map(product -> {
+            int total = foldStripes(product);
+            writeStripes(productId, stripes, total);
+            product.setQuantity(0);
+            product.setStockStripes(stripes);
+            return ProductResponse.from(product, total);
+        });
+    }
+
+    /**
+     * Folds every stripe back into {@code products.quantity}.
+     */
+    @Transactional
+    public Optional<ProductResponse> disableStriping(Long productId) {
+        return productRepository.lockById(productId).map(product -> {
+            int total = foldStripes(product);
+            product.setQuantity(total);
+            product.setStockStripes(null);
+            return ProductResponse.from(product);
+        });
+    }
+
+    /**
+     * Sets a striped product's total stock, redistributing it over the existing stripe count.
+     */
+    @Transactional
+    public void setStripedQuantity(Long productId, int quantity) {
+        productRepository.lockById(productId).filter(Product::isStriped).ifPresent(product -> {
+            List<ProductStockStripe> locked = stripeRepository.lockAllByProductId(productId);
+            for (ProductStockStripe stripe : locked) {
+                stripe.setQuantity(share(quantity, locked.size(), stripe.getStripe()));
+            }
+        });
+    }
+
+    public void deleteStripes(Long productId) {
+        stripeRepository.deleteAllByProductId(productId);
+    }
+
+    public ProductResponse toResponse(Product product) {
+        return toResponses(List.of(product)).get(0);
+    }
+
+    /**
+     * Builds responses with the live total for striped products, in one grouped query.
+     */
+    public List<ProductResponse> toResponses(List<Product> products) {
+        List<Long> stripedIds = products.stream()
+                .filter(Product::isStriped)
+                .map(Product::getId)
+                .toList();
+        if (stripedIds.isEmpty()) {
+            return products.stream().map(ProductResponse::from).toList();
+        }
+        Map<Long, Long> totals = stripeRepository.sumByProductIds(stripedIds).stream()
+                .collect(Collectors.toMap(
+                        ProductStockStripeRepository.StripedTotal::getProductId,
+                        ProductStockStripeRepository.StripedTotal::getQuantity));
+        return products.stream()
+                .map(product -> product.isStriped()
+                        ? ProductResponse.from(product, totals.getOrDefault(product.getId(), 0L).intValue())
+                        : ProductResponse.from(product))
+                .toList();
+    }
+
+    private Outcome reserveStriped(Long productId, int stripes, int quantity) {
+        int start = randomStripe(stripes);
+        for (int i = 0; i < Math.min(FAST_PATH_ATTEMPTS, stripes); i++) {
+            if (stripeRepository.reserve(productId, (start + i) % stripes, quantity) == 1) {
+                return Outcome.RESERVED;
+            }
+        }
+        Outcome outcome = transactionTemplate.execute(status -> reserveAcrossStripes(productId, quantity));
+        if (outcome == Outcome.NOT_FOUND) {
+            // Striping was switched off between our reads: stock is back in products.quantity.
+            return productRepository.reserve(productId, quantity) == 1 ? Outcome.RESERVED : Outcome.INSUFFICIENT;
+        }
+        return outcome;
+    }
+
+    private Outcome reserveAcrossStripes(Long productId, int quantity) {
+        List<ProductStockStripe> locked = stripeRepository.lockAllByProductId(productId);
+        if (locked.isEmpty()) {
+            return Outcome.NOT_FOUND;
+        }
+        int total = locked.stream().mapToInt(ProductStockStripe::getQuantity).sum();
+        if (total < quantity) {
+            return Outcome.INSUFFICIENT;
+        }
+        int remaining = quantity;
+        for (ProductStockStripe stripe : locked) {
+            int taken = Math.min(stripe.getQuantity(), remaining);
+            stripe.setQuantity(stripe.getQuantity() - taken);
+            remaining -= taken;
+            if (remaining == 0) {
+                break;
+            }
+        }
+        return Outcome.RESERVED;
+    }
+
+    private int foldStripes(Product product) {
+        if (!product.isStriped()) {
+            return product.getQuantity();
+        }
+        List<ProductStockStripe> locked = stripeRepository.lockAllByProductId(product.getId());
+        int total = locked.stream().mapToInt(ProductStockStripe::getQuantity).sum();
+        stripeRepository.deleteAll(locked);
+        // Hibernate runs inserts before deletes; flush so re-created stripes don't collide.
+        stripeRepository.flush();
+        return product.getQuantity() + total;
+    }
+
+    private void writeStripes(Long productId, int stripes, int total) {
+        List<ProductStockStripe> rows = new ArrayList<>(stripes);
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            rows.add(new ProductStockStripe(productId, stripe, share(total, stripes, stripe)));
+        }
+        stripeRepository.saveAll(rows);
+    }
+
+    private static int share(int total, int stripes, int stripe) {
+        return total / stripes + (stripe < total % stripes ? 1 : 0);
+    }
+
+    private static int randomStripe(int stripes) {
+        return ThreadLocalRandom.current().nextInt(stripes);
+    }
+}
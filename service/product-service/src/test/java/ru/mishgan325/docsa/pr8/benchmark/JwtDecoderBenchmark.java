@@ -0,0 +1,103 @@
+package ru.mishgan325.docsa.pr8.benchmark;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationProvider;
+import ru.mishgan325.docsa.pr8.security.CachingJwtDecoder;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Authenticated requests per second through the resource server's
+ * {@code JwtAuthenticationProvider}, with the plain RS256 {@code NimbusJwtDecoder} and with
+ * {@link CachingJwtDecoder} in front of it. Each simulated request picks one of a fixed set
+ * of clients' tokens, as clients reuse their access token until it expires.
+ * <pre>
+ * gradle :service:product-service:benchmark -Dbenchmark.threads=16 -Dbenchmark.clients=1000
+ * </pre>
+ */
+@Tag("benchmark")
+class JwtDecoderBenchmark {
+
+    private static final int THREADS = Integer.getInteger("benchmark.threads", 8);
+    private static final int CLIENTS = Integer.getInteger("benchmark.clients", 500);
+    private static final Duration RUN_TIME = Duration.ofSeconds(Integer.getInteger("benchmark.seconds", 5));
+
+    @Test
+    void plainVersusCachingDecoder() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair keyPair = generator.generateKeyPair();
+        RSAKey key = new RSAKey.Builder((RSAPublicKey) keyPair.getPublic()).privateKey(keyPair.getPrivate()).build();
+        NimbusJwtEncoder encoder = new NimbusJwtEncoder(new ImmutableJWKSet<>(new JWKSet(key)));
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < CLIENTS; i++) {
+            Instant now = Instant.now();
+            JwtClaimsSet claims = JwtClaimsSet.builder()
+                .subject("user-" + i)
+                .claim("userId", i)
+                .issuedAt(now)
+                .expiresAt(now.plus(Duration.ofHours(1)))
+                .build();
+            tokens.add(encoder.encode(JwtEncoderParameters.from(claims)).getTokenValue());
+        }
+        NimbusJwtDecoder plain = NimbusJwtDecoder.withPublicKey((RSAPublicKey) keyPair.getPublic()).build();
+
+        run("plain", plain, tokens);
+        run("caching", new CachingJwtDecoder(plain, 10_000, Duration.ofHours(1)), tokens);
+    }
+
+    private static void run(String mode, JwtDecoder decoder, List<String> tokens) throws Exception {
+        JwtAuthenticationProvider provider = new JwtAuthenticationProvider(decoder);
+        // warm-up, which also fills the cache as the first request of every client would
+        tokens.forEach(token -> provider.authenticate(new BearerTokenAuthenticationToken(token)));
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            long deadline = System.nanoTime() + RUN_TIME.toNanos();
+            List<Future<Long>> workers = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                workers.add(pool.submit(() -> {
+                    long requests = 0;
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline) {
+                        String token = tokens.get(random.nextInt(tokens.size()));
+                        assertTrue(provider.authenticate(new BearerTokenAuthenticationToken(token)).isAuthenticated());
+                        requests++;
+                    }
+                    return requests;
+                }));
+            }
+            long total = 0;
+            for (Future<Long> worker : workers) {
+                total += worker.get(RUN_TIME.toSeconds() + 30, TimeUnit.SECONDS);
+            }
+            System.out.printf("%-8s threads=%d clients=%d requests/s=%d%n",
+                mode, THREADS, tokens.size(), total / RUN_TIME.toSeconds());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
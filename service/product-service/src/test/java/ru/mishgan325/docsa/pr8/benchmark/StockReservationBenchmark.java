@@ -0,0 +1,178 @@
+package ru.mishgan325.docsa.pr8.benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Many threads reserving one unit each from a single hot SKU, comparing the
+ * conditional UPDATE used by {@code ProductRepository.reserve} against a
+ * read-modify-write under {@code SELECT ... FOR UPDATE}, and the striped counters used by
+ * {@code StockService} for hot products. Needs a PostgreSQL database:
+ * <pre>
+ * gradle :service:product-service:benchmark -Dbenchmark.jdbc.url=jdbc:postgresql://localhost:5432/product_db \
+ *     -Dbenchmark.jdbc.user=postgres -Dbenchmark.jdbc.password=postgres
+ * </pre>
+ * Works on its own {@code bench_products}/{@code bench_product_stripes} tables, so it never
+ * touches real stock.
+ */
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "benchmark.jdbc.url", matches = ".+")
+class StockReservationBenchmark {
+
+    private static final int THREADS = Integer.getInteger("benchmark.threads", 64);
+    private static final int RESERVATIONS_PER_THREAD = Integer.getInteger("benchmark.reservations", 200);
+    private static final int INITIAL_STOCK = THREADS * RESERVATIONS_PER_THREAD / 2;
+    private static final int STRIPES = Integer.getInteger("benchmark.stripes", 16);
+
+    private static final String CONDITIONAL_UPDATE =
+        "update bench_products set quantity = quantity - ? where id = 1 and quantity >= ?";
+
+    private static final String STRIPE_UPDATE =
+        "update bench_product_stripes set quantity = quantity - ? where stripe = ? and quantity >= ?";
+
+    @Test
+    void conditionalUpdateVersusReadModifyWrite() throws Exception {
+        run("conditional-update", connection -> {
+            try (PreparedStatement update = connection.prepareStatement(CONDITIONAL_UPDATE)) {
+                update.setInt(1, 1);
+                update.setInt(2, 1);
+                return update.executeUpdate() == 1;
+            }
+        });
+        run("select-for-update", connection -> {
+            connection.setAutoCommit(false);
+            try (PreparedStatement select = connection.prepareStatement(
+                     "select quantity from bench_products where id = 1 for update");
+                 PreparedStatement update = connection.prepareStatement(
+                     "update bench_products set quantity = ? where id = 1")) {
+                int quantity;
+                try (ResultSet rs = select.executeQuery()) {
+                    rs.next();
+                    quantity = rs.getInt(1);
+                }
+                if (quantity < 1) {
+                    connection.rollback();
+                    return false;
+                }
+                update.setInt(1, quantity - 1);
+                update.executeUpdate();
+                connection.commit();
+                return true;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        });
+        run("striped-" + STRIPES, connection -> {
+            int start = ThreadLocalRandom.current().nextInt(STRIPES);
+            try (PreparedStatement update = connection.prepareStatement(STRIPE_UPDATE)) {
+                for (int i = 0; i < 2; i++) {
+                    update.setInt(1, 1);
+                    update.setInt(2, (start + i) % STRIPES);
+                    update.setInt(3, 1);
+                    if (update.executeUpdate() == 1) {
+                        return true;
+                    }
+                }
+            }
+            // Same slow path as StockService: lock every stripe and take from whichever has stock.
+            connection.setAutoCommit(false);
+            try (PreparedStatement select = connection.prepareStatement(
+                     "select stripe from bench_product_stripes where quantity > 0 order by stripe for update");
+                 PreparedStatement update = connection.prepareStatement(STRIPE_UPDATE)) {
+                try (ResultSet rs = select.executeQuery()) {
+                    if (!rs.next()) {
+                        connection.rollback();
+                        return false;
+                    }
+                    update.setInt(1, 1);
+                    update.setInt(2, rs.getInt(1));
+                    update.setInt(3, 1);
+                }
+                boolean reserved = update.executeUpdate() == 1;
+                connection.commit();
+                return reserved;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        });
+    }
+
+    private void run(String mode, Reservation reservation) throws Exception {
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.execute("create table if not exists bench_products (id bigint primary key, quantity int not null)");
+            statement.execute("delete from bench_products");
+            statement.execute("insert into bench_products values (1, " + INITIAL_STOCK + ")");
+            statement.execute("create table if not exists bench_product_stripes (stripe int primary key, quantity int not null)");
+            statement.execute("delete from bench_product_stripes");
+            for (int stripe = 0; stripe < STRIPES; stripe++) {
+                int share = INITIAL_STOCK / STRIPES + (stripe < INITIAL_STOCK % STRIPES ? 1 : 0);
+                statement.execute("insert into bench_product_stripes values (" + stripe + ", " + share + ")");
+            }
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Callable<Integer>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            workers.add(() -> {
+                int reserved = 0;
+                try (Connection connection = connect()) {
+                    for (int i = 0; i < RESERVATIONS_PER_THREAD; i++) {
+                        if (reservation.reserve(connection)) {
+                            reserved++;
+                        }
+                    }
+                }
+                return reserved;
+            });
+        }
+
+        long start = System.nanoTime();
+        int reserved = 0;
+        for (Future<Integer> result : pool.invokeAll(workers)) {
+            reserved += result.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        pool.shutdown();
+
+        int attempts = THREADS * RESERVATIONS_PER_THREAD;
+        System.out.printf("%-18s threads=%d attempts=%d reserved=%d wall=%dms throughput=%.0f ops/s%n",
+            mode, THREADS, attempts, reserved, TimeUnit.NANOSECONDS.toMillis(elapsed),
+            attempts / (elapsed / 1e9));
+
+        assertEquals(INITIAL_STOCK, reserved, "stock must be sold out exactly, never oversold");
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.execute("drop table bench_products");
+            statement.execute("drop table bench_product_stripes");
+        }
+    }
+
+    private static Connection connect() throws SQLException {
+        return DriverManager.getConnection(
+            System.getProperty("benchmark.jdbc.url"),
+            System.getProperty("benchmark.jdbc.user", "postgres"),
+            System.getProperty("benchmark.jdbc.password", "postgres"));
+    }
+
+    @FunctionalInterface
+    private interface Reservation {
+        boolean reserve(Connection connection) throws SQLException;
+    }
+}
@@ -1,21 +1,30 @@
 package ru.mishgan325.docsa.pr8.controller;
 
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import ru.mishgan325.docsa.pr8.dto.CreateProductRequest;
 import ru.mishgan325.docsa.pr8.dto.ProductResponse;
+import ru.mishgan325.docsa.pr8.dto.StockRequest;
+import ru.mishgan325.docsa.pr8.dto.StockReservationItem;
+import ru.mishgan325.docsa.pr8.dto.StockReservationRequest;
+import ru.mishgan325.docsa.pr8.dto.StockReservationResult;
 import ru.mishgan325.docsa.pr8.dto.UpdateProductRequest;
 import ru.mishgan325.docsa.pr8.model.Product;
 import ru.mishgan325.docsa.pr8.repository.ProductRepository;
+import ru.mishgan325.docsa.pr8.repository.ProductStockStripeRepository;
+import ru.mishgan325.docsa.pr8.service.StockService;
 
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -27,9 +36,18 @@ class ProductControllerTest {
     @Mock
     private ProductRepository productRepository;
 
-    @InjectMocks
+    @Mock
+    private ProductStockStripeRepository stripeRepository;
+
     private ProductController productController;
 
+    @BeforeEach
+    void setUp() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+        productController = new ProductController(productRepository,
+                new StockService(productRepository, stripeRepository, transactionTemplate));
+    }
+
     @Test
     void getAllProducts_ShouldReturnListOfProducts() {
         Product product = new Product(1L, "Laptop", new BigDecimal("1500.00"), 10);
@@ -42,23 +60,78 @@ class ProductControllerTest {
         verify(productRepository, times(1)).findAll();
     }
 
+    @Test
+    void getProductsByIds_ShouldReturnFoundProducts() {
+        Product laptop = new Product(1L, "Laptop", new BigDecimal("1500.00"), 10);
+        Product mouse = new Product(2L, "Mouse", new BigDecimal("20.00"), 100);
+        when(productRepository.findAllById(List.of(1L, 2L, 3L))).thenReturn(List.of(laptop, mouse));
+
+        ResponseEntity<List<ProductResponse>> response = productController.getProductsByIds(List.of(1L, 2L, 3L));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals(2, response.getBody().size());
+        verify(productRepository, times(1)).findAllById(List.of(1L, 2L, 3L));
+    }
+
+    @Test
+    void getProductsByIds_WhenTooManyIds_ShouldReturnBadRequest() {
+        List<Long> ids = LongStream.rangeClosed(1, 501).boxed().toList();
+
+        ResponseEntity<List<ProductResponse>> response = productController.getProductsByIds(ids);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(productRepository, never()).findAllById(any());
+    }
+
     @Test
     void getProductById_WhenExists_ShouldReturnProduct() {
         Product product = new Product(1L, "Laptop", new BigDecimal("1500.00"), 10);
         when(productRepository.findById(1L)).thenReturn(Optional.of(product));
 
-        ResponseEntity<ProductResponse> response = productController.getProductById(1L);
+        ResponseEntity<ProductResponse> response = productController.getProductById(1L, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
         assertEquals("Laptop", response.getBody().name());
     }
 
+    @Test
+    void getProductById_WhenVersionUnchanged_ShouldReturnNotModified() {
+        Product product = new Product(1L, "Laptop", new BigDecimal("1500.00"), 10);
+        product.setVersion(3L);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+
+        ResponseEntity<ProductResponse> current = productController.getProductById(1L, "\"1-2\"");
+        ResponseEntity<ProductResponse> cached = productController.getProductById(1L, "\"1-3\"");
+
+        assertEquals(HttpStatus.OK, current.getStatusCode());
+        assertEquals("\"1-3\"", current.getHeaders().getETag());
+        assertEquals(HttpStatus.NOT_MODIFIED, cached.getStatusCode());
+        assertNull(cached.getBody());
+    }
+
+    @Test
+    void getProductById_WhenStriped_ShouldTagWithLiveTotal() {
+        Product product = new Product(2L, "Mouse", new BigDecimal("20.00"), 0, 8);
+        product.setVersion(5L);
+        ProductStockStripeRepository.StripedTotal total = mock(ProductStockStripeRepository.StripedTotal.class);
+        when(total.getProductId()).thenReturn(2L);
+        when(total.getQuantity()).thenReturn(40L);
+        when(productRepository.findById(2L)).thenReturn(Optional.of(product));
+        when(stripeRepository.sumByProductIds(List.of(2L))).thenReturn(List.of(total));
+
+        ResponseEntity<ProductResponse> response = productController.getProductById(2L, null);
+
+        assertEquals("\"2-5-40\"", response.getHeaders().getETag());
+        assertEquals(40, response.getBody().quantity());
+    }
+
     @Test
     void getProductById_WhenNotExists_ShouldReturn404() {
         when(productRepository.findById(1L)).thenReturn(Optional.empty());
 
-        ResponseEntity<ProductResponse> response = productController.getProductById(1L);
+        ResponseEntity<ProductResponse> response = productController.getProductById(1L, null);
 
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
     }
@@ -103,6 +176,63 @@ class ProductControllerTest {
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
     }
 
+    @Test
+    void reserveStock_WhenEnoughStock_ShouldReturn204WithoutLoadingEntity() {
+        when(productRepository.reserve(1L, 3)).thenReturn(1);
+
+        ResponseEntity<Void> response = productController.reserveStock(1L, new StockRequest(3));
+
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+        verify(productRepository, never()).findById(any());
+        verify(productRepository, never()).save(any(Product.class));
+    }
+
+    @Test
+    void reserveStock_WhenInsufficientStock_ShouldReturn409() {
+        when(productRepository.reserve(1L, 30)).thenReturn(0);
+        when(productRepository.findStockStripesById(1L)).thenReturn(Optional.of(0));
+
+        ResponseEntity<Void> response = productController.reserveStock(1L, new StockRequest(30));
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+    }
+
+    @Test
+    void reserveStock_WhenProductMissing_ShouldReturn404() {
+        when(productRepository.reserve(1L, 3)).thenReturn(0);
+        when(productRepository.findStockStripesById(1L)).thenReturn(Optional.empty());
+
+        ResponseEntity<Void> response = productController.reserveStock(1L, new StockRequest(3));
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    @Test
+    void reserveStock_ForSeveralItems_ShouldReportEachIndependently() {
+        when(productRepository.reserve(1L, 3)).thenReturn(1);
+        when(productRepository.reserve(2L, 50)).thenReturn(0);
+        when(productRepository.findStockStripesById(2L)).thenReturn(Optional.of(0));
+        StockReservationRequest request = new StockReservationRequest(List.of(
+            new StockReservationItem(1L, 3),
+            new StockReservationItem(2L, 50)
+        ));
+
+        List<StockReservationResult> results = productController.reserveStock(request);
+
+        assertTrue(results.get(0).reserved());
+        assertFalse(results.get(1).reserved());
+    }
+
+    @Test
+    void releaseStock_WhenExists_ShouldReturn204() {
+        when(productRepository.findStockStripesById(1L)).thenReturn(Optional.of(0));
+        when(productRepository.release(1L, 3)).thenReturn(1);
+
+        ResponseEntity<Void> response = productController.releaseStock(1L, new StockRequest(3));
+
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+    }
+
     @Test
     void deleteProduct_WhenExists_ShouldReturn204() {
         when(productRepository.existsById(1L)).thenReturn(true);
@@ -0,0 +1,46 @@
+package ru.mishgan325.docsa.pr8.protobuf;
+
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import ru.mishgan325.docsa.pr8.dto.ProductResponse;
+import ru.mishgan325.docsa.pr8.web.protobuf.LookupSchema;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductProtobufConverterTest {
+
+    private static final Type PRODUCT_LIST = new ParameterizedTypeReference<List<ProductResponse>>() {}.getType();
+
+    private final ProductProtobufConverter converter = new ProductProtobufConverter();
+
+    @Test
+    void write_ShouldEncodeListAsRepeatedProductMessages() throws Exception {
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+
+        converter.write(List.of(new ProductResponse(1L, "A", new BigDecimal("2.50"), 3)),
+            PRODUCT_LIST, LookupSchema.PROTOBUF, output);
+
+        byte[] product = {0x08, 0x01, 0x12, 0x01, 'A', 0x18, (byte) 0xFA, 0x01, 0x20, 0x02, 0x28, 0x03};
+        byte[] expected = new byte[product.length + 2];
+        expected[0] = 0x0A;
+        expected[1] = (byte) product.length;
+        System.arraycopy(product, 0, expected, 2, product.length);
+        assertArrayEquals(expected, output.getBodyAsBytes());
+        assertEquals(expected.length, output.getHeaders().getContentLength());
+    }
+
+    @Test
+    void canWrite_ShouldOnlyAcceptProductsAsProtobuf() {
+        assertTrue(converter.canWrite(PRODUCT_LIST, List.class, LookupSchema.PROTOBUF));
+        assertTrue(converter.canWrite(ProductResponse.class, ProductResponse.class, LookupSchema.PROTOBUF));
+        assertFalse(converter.canWrite(ProductResponse.class, ProductResponse.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canWrite(String.class, String.class, LookupSchema.PROTOBUF));
+        assertFalse(converter.canRead(ProductResponse.class, null, LookupSchema.PROTOBUF));
+    }
+}
@@ -0,0 +1,116 @@
+package ru.mishgan325.docsa.pr8.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.mishgan325.docsa.pr8.dto.ProductResponse;
+import ru.mishgan325.docsa.pr8.model.Product;
+import ru.mishgan325.docsa.pr8.model.ProductStockStripe;
+import ru.mishgan325.docsa.pr8.repository.ProductRepository;
+import ru.mishgan325.docsa.pr8.repository.ProductStockStripeRepository;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductStockStripeRepository stripeRepository;
+
+    private StockService stockService;
+
+    @BeforeEach
+    void setUp() {
+        stockService = new StockService(productRepository, stripeRepository,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)));
+    }
+
+    @Test
+    void reserve_WhenStripeHasStock_ShouldNotLockOtherStripes() {
+        when(productRepository.reserve(1L, 3)).thenReturn(0);
+        when(productRepository.findStockStripesById(1L)).thenReturn(Optional.of(4));
+        when(stripeRepository.reserve(eq(1L), anyInt(), eq(3))).thenReturn(1);
+
+        assertEquals(StockService.Outcome.RESERVED, stockService.reserve(1L, 3));
+        verify(stripeRepository, times(1)).reserve(eq(1L), anyInt(), eq(3));
+        verify(stripeRepository, never()).lockAllByProductId(any());
+    }
+
+    @Test
+    void reserve_WhenSampledStripesAreShort_ShouldTakeFromSeveralStripes() {
+        List<ProductStockStripe> stripes = List.of(
+            new ProductStockStripe(1L, 0, 2),
+            new ProductStockStripe(1L, 1, 1),
+            new ProductStockStripe(1L, 2, 5)
+        );
+        when(productRepository.reserve(1L, 6)).thenReturn(0);
+        when(productRepository.findStockStripesById(1L)).thenReturn(Optional.of(3));
+        when(stripeRepository.reserve(eq(1L), anyInt(), eq(6))).thenReturn(0);
+        when(stripeRepository.lockAllByProductId(1L)).thenReturn(stripes);
+
+        assertEquals(StockService.Outcome.RESERVED, stockService.reserve(1L, 6));
+        assertEquals(List.of(0, 0, 2), stripes.stream().map(ProductStockStripe::getQuantity).toList());
+    }
+
+    @Test
+    void reserve_WhenStripesTogetherAreShort_ShouldReturnInsufficient() {
+        List<ProductStockStripe> stripes = List.of(
+            new ProductStockStripe(1L, 0, 2),
+            new ProductStockStripe(1L, 1, 1)
+        );
+        when(productRepository.reserve(1L, 5)).thenReturn(0);
+        when(productRepository.findStockStripesById(1L)).thenReturn(Optional.of(2));
+        when(stripeRepository.reserve(eq(1L), anyInt(), eq(5))).thenReturn(0);
+        when(stripeRepository.lockAllByProductId(1L)).thenReturn(stripes);
+
+        assertEquals(StockService.Outcome.INSUFFICIENT, stockService.reserve(1L, 5));
+        assertEquals(List.of(2, 1), stripes.stream().map(ProductStockStripe::getQuantity).toList());
+    }
+
+    @Test
+    void enableStriping_ShouldSpreadStockEvenlyAndZeroProductQuantity() {
+        Product product = new Product(1L, "Laptop", new BigDecimal("1500.00"), 10);
+        when(productRepository.lockById(1L)).thenReturn(Optional.of(product));
+
+        Optional<ProductResponse> response = stockService.enableStriping(1L, 4);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ProductStockStripe>> rows = ArgumentCaptor.forClass(List.class);
+        verify(stripeRepository).saveAll(rows.capture());
+        assertEquals(List.of(3, 3, 2, 2), rows.getValue().stream().map(ProductStockStripe::getQuantity).toList());
+        assertEquals(0, product.getQuantity());
+        assertEquals(4, product.getStockStripes());
+        assertTrue(response.isPresent());
+        assertEquals(10, response.get().quantity());
+    }
+
+    @Test
+    void toResponses_ShouldReportStripedTotals() {
+        Product plain = new Product(1L, "Laptop", new BigDecimal("1500.00"), 10);
+        Product striped = new Product(2L, "Mouse", new BigDecimal("20.00"), 0, 8);
+        ProductStockStripeRepository.StripedTotal total = mock(ProductStockStripeRepository.StripedTotal.class);
+        when(total.getProductId()).thenReturn(2L);
+        when(total.getQuantity()).thenReturn(40L);
+        when(stripeRepository.sumByProductIds(List.of(2L))).thenReturn(List.of(total));
+
+        List<ProductResponse> responses = stockService.toResponses(List.of(plain, striped));
+
+        assertEquals(10, responses.get(0).quantity());
+        assertEquals(40, responses.get(1).quantity());
+    }
+}
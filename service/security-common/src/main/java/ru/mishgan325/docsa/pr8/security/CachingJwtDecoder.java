@@ -0,0 +1,117 @@
+package ru.mishgan325.docsa.pr8.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+/**
+ * Remembers tokens the delegate has already verified, so a client reusing its access token
+ * pays for the signature check and claim parsing once rather than on every request.
+ * <p>
+ * Keyed by the SHA-256 of the token, so raw bearer tokens are never held as keys. An entry
+ * lives until the token's {@code exp} or {@code maxTtl}, whichever comes first; after that
+ * the token goes back through the delegate and its validators. Rejected tokens are not
+ * cached.
+ */
+public class CachingJwtDecoder implements JwtDecoder, MeterBinder {
+
+    private static final String CACHE_NAME = "jwt-decoder";
+
+    private final JwtDecoder delegate;
+    private final Clock clock;
+    private final Cache<String, Jwt> cache;
+
+    public CachingJwtDecoder(JwtDecoder delegate, long maximumSize, Duration maxTtl) {
+        this(delegate, maximumSize, maxTtl, Clock.systemUTC());
+    }
+
+    CachingJwtDecoder(JwtDecoder delegate, long maximumSize, Duration maxTtl, Clock clock) {
+        this.delegate = delegate;
+        this.clock = clock;
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfter(new UntilExpiry(maxTtl))
+            .ticker(() -> clock.millis() * 1_000_000)
+            .recordStats()
+            .build();
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        String key = hash(token);
+        Jwt cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        Jwt jwt = delegate.decode(token);
+        if (jwt.getExpiresAt() == null || jwt.getExpiresAt().isAfter(clock.instant())) {
+            cache.put(key, jwt);
+        }
+        return jwt;
+    }
+
+    /**
+     * Caffeine's {@code cache.gets{result=hit|miss}}, size and evictions under
+     * {@code cache=jwt-decoder}, plus {@code jwt.decoder.cache.hit.ratio} since startup.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+        Gauge.builder("jwt.decoder.cache.hit.ratio", cache, c -> c.stats().hitRate())
+            .tag("cache", CACHE_NAME)
+            .register(registry);
+    }
+
+    private static String hash(String token) {
+        try {
+            return HexFormat.of().formatHex(
+                MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private final class UntilExpiry implements Expiry<String, Jwt> {
+
+        private final Duration maxTtl;
+
+        private UntilExpiry(Duration maxTtl) {
+            this.maxTtl = maxTtl;
+        }
+
+        @Override
+        public long expireAfterCreate(String key, Jwt jwt, long currentTime) {
+            Instant expiresAt = jwt.getExpiresAt();
+            if (expiresAt == null) {
+                return maxTtl.toNanos();
+            }
+            Duration remaining = Duration.between(clock.instant(), expiresAt);
+            return Math.max(0, (remaining.compareTo(maxTtl) < 0 ? remaining : maxTtl).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Jwt jwt, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, jwt, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Jwt jwt, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
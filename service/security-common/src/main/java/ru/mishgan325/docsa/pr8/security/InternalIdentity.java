@@ -0,0 +1,19 @@
+package ru.mishgan325.docsa.pr8.security;
+
+import java.time.Instant;
+
+/**
+ * A caller identity asserted by api-gateway after it verified the caller's JWT, carried in
+ * the {@value #HEADER} header and checked by {@link InternalIdentityCodec}.
+ *
+ * @param principal   who the token was issued to
+ * @param scope       the token's {@code scope} claim, space separated, possibly empty
+ * @param expiresAt   the token's {@code exp}
+ * @param issuedAt    when the gateway signed the header
+ * @param headerValue the signed header as received, relayed as is on downstream calls
+ */
+public record InternalIdentity(ShopPrincipal principal, String scope, Instant expiresAt, Instant issuedAt,
+                               String headerValue) {
+
+    public static final String HEADER = "X-Internal-Identity";
+}
@@ -0,0 +1,131 @@
+package ru.mishgan325.docsa.pr8.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.security.authentication.BadCredentialsException;
+
+/**
+ * Signs and verifies {@link InternalIdentity} headers. The format, shared with api-gateway's
+ * {@code InternalIdentitySigner}, is
+ * <pre>
+ * v1.&lt;userId&gt;.&lt;b64url(sub)&gt;.&lt;b64url(scope)&gt;.&lt;exp epoch seconds&gt;.&lt;signed at epoch millis&gt;.&lt;b64url(HMAC-SHA256)&gt;
+ * </pre>
+ * with the HMAC taken over everything before the last dot. A header is accepted until the
+ * token's {@code exp}, and for at most {@code maxAge} after the gateway signed it, which
+ * bounds how long a captured header can be replayed.
+ */
+public class InternalIdentityCodec {
+
+    private static final String VERSION = "v1";
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MIN_SECRET_BYTES = 32;
+    private static final Duration CLOCK_SKEW = Duration.ofSeconds(5);
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final Duration maxAge;
+    private final Clock clock;
+
+    public InternalIdentityCodec(String secret, Duration maxAge) {
+        this(secret, maxAge, Clock.systemUTC());
+    }
+
+    InternalIdentityCodec(String secret, Duration maxAge, Clock clock) {
+        byte[] bytes = secret == null ? new byte[0] : secret.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length < MIN_SECRET_BYTES) {
+            throw new IllegalStateException("Internal identity secret must be at least " + MIN_SECRET_BYTES + " bytes");
+        }
+        this.key = new SecretKeySpec(bytes, ALGORITHM);
+        this.maxAge = maxAge;
+        this.clock = clock;
+    }
+
+    public String sign(long userId, String username, String scope, Instant expiresAt) {
+        String payload = String.join(".", VERSION, Long.toString(userId),
+            encode(username), encode(scope), Long.toString(expiresAt.getEpochSecond()),
+            Long.toString(clock.millis()));
+        return payload + "." + ENCODER.encodeToString(mac(payload));
+    }
+
+    /**
+     * @throws BadCredentialsException if the header is malformed, forged or stale
+     */
+    public InternalIdentity verify(String header) {
+        int signatureStart = header.lastIndexOf('.');
+        if (signatureStart < 0) {
+            throw invalid("malformed");
+        }
+        String payload = header.substring(0, signatureStart);
+        byte[] signature;
+        try {
+            signature = DECODER.decode(header.substring(signatureStart + 1));
+        } catch (IllegalArgumentException e) {
+            throw invalid("malformed");
+        }
+        if (!MessageDigest.isEqual(mac(payload), signature)) {
+            throw invalid("bad signature");
+        }
+
+        String[] parts = payload.split("\\.", -1);
+        if (parts.length != 6 || !VERSION.equals(parts[0])) {
+            throw invalid("unsupported format");
+        }
+        Instant expiresAt;
+        Instant signedAt;
+        long userId;
+        try {
+            userId = Long.parseLong(parts[1]);
+            expiresAt = Instant.ofEpochSecond(Long.parseLong(parts[4]));
+            signedAt = Instant.ofEpochMilli(Long.parseLong(parts[5]));
+        } catch (NumberFormatException e) {
+            throw invalid("malformed");
+        }
+        Instant now = clock.instant();
+        if (!now.isBefore(expiresAt)) {
+            throw invalid("token expired");
+        }
+        if (signedAt.isAfter(now.plus(CLOCK_SKEW)) || signedAt.plus(maxAge).isBefore(now)) {
+            throw invalid("stale");
+        }
+        ShopPrincipal principal = new ShopPrincipal(userId, decode(parts[2]));
+        return new InternalIdentity(principal, decode(parts[3]), expiresAt, signedAt, header);
+    }
+
+    private byte[] mac(String payload) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            throw new IllegalStateException("Cannot compute " + ALGORITHM, e);
+        }
+    }
+
+    private static String encode(String value) {
+        return ENCODER.encodeToString((value == null ? "" : value).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decode(String value) {
+        try {
+            return new String(DECODER.decode(value), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw invalid("malformed");
+        }
+    }
+
+    private static BadCredentialsException invalid(String reason) {
+        return new BadCredentialsException("Invalid " + InternalIdentity.HEADER + " header: " + reason);
+    }
+}
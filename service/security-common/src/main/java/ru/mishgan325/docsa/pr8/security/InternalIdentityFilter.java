@@ -0,0 +1,90 @@
+package ru.mishgan325.docsa.pr8.security;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextHolderStrategy;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Authenticates requests carrying an {@link InternalIdentity} header, skipping JWT
+ * verification for calls api-gateway has already vouched for. The header is only looked at
+ * when the request comes from one of the trusted networks; from anywhere else it is ignored
+ * and the request goes through bearer token authentication as usual. A header from a trusted
+ * network that fails verification is rejected with 401 rather than ignored.
+ */
+@Slf4j
+public class InternalIdentityFilter extends OncePerRequestFilter {
+
+    private final InternalIdentityCodec codec;
+    private final List<IpAddressMatcher> trustedNetworks;
+    private final SecurityContextHolderStrategy securityContextHolderStrategy =
+        SecurityContextHolder.getContextHolderStrategy();
+
+    public InternalIdentityFilter(InternalIdentityCodec codec, List<String> trustedNetworks) {
+        this.codec = codec;
+        this.trustedNetworks = trustedNetworks.stream().map(IpAddressMatcher::new).toList();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader(InternalIdentity.HEADER);
+        if (header == null || !fromTrustedNetwork(request)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        InternalIdentity identity;
+        try {
+            identity = codec.verify(header);
+        } catch (BadCredentialsException e) {
+            log.debug("Rejected internal identity from {}: {}", request.getRemoteAddr(), e.getMessage());
+            response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\"");
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+            return;
+        }
+        SecurityContext context = securityContextHolderStrategy.createEmptyContext();
+        context.setAuthentication(new ShopAuthenticationToken(identity.principal(), identity, authorities(identity.scope())));
+        securityContextHolderStrategy.setContext(context);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            securityContextHolderStrategy.clearContext();
+        }
+    }
+
+    private boolean fromTrustedNetwork(HttpServletRequest request) {
+        String address = request.getRemoteAddr();
+        for (IpAddressMatcher network : trustedNetworks) {
+            if (network.matches(address)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * {@code SCOPE_} authorities, as {@code JwtGrantedAuthoritiesConverter} would derive them.
+     */
+    private static List<GrantedAuthority> authorities(String scope) {
+        if (scope.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(scope.trim().split("\\s+"))
+            .<GrantedAuthority>map(value -> new SimpleGrantedAuthority("SCOPE_" + value))
+            .toList();
+    }
+}
@@ -0,0 +1,63 @@
+package ru.mishgan325.docsa.pr8.security;
+
+import java.time.Duration;
+import java.util.List;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.server.resource.web.authentication.BearerTokenAuthenticationFilter;
+import org.springframework.security.web.SecurityFilterChain;
+
+/**
+ * Resource server setup shared by the shop services, picked up by their component scan.
+ * Everything but actuator reads and the paths listed in {@code app.security.public-get-paths}
+ * needs a bearer token, actuator writes (loggers, caches, ...) included; verified tokens are cached by {@link CachingJwtDecoder} and become
+ * a {@link ShopPrincipal}.
+ * <p>
+ * With {@code app.security.internal-identity.enabled}, requests api-gateway has already
+ * authenticated are let in on its signed {@link InternalIdentity} header instead; see
+ * {@link InternalIdentityFilter}.
+ */
+@Configuration
+@EnableWebSecurity
+public class ResourceServerSecurityConfig {
+
+    @Bean
+    public SecurityFilterChain securityFilterChain(HttpSecurity http,
+                                                   JwtDecoder jwtDecoder,
+                                                   MeterRegistry meterRegistry,
+                                                   @Value("${app.security.public-get-paths:}") String[] publicGetPaths,
+                                                   @Value("${app.security.jwt-cache.maximum-size:10000}") long cacheSize,
+                                                   @Value("${app.security.jwt-cache.max-ttl:1h}") Duration cacheTtl,
+                                                   @Value("${app.security.internal-identity.enabled:false}") boolean internalIdentity,
+                                                   @Value("${app.security.internal-identity.secret:}") String internalIdentitySecret,
+                                                   @Value("${app.security.internal-identity.max-age:30s}") Duration internalIdentityMaxAge,
+                                                   @Value("${app.security.internal-identity.trusted-networks:127.0.0.1/32}") List<String> trustedNetworks) throws Exception {
+        CachingJwtDecoder cachingJwtDecoder = new CachingJwtDecoder(jwtDecoder, cacheSize, cacheTtl);
+        cachingJwtDecoder.bindTo(meterRegistry);
+        if (internalIdentity) {
+            InternalIdentityCodec codec = new InternalIdentityCodec(internalIdentitySecret, internalIdentityMaxAge);
+            http.addFilterBefore(new InternalIdentityFilter(codec, trustedNetworks), BearerTokenAuthenticationFilter.class);
+        }
+        return http
+            .csrf(AbstractHttpConfigurer::disable)
+            .authorizeHttpRequests(auth -> {
+                auth.requestMatchers(HttpMethod.GET, "/actuator/**").permitAll();
+                if (publicGetPaths.length > 0) {
+                    auth.requestMatchers(HttpMethod.GET, publicGetPaths).permitAll();
+                }
+                auth.anyRequest().authenticated();
+            })
+            .oauth2ResourceServer(oauth2 -> oauth2.jwt(jwt -> jwt
+                .decoder(cachingJwtDecoder)
+                .jwtAuthenticationConverter(new ShopJwtAuthenticationConverter())))
+            .build();
+    }
+}
@@ -0,0 +1,53 @@
+package ru.mishgan325.docsa.pr8.security;
+
+import java.util.Collection;
+
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+/**
+ * An authenticated request: the {@link ShopPrincipal} as principal and, as credentials, what
+ * it was proven with, so it can be relayed downstream: the verified {@link Jwt}, or the
+ * {@link InternalIdentity} api-gateway signed.
+ */
+public class ShopAuthenticationToken extends AbstractAuthenticationToken {
+
+    private final ShopPrincipal principal;
+    private final Object credentials;
+
+    public ShopAuthenticationToken(ShopPrincipal principal, Jwt token, Collection<? extends GrantedAuthority> authorities) {
+        this(principal, (Object) token, authorities);
+    }
+
+    public ShopAuthenticationToken(ShopPrincipal principal, InternalIdentity identity,
+                                   Collection<? extends GrantedAuthority> authorities) {
+        this(principal, (Object) identity, authorities);
+    }
+
+    private ShopAuthenticationToken(ShopPrincipal principal, Object credentials,
+                                    Collection<? extends GrantedAuthority> authorities) {
+        super(authorities);
+        this.principal = principal;
+        this.credentials = credentials;
+        setAuthenticated(true);
+    }
+
+    @Override
+    public ShopPrincipal getPrincipal() {
+        return principal;
+    }
+
+    /**
+     * @return a {@link Jwt} or an {@link InternalIdentity}
+     */
+    @Override
+    public Object getCredentials() {
+        return credentials;
+    }
+
+    @Override
+    public String getName() {
+        return principal.username();
+    }
+}
@@ -0,0 +1,34 @@
+package ru.mishgan325.docsa.pr8.security;
+
+import java.util.Collection;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
+
+/**
+ * Turns a verified {@link Jwt} into a {@link ShopAuthenticationToken}. Claims are read here,
+ * once per request; authorities come from {@code scope}/{@code scp} as with Spring's own
+ * {@code JwtAuthenticationConverter}.
+ */
+public class ShopJwtAuthenticationConverter implements Converter<Jwt, AbstractAuthenticationToken> {
+
+    public static final String USER_ID_CLAIM = "userId";
+
+    private final JwtGrantedAuthoritiesConverter authoritiesConverter = new JwtGrantedAuthoritiesConverter();
+
+    @Override
+    public AbstractAuthenticationToken convert(Jwt jwt) {
+        Collection<GrantedAuthority> authorities = authoritiesConverter.convert(jwt);
+        return new ShopAuthenticationToken(principal(jwt), jwt, authorities);
+    }
+
+    static ShopPrincipal principal(Jwt jwt) {
+        Object userId = jwt.getClaims().get(USER_ID_CLAIM);
+        // Nimbus hands JSON numbers back as Long, tokens built in code may carry an Integer
+        long id = userId instanceof Number number ? number.longValue() : ShopPrincipal.NO_USER_ID;
+        return new ShopPrincipal(id, jwt.getSubject());
+    }
+}
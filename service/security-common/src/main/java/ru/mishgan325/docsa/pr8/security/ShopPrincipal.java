@@ -0,0 +1,27 @@
+package ru.mishgan325.docsa.pr8.security;
+
+import java.io.Serializable;
+import java.security.Principal;
+
+/**
+ * The caller behind an access token, read once from its claims by
+ * {@link ShopJwtAuthenticationConverter}. Controllers take it with
+ * {@code @AuthenticationPrincipal ShopPrincipal principal}.
+ *
+ * @param userId   the {@code userId} claim, or {@link #NO_USER_ID} when the token has none
+ *                 (client credentials tokens, for one)
+ * @param username the {@code sub} claim
+ */
+public record ShopPrincipal(long userId, String username) implements Principal, Serializable {
+
+    public static final long NO_USER_ID = 0L;
+
+    public boolean hasUserId() {
+        return userId != NO_USER_ID;
+    }
+
+    @Override
+    public String getName() {
+        return username;
+    }
+}
@@ -0,0 +1,130 @@
+package ru.mishgan325.docsa.pr8.security;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CachingJwtDecoderTest {
+
+    private static final Instant NOW = Instant.parse("2025-06-01T12:00:00Z");
+
+    private final MutableClock clock = new MutableClock(NOW);
+
+    @Test
+    void decode_ShouldVerifyEachTokenOnce() {
+        JwtDecoder delegate = mock(JwtDecoder.class);
+        when(delegate.decode("a")).thenReturn(jwt("a", NOW.plusSeconds(600)));
+        CachingJwtDecoder decoder = new CachingJwtDecoder(delegate, 100, Duration.ofHours(1), clock);
+
+        Jwt first = decoder.decode("a");
+        Jwt second = decoder.decode("a");
+
+        assertSame(first, second);
+        verify(delegate, times(1)).decode("a");
+    }
+
+    @Test
+    void decode_ShouldNotServeTokenPastItsExpiry() {
+        JwtDecoder delegate = mock(JwtDecoder.class);
+        when(delegate.decode("a")).thenReturn(jwt("a", NOW.plusSeconds(60)));
+        CachingJwtDecoder decoder = new CachingJwtDecoder(delegate, 100, Duration.ofHours(1), clock);
+
+        decoder.decode("a");
+        clock.advance(Duration.ofSeconds(59));
+        decoder.decode("a");
+        clock.advance(Duration.ofSeconds(2));
+        decoder.decode("a");
+
+        verify(delegate, times(2)).decode("a");
+    }
+
+    @Test
+    void decode_ShouldCapEntryLifeAtMaxTtl() {
+        JwtDecoder delegate = mock(JwtDecoder.class);
+        when(delegate.decode("a")).thenReturn(jwt("a", NOW.plus(Duration.ofDays(1))));
+        CachingJwtDecoder decoder = new CachingJwtDecoder(delegate, 100, Duration.ofMinutes(5), clock);
+
+        decoder.decode("a");
+        clock.advance(Duration.ofMinutes(6));
+        decoder.decode("a");
+
+        verify(delegate, times(2)).decode("a");
+    }
+
+    @Test
+    void decode_ShouldNotCacheRejectedTokens() {
+        JwtDecoder delegate = mock(JwtDecoder.class);
+        when(delegate.decode("bad")).thenThrow(new BadJwtException("bad signature"));
+        CachingJwtDecoder decoder = new CachingJwtDecoder(delegate, 100, Duration.ofHours(1), clock);
+
+        assertThrows(BadJwtException.class, () -> decoder.decode("bad"));
+        assertThrows(BadJwtException.class, () -> decoder.decode("bad"));
+
+        verify(delegate, times(2)).decode("bad");
+    }
+
+    @Test
+    void bindTo_ShouldExportHitRatio() {
+        JwtDecoder delegate = mock(JwtDecoder.class);
+        when(delegate.decode("a")).thenReturn(jwt("a", NOW.plusSeconds(600)));
+        CachingJwtDecoder decoder = new CachingJwtDecoder(delegate, 100, Duration.ofHours(1), clock);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        decoder.bindTo(registry);
+
+        for (int i = 0; i < 4; i++) {
+            decoder.decode("a");
+        }
+
+        assertEquals(0.75, registry.get("jwt.decoder.cache.hit.ratio").gauge().value(), 1e-9);
+        assertEquals(3, registry.get("cache.gets").tag("cache", "jwt-decoder").tag("result", "hit")
+            .functionCounter().count(), 1e-9);
+    }
+
+    private static Jwt jwt(String token, Instant expiresAt) {
+        return Jwt.withTokenValue(token)
+            .header("alg", "RS256")
+            .subject("user")
+            .issuedAt(NOW)
+            .expiresAt(expiresAt)
+            .build();
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package ru.mishgan325.docsa.pr8.security;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InternalIdentityCodecTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+    private static final Instant NOW = Instant.parse("2025-06-01T12:00:00Z");
+    private static final Instant EXPIRES_AT = NOW.plus(Duration.ofHours(1));
+
+    private final InternalIdentityCodec codec = codecAt(NOW);
+
+    @Test
+    void verify_ShouldReturnWhatWasSigned() {
+        String header = codec.sign(100L, "testuser", "openid profile", EXPIRES_AT);
+
+        InternalIdentity identity = codec.verify(header);
+
+        assertEquals(new ShopPrincipal(100L, "testuser"), identity.principal());
+        assertEquals("openid profile", identity.scope());
+        assertEquals(EXPIRES_AT, identity.expiresAt());
+        assertEquals(NOW, identity.issuedAt());
+        assertEquals(header, identity.headerValue());
+    }
+
+    @Test
+    void sign_ShouldProduceTheFormatApiGatewaySigns() {
+        // Same vector as api-gateway's signer: keep the two in step
+        assertEquals("v1.100.dGVzdHVzZXI.b3BlbmlkIHByb2ZpbGU.1748782800.1748779200000."
+                + "45_OSgKu7ABzlPAw3hQYqwdkMNrn2nZT7iysQxPu4Bc",
+            codec.sign(100L, "testuser", "openid profile", EXPIRES_AT));
+    }
+
+    @Test
+    void verify_WhenTampered_ShouldReject() {
+        String header = codec.sign(100L, "testuser", "", EXPIRES_AT);
+
+        assertThrows(BadCredentialsException.class, () -> codec.verify(header.replaceFirst("v1\\.100\\.", "v1.101.")));
+        assertThrows(BadCredentialsException.class, () -> codec.verify("not-a-header"));
+    }
+
+    @Test
+    void verify_WhenSignedWithAnotherSecret_ShouldReject() {
+        InternalIdentityCodec other = new InternalIdentityCodec("another-secret-another-secret-xx", Duration.ofSeconds(30),
+            Clock.fixed(NOW, ZoneOffset.UTC));
+
+        assertThrows(BadCredentialsException.class,
+            () -> codec.verify(other.sign(100L, "testuser", "", EXPIRES_AT)));
+    }
+
+    @Test
+    void verify_WhenOlderThanMaxAge_ShouldReject() {
+        String header = codec.sign(100L, "testuser", "", EXPIRES_AT);
+
+        assertDoesNotThrow(() -> codecAt(NOW.plusSeconds(30)).verify(header));
+        assertThrows(BadCredentialsException.class, () -> codecAt(NOW.plusSeconds(31)).verify(header));
+    }
+
+    @Test
+    void verify_WhenTokenExpired_ShouldReject() {
+        String header = codec.sign(100L, "testuser", "", NOW.plusSeconds(10));
+
+        assertThrows(BadCredentialsException.class, () -> codecAt(NOW.plusSeconds(10)).verify(header));
+    }
+
+    @Test
+    void constructor_WithShortSecret_ShouldFail() {
+        assertThrows(IllegalStateException.class, () -> new InternalIdentityCodec("short", Duration.ofSeconds(30)));
+        assertThrows(IllegalStateException.class, () -> new InternalIdentityCodec("", Duration.ofSeconds(30)));
+    }
+
+    private static InternalIdentityCodec codecAt(Instant now) {
+        return new InternalIdentityCodec(SECRET, Duration.ofSeconds(30), Clock.fixed(now, ZoneOffset.UTC));
+    }
+}
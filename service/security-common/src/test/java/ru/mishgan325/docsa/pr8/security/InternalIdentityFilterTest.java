@@ -0,0 +1,72 @@
+package ru.mishgan325.docsa.pr8.security;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InternalIdentityFilterTest {
+
+    private final InternalIdentityCodec codec =
+        new InternalIdentityCodec("0123456789abcdef0123456789abcdef", Duration.ofSeconds(30));
+    private final InternalIdentityFilter filter = new InternalIdentityFilter(codec, List.of("10.0.0.0/8"));
+
+    @Test
+    void doFilter_FromTrustedNetwork_ShouldAuthenticateFromHeader() throws Exception {
+        String header = codec.sign(100L, "testuser", "openid", Instant.now().plusSeconds(600));
+        MockHttpServletRequest request = request("10.1.2.3", header);
+        AtomicReference<Authentication> seen = new AtomicReference<>();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain(seen));
+
+        ShopAuthenticationToken authentication = (ShopAuthenticationToken) seen.get();
+        assertEquals(new ShopPrincipal(100L, "testuser"), authentication.getPrincipal());
+        assertEquals(header, ((InternalIdentity) authentication.getCredentials()).headerValue());
+        assertEquals("SCOPE_openid", authentication.getAuthorities().iterator().next().getAuthority());
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    void doFilter_FromUntrustedNetwork_ShouldIgnoreHeader() throws Exception {
+        String header = codec.sign(100L, "testuser", "", Instant.now().plusSeconds(600));
+        AtomicReference<Authentication> seen = new AtomicReference<>();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request("203.0.113.7", header), response, chain(seen));
+
+        assertNull(seen.get());
+        assertEquals(200, response.getStatus());
+    }
+
+    @Test
+    void doFilter_WithForgedHeader_ShouldRespondUnauthorized() throws Exception {
+        String header = codec.sign(100L, "testuser", "", Instant.now().plusSeconds(600));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicReference<Authentication> seen = new AtomicReference<>();
+
+        filter.doFilter(request("10.1.2.3", header + "x"), response, chain(seen));
+
+        assertEquals(401, response.getStatus());
+        assertNull(seen.get());
+    }
+
+    private static MockHttpServletRequest request(String remoteAddress, String header) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/orders/self");
+        request.setRemoteAddr(remoteAddress);
+        request.addHeader(InternalIdentity.HEADER, header);
+        return request;
+    }
+
+    private static FilterChain chain(AtomicReference<Authentication> seen) {
+        return (request, response) -> seen.set(SecurityContextHolder.getContext().getAuthentication());
+    }
+}
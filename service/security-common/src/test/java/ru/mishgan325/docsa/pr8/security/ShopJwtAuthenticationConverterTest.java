@@ -0,0 +1,66 @@
+package ru.mishgan325.docsa.pr8.security;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShopJwtAuthenticationConverterTest {
+
+    private final ShopJwtAuthenticationConverter converter = new ShopJwtAuthenticationConverter();
+
+    @Test
+    void convert_ShouldBuildPrincipalFromClaims() {
+        Jwt jwt = jwt().claim("userId", 100L).claim("scope", "openid profile").build();
+
+        ShopAuthenticationToken token = (ShopAuthenticationToken) converter.convert(jwt);
+
+        assertTrue(token.isAuthenticated());
+        assertEquals(new ShopPrincipal(100L, "testuser"), token.getPrincipal());
+        assertEquals("testuser", token.getName());
+        assertSame(jwt, token.getCredentials());
+        assertEquals(2, token.getAuthorities().size());
+        assertTrue(token.getAuthorities().stream()
+            .map(GrantedAuthority::getAuthority)
+            .anyMatch("SCOPE_openid"::equals));
+    }
+
+    @Test
+    void convert_WithIntegerUserId_ShouldWidenToLong() {
+        Jwt jwt = jwt().claim("userId", 42).build();
+
+        ShopPrincipal principal = (ShopPrincipal) converter.convert(jwt).getPrincipal();
+
+        assertEquals(42L, principal.userId());
+        assertTrue(principal.hasUserId());
+    }
+
+    @Test
+    void convert_WithoutUserId_ShouldHaveNoUserId() {
+        Jwt jwt = jwt().build();
+
+        ShopPrincipal principal = (ShopPrincipal) converter.convert(jwt).getPrincipal();
+
+        assertEquals(ShopPrincipal.NO_USER_ID, principal.userId());
+        assertFalse(principal.hasUserId());
+    }
+
+    @Test
+    void convert_WithNonNumericUserId_ShouldHaveNoUserId() {
+        Jwt jwt = jwt().claim("userId", "100").build();
+
+        ShopPrincipal principal = (ShopPrincipal) converter.convert(jwt).getPrincipal();
+
+        assertFalse(principal.hasUserId());
+    }
+
+    private static Jwt.Builder jwt() {
+        return Jwt.withTokenValue("token")
+            .header("alg", "RS256")
+            .subject("testuser")
+            .issuedAt(Instant.now());
+    }
+}
@@ -0,0 +1,55 @@
+package ru.mishgan325.docsa.pr8.web;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.springframework.http.ETag;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Entity tags for conditional GETs. A single resource gets a strong tag from its id and JPA
+ * {@code @Version}; a list gets a weak one from a {@link ListVersion}, see {@link ListETagFilter}.
+ */
+public final class ETags {
+
+    private ETags() {
+    }
+
+    public static String strong(Object... parts) {
+        return '"' + join(parts) + '"';
+    }
+
+    public static String weak(Object... parts) {
+        return "W/\"" + join(parts) + '"';
+    }
+
+    /**
+     * Whether an {@code If-None-Match} header names {@code etag}, using the weak comparison
+     * RFC 9110 prescribes for that header, so a tag a compressing proxy has weakened still matches.
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        ETag current = ETag.create(etag);
+        return ETag.parse(ifNoneMatch).stream()
+            .anyMatch(candidate -> candidate.isWildcard() || candidate.compare(current, false));
+    }
+
+    /**
+     * 304 when the client already holds {@code etag}, without building the body; otherwise
+     * 200 with the body and the tag.
+     */
+    public static <T> ResponseEntity<T> respond(String ifNoneMatch, String etag, Supplier<T> body) {
+        if (matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).body(body.get());
+    }
+
+    private static String join(Object... parts) {
+        return Arrays.stream(parts).map(String::valueOf).collect(Collectors.joining("-"));
+    }
+}
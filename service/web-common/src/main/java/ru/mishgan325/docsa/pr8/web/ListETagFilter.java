@@ -0,0 +1,72 @@
+package ru.mishgan325.docsa.pr8.web;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.function.Function;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Weak ETags for list endpoints, taken from a cheap version query instead of a hash of the
+ * serialized body. A matching {@code If-None-Match} gets 304 before the controller runs, so
+ * the list is neither loaded nor serialized.
+ * <p>
+ * Each route maps an exact path to a function returning the current tag, or {@code null}
+ * to leave the request alone. Only plain GET and HEAD requests are handled: a query string
+ * selects a different representation (a page, a subset) the tag does not describe. The tag
+ * is read before the body, so a concurrent write can only make it older than the body,
+ * which costs the next poll a full response, never a stale one.
+ * <p>
+ * Registered as a plain servlet filter, it runs after Spring Security and sees the
+ * authenticated principal.
+ */
+@Slf4j
+public class ListETagFilter extends OncePerRequestFilter {
+
+    private final Map<String, Function<HttpServletRequest, String>> routes;
+
+    public ListETagFilter(Map<String, Function<HttpServletRequest, String>> routes) {
+        this.routes = Map.copyOf(routes);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String method = request.getMethod();
+        return !("GET".equals(method) || "HEAD".equals(method))
+            || request.getQueryString() != null
+            || !routes.containsKey(path(request));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String etag;
+        try {
+            etag = routes.get(path(request)).apply(request);
+        } catch (RuntimeException e) {
+            log.warn("Could not compute ETag for {}, serving without one", request.getRequestURI(), e);
+            chain.doFilter(request, response);
+            return;
+        }
+        if (etag == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        response.setHeader(HttpHeaders.ETAG, etag);
+        if (ETags.matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+}
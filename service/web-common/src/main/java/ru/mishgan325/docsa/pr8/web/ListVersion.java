@@ -0,0 +1,23 @@
+package ru.mishgan325.docsa.pr8.web;
+
+/**
+ * Aggregate over a table, or a slice of one, that changes whenever any row in it does:
+ * inserts and deletes move {@code rowCount} and {@code idSum}, updates raise
+ * {@code versionSum}. A delete and an insert together keep the count but not the id sum,
+ * since a new row never gets a deleted row's id, in whatever order ids are handed out.
+ * Only a batch of deletes and inserts whose ids happen to add up to the same sum goes
+ * unnoticed. Repositories return it from a single
+ * {@code count / sum(version) / sum(id)} query, aliased to these property names.
+ */
+public interface ListVersion {
+
+    Long getRowCount();
+
+    Long getVersionSum();
+
+    Long getIdSum();
+
+    default String etag() {
+        return ETags.weak(getRowCount(), getVersionSum(), getIdSum());
+    }
+}
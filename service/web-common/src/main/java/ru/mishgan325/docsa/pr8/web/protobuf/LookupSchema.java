@@ -0,0 +1,42 @@
+package ru.mishgan325.docsa.pr8.web.protobuf;
+
+import org.springframework.http.MediaType;
+
+/**
+ * The protobuf schema product-service and customer-service answer lookups with, and
+ * order-service reads:
+ * <pre>
+ * message Product      { optional int64 id = 1; optional string name = 2;
+ *                        optional int64 price_unscaled = 3; optional int32 price_scale = 4;
+ *                        optional int32 quantity = 5; }
+ * message ProductList  { repeated Product products = 1; }
+ * message Customer     { optional int64 id = 1; optional int64 user_id = 2; optional string name = 3;
+ *                        optional string phone = 4; optional string address = 5; }
+ * message CustomerList { repeated Customer customers = 1; }
+ * </pre>
+ * A single DTO is a bare message, a list is the matching {@code *List} message.
+ */
+public final class LookupSchema {
+
+    public static final MediaType PROTOBUF = MediaType.parseMediaType("application/x-protobuf");
+
+    /**
+     * The repeated field of {@code ProductList} and {@code CustomerList}.
+     */
+    public static final int LIST_ITEM = 1;
+
+    public static final int PRODUCT_ID = 1;
+    public static final int PRODUCT_NAME = 2;
+    public static final int PRODUCT_PRICE_UNSCALED = 3;
+    public static final int PRODUCT_PRICE_SCALE = 4;
+    public static final int PRODUCT_QUANTITY = 5;
+
+    public static final int CUSTOMER_ID = 1;
+    public static final int CUSTOMER_USER_ID = 2;
+    public static final int CUSTOMER_NAME = 3;
+    public static final int CUSTOMER_PHONE = 4;
+    public static final int CUSTOMER_ADDRESS = 5;
+
+    private LookupSchema() {
+    }
+}
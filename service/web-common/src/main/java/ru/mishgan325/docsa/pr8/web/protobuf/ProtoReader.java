@@ -0,0 +1,97 @@
+package ru.mishgan325.docsa.pr8.web.protobuf;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Minimal protobuf wire-format decoder, the counterpart of {@link ProtoWriter}. Unknown
+ * fields are skipped, so either side can add fields without breaking the other.
+ */
+public final class ProtoReader {
+
+    private final byte[] buffer;
+    private final int limit;
+    private int position;
+
+    public ProtoReader(byte[] buffer) {
+        this(buffer, 0, buffer.length);
+    }
+
+    private ProtoReader(byte[] buffer, int offset, int limit) {
+        this.buffer = buffer;
+        this.position = offset;
+        this.limit = limit;
+    }
+
+    public boolean hasNext() {
+        return position < limit;
+    }
+
+    /**
+     * @return the next field's tag: field number in the high bits, wire type in the low three
+     */
+    public int tag() {
+        return (int) varint();
+    }
+
+    public long int64() {
+        return varint();
+    }
+
+    public String string() {
+        int length = length();
+        String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    public ProtoReader message() {
+        int length = length();
+        ProtoReader nested = new ProtoReader(buffer, position, position + length);
+        position += length;
+        return nested;
+    }
+
+    public void skip(int tag) {
+        switch (tag & 0x7) {
+            case ProtoWriter.VARINT -> varint();
+            case 1 -> advance(8);
+            case ProtoWriter.LENGTH_DELIMITED -> advance(length());
+            case 5 -> advance(4);
+            default -> throw malformed("unsupported wire type " + (tag & 0x7));
+        }
+    }
+
+    private int length() {
+        long length = varint();
+        if (length < 0 || position + length > limit) {
+            throw malformed("length " + length + " runs past the end of the message");
+        }
+        return (int) length;
+    }
+
+    private void advance(int bytes) {
+        if (position + bytes > limit) {
+            throw malformed("truncated message");
+        }
+        position += bytes;
+    }
+
+    private long varint() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (position >= limit) {
+                throw malformed("truncated varint");
+            }
+            byte b = buffer[position++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw malformed("varint longer than 10 bytes");
+    }
+
+    private static IllegalArgumentException malformed(String detail) {
+        return new IllegalArgumentException("Malformed protobuf: " + detail);
+    }
+}
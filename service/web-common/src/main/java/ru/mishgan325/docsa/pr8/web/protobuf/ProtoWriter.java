@@ -0,0 +1,75 @@
+package ru.mishgan325.docsa.pr8.web.protobuf;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Minimal protobuf wire-format encoder: just the varint and length-delimited fields the
+ * {@link LookupSchema} messages use. Null fields are left out, which readers see as "not set".
+ */
+public final class ProtoWriter {
+
+    public static final int VARINT = 0;
+    public static final int LENGTH_DELIMITED = 2;
+
+    private byte[] buffer = new byte[128];
+    private int position;
+
+    public ProtoWriter int64(int field, Long value) {
+        if (value != null) {
+            tag(field, VARINT);
+            varint(value);
+        }
+        return this;
+    }
+
+    public ProtoWriter int32(int field, Integer value) {
+        return int64(field, value == null ? null : value.longValue());
+    }
+
+    public ProtoWriter string(int field, String value) {
+        if (value != null) {
+            bytes(field, value.getBytes(StandardCharsets.UTF_8));
+        }
+        return this;
+    }
+
+    public ProtoWriter message(int field, Consumer<ProtoWriter> body) {
+        ProtoWriter nested = new ProtoWriter();
+        body.accept(nested);
+        return bytes(field, nested.toByteArray());
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, position);
+    }
+
+    private ProtoWriter bytes(int field, byte[] value) {
+        tag(field, LENGTH_DELIMITED);
+        varint(value.length);
+        ensure(value.length);
+        System.arraycopy(value, 0, buffer, position, value.length);
+        position += value.length;
+        return this;
+    }
+
+    private void tag(int field, int wireType) {
+        varint(((long) field << 3) | wireType);
+    }
+
+    private void varint(long value) {
+        ensure(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    private void ensure(int extra) {
+        if (position + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + extra));
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package ru.mishgan325.docsa.pr8.web;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ETagsTest {
+
+    @Test
+    void strongAndWeak_ShouldQuoteJoinedParts() {
+        assertEquals("\"7-3\"", ETags.strong(7L, 3L));
+        assertEquals("W/\"2-5-9\"", ETags.weak(2L, 5L, 9L));
+    }
+
+    @Test
+    void matches_ShouldCompareWeaklyAcrossTheList() {
+        assertTrue(ETags.matches("\"1-0\", \"7-3\"", "\"7-3\""));
+        assertTrue(ETags.matches("W/\"7-3\"", "\"7-3\""));
+        assertTrue(ETags.matches("*", "\"7-3\""));
+        assertFalse(ETags.matches("\"7-2\"", "\"7-3\""));
+        assertFalse(ETags.matches(null, "\"7-3\""));
+    }
+
+    @Test
+    void respond_WhenTagMatches_ShouldReturnNotModifiedWithoutBuildingBody() {
+        AtomicInteger built = new AtomicInteger();
+
+        ResponseEntity<String> response = ETags.respond("\"7-3\"", "\"7-3\"", () -> {
+            built.incrementAndGet();
+            return "body";
+        });
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals("\"7-3\"", response.getHeaders().getETag());
+        assertNull(response.getBody());
+        assertEquals(0, built.get());
+    }
+
+    @Test
+    void respond_WhenTagDiffers_ShouldReturnBodyAndTag() {
+        ResponseEntity<String> response = ETags.respond("\"7-2\"", "\"7-3\"", () -> "body");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"7-3\"", response.getHeaders().getETag());
+        assertEquals("body", response.getBody());
+    }
+}
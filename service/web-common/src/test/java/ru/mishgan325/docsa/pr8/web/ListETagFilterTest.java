@@ -0,0 +1,82 @@
+package ru.mishgan325.docsa.pr8.web;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ListETagFilterTest {
+
+    private static final String TAG = "W/\"2-5-9\"";
+
+    private final AtomicInteger versionQueries = new AtomicInteger();
+    private final AtomicInteger handled = new AtomicInteger();
+    private final ListETagFilter filter = new ListETagFilter(Map.of("/products", request -> {
+        versionQueries.incrementAndGet();
+        return TAG;
+    }));
+
+    @Test
+    void doFilter_WhenTagMatches_ShouldAnswerNotModifiedWithoutCallingController() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/products");
+        request.addHeader("If-None-Match", TAG);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, chain());
+
+        assertEquals(304, response.getStatus());
+        assertEquals(TAG, response.getHeader("ETag"));
+        assertEquals(0, handled.get());
+    }
+
+    @Test
+    void doFilter_WhenTagDiffers_ShouldTagFullResponse() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/products");
+        request.addHeader("If-None-Match", "W/\"2-4-9\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, chain());
+
+        assertEquals(200, response.getStatus());
+        assertEquals(TAG, response.getHeader("ETag"));
+        assertEquals(1, handled.get());
+    }
+
+    @Test
+    void doFilter_WithQueryStringOrOtherPath_ShouldPassThroughUntagged() throws Exception {
+        MockHttpServletRequest paged = new MockHttpServletRequest("GET", "/products");
+        paged.setQueryString("ids=1,2");
+        MockHttpServletResponse pagedResponse = new MockHttpServletResponse();
+        MockHttpServletResponse otherResponse = new MockHttpServletResponse();
+
+        filter.doFilter(paged, pagedResponse, chain());
+        filter.doFilter(new MockHttpServletRequest("GET", "/products/1"), otherResponse, chain());
+
+        assertNull(pagedResponse.getHeader("ETag"));
+        assertNull(otherResponse.getHeader("ETag"));
+        assertEquals(0, versionQueries.get());
+        assertEquals(2, handled.get());
+    }
+
+    @Test
+    void doFilter_WhenVersionQueryFails_ShouldServeWithoutTag() throws Exception {
+        ListETagFilter failing = new ListETagFilter(Map.of("/products", request -> {
+            throw new IllegalStateException("db down");
+        }));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        failing.doFilter(new MockHttpServletRequest("GET", "/products"), response, chain());
+
+        assertNull(response.getHeader("ETag"));
+        assertEquals(1, handled.get());
+    }
+
+    private FilterChain chain() {
+        return (request, response) -> handled.incrementAndGet();
+    }
+}
@@ -0,0 +1,48 @@
+package ru.mishgan325.docsa.pr8.web.protobuf;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProtoReaderTest {
+
+    @Test
+    void read_ShouldReturnWhatTheWriterWrote() {
+        byte[] body = new ProtoWriter()
+            .int64(1, 300L)
+            .message(LookupSchema.LIST_ITEM, nested -> nested.string(2, "Кабель").int32(5, null))
+            .toByteArray();
+
+        ProtoReader reader = new ProtoReader(body);
+
+        assertEquals(1 << 3 | ProtoWriter.VARINT, reader.tag());
+        assertEquals(300L, reader.int64());
+        assertEquals(1 << 3 | ProtoWriter.LENGTH_DELIMITED, reader.tag());
+        ProtoReader nested = reader.message();
+        assertEquals(2 << 3 | ProtoWriter.LENGTH_DELIMITED, nested.tag());
+        assertEquals("Кабель", nested.string());
+        assertFalse(nested.hasNext());
+        assertFalse(reader.hasNext());
+    }
+
+    @Test
+    void skip_ShouldStepOverUnknownFields() {
+        ProtoReader reader = new ProtoReader(new ProtoWriter().string(9, "added later").int64(1, 7L).toByteArray());
+
+        reader.skip(reader.tag());
+
+        assertEquals(1 << 3 | ProtoWriter.VARINT, reader.tag());
+        assertEquals(7L, reader.int64());
+    }
+
+    @Test
+    void string_WhenTruncated_ShouldFail() {
+        byte[] body = new ProtoWriter().string(2, "Laptop").toByteArray();
+        ProtoReader reader = new ProtoReader(Arrays.copyOf(body, body.length - 2));
+        reader.tag();
+
+        assertThrows(IllegalArgumentException.class, reader::string);
+    }
+}